@@ -0,0 +1,105 @@
+package com.kanban.cluster;
+
+import com.kanban.model.ClusterMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.TailableCursorRequest;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcast bus between instances over a capped collection (cluster_bus). Each
+ * instance follows the collection with a tailable cursor and hands messages
+ * from other instances to the handlers subscribed to their topic; its own
+ * messages are skipped. Works on a standalone mongod, no replica set needed.
+ * Delivery is at-most-once: an instance that is down or lags behind the cap
+ * misses messages, so handlers should only invalidate derived state.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.cluster.enabled", havingValue = "true")
+public class ClusterBus {
+
+    public static final String MEMBERSHIP = "membership";
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    ClusterMembership membership;
+
+    @Value("${kanban.cluster.bus-size-bytes:8388608}")
+    long busSizeBytes = 8 * 1024 * 1024;
+
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+    private MessageListenerContainer container;
+
+    @PostConstruct
+    public void start() {
+        if (!mongoTemplate.collectionExists(ClusterMessage.class)) {
+            try {
+                mongoTemplate.createCollection(ClusterMessage.class, CollectionOptions.empty().capped().size(busSizeBytes));
+            } catch (DataAccessException e) {
+                // Another instance created it first
+            }
+        }
+
+        // A tailable cursor on an empty capped collection closes right away, so announce ourselves first
+        LocalDateTime joinedAt = LocalDateTime.now();
+        publish(MEMBERSHIP, membership.getInstanceId());
+
+        container = new DefaultMessageListenerContainer(mongoTemplate);
+        container.register(TailableCursorRequest.builder(this::deliver)
+                .collection(mongoTemplate.getCollectionName(ClusterMessage.class))
+                .filter(Query.query(Criteria.where("at").gte(joinedAt)))
+                .build(), ClusterMessage.class);
+        container.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    public void publish(String topic, String payload) {
+        mongoTemplate.insert(new ClusterMessage(topic, payload, membership.getInstanceId(), LocalDateTime.now()));
+    }
+
+    // Handlers run on the bus listener thread and should return quickly
+    public void subscribe(String topic, Consumer<String> handler) {
+        handlers.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    private void deliver(Message<Document, ClusterMessage> message) {
+        ClusterMessage body = message.getBody();
+        if (body == null || membership.getInstanceId().equals(body.getOrigin())) {
+            return;
+        }
+        for (Consumer<String> handler : handlers.getOrDefault(body.getTopic(), List.of())) {
+            try {
+                handler.accept(body.getPayload());
+            } catch (RuntimeException e) {
+                System.err.println("Cluster bus handler failed on " + body.getTopic() + ": " + e.getMessage());
+            }
+        }
+    }
+}
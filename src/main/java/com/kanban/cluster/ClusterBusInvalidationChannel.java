@@ -0,0 +1,41 @@
+package com.kanban.cluster;
+
+import com.kanban.service.CacheInvalidationChannel;
+import com.kanban.service.HotBoardCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Hot board cache invalidation over the cluster bus; works without a replica set, unlike change streams
+@Component
+@ConditionalOnProperty(name = "kanban.cache.invalidation", havingValue = "cluster-bus")
+public class ClusterBusInvalidationChannel implements CacheInvalidationChannel {
+
+    private static final String TOPIC = "cache";
+    private static final String BOARD = "board:";
+    private static final String TASKS = "tasks:";
+
+    @Autowired
+    ClusterBus clusterBus;
+
+    @Override
+    public void subscribe(HotBoardCache cache) {
+        clusterBus.subscribe(TOPIC, payload -> {
+            if (payload.startsWith(BOARD)) {
+                cache.invalidateBoard(payload.substring(BOARD.length()));
+            } else if (payload.startsWith(TASKS)) {
+                cache.invalidateTasks(payload.substring(TASKS.length()));
+            }
+        });
+    }
+
+    @Override
+    public void boardChanged(String boardId) {
+        clusterBus.publish(TOPIC, BOARD + boardId);
+    }
+
+    @Override
+    public void tasksChanged(String boardId) {
+        clusterBus.publish(TOPIC, TASKS + boardId);
+    }
+}
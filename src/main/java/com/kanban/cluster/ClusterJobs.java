@@ -0,0 +1,145 @@
+package com.kanban.cluster;
+
+import com.kanban.service.AutoArchiveService;
+import com.kanban.service.BoardCountsService;
+import com.kanban.service.BoardMembershipService;
+import com.kanban.service.TaskService;
+import com.kanban.service.TenantService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background jobs that must run on one instance at a time. Every instance
+ * schedules them, but a run only goes ahead on the holder of the job's lease.
+ * The holder keeps renewing it between and during runs (see LeaderElection),
+ * so a replacement takes over within kanban.cluster.lease-ttl-seconds of the
+ * leader dying, however long the job's interval. Without clustering there is
+ * no LeaderElection bean and the jobs simply run.
+ */
+@Component
+public class ClusterJobs {
+
+    public static final String CASCADE_BOARD_DELETES = "cascade-board-deletes";
+    public static final String REBALANCE_RANKS = "rebalance-ranks";
+    public static final String RECONCILE_BOARD_COUNTS = "reconcile-board-counts";
+    public static final String MOVE_ARCHIVED_TASKS = "move-archived-tasks";
+    public static final String AUTO_ARCHIVE = "auto-archive";
+    public static final String BACKFILL_BOARD_MEMBERS = "backfill-board-members";
+    public static final String RECONCILE_TENANTS = "reconcile-tenants";
+
+    @Autowired(required = false)
+    LeaderElection leaderElection;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    BoardCountsService boardCountsService;
+
+    @Autowired
+    AutoArchiveService autoArchiveService;
+
+    @Autowired
+    BoardMembershipService boardMembershipService;
+
+    @Autowired
+    TenantService tenantService;
+
+    // Deleting a board leaves its tasks behind; archive them so they drop out of users' task lists
+    @Scheduled(fixedDelayString = "${kanban.jobs.cascade-board-deletes-seconds:60}",
+            initialDelayString = "${kanban.jobs.cascade-board-deletes-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void cascadeBoardDeletes() {
+        if (isLeader(CASCADE_BOARD_DELETES)) {
+            int archived = taskService.archiveTasksOfDeletedBoards();
+            if (archived > 0) {
+                System.out.println("Archived " + archived + " tasks of deleted boards");
+            }
+        }
+    }
+
+    // Ranks grow a little with every move into the same gap; re-spread the columns where they got long
+    @Scheduled(fixedDelayString = "${kanban.jobs.rebalance-ranks-seconds:300}",
+            initialDelayString = "${kanban.jobs.rebalance-ranks-seconds:300}", timeUnit = TimeUnit.SECONDS)
+    public void rebalanceRanks() {
+        if (isLeader(REBALANCE_RANKS)) {
+            int columns = taskService.rebalanceRanks();
+            if (columns > 0) {
+                System.out.println("Rebalanced task ranks in " + columns + " columns");
+            }
+        }
+    }
+
+    // Board counts are maintained incrementally; recount now and then to correct any drift.
+    // Runs soon after startup so boards created before the counts existed get theirs.
+    @Scheduled(fixedDelayString = "${kanban.jobs.reconcile-board-counts-seconds:600}", initialDelay = 30,
+            timeUnit = TimeUnit.SECONDS)
+    public void reconcileBoardCounts() {
+        if (isLeader(RECONCILE_BOARD_COUNTS)) {
+            int fixed = boardCountsService.reconcile();
+            if (fixed > 0) {
+                System.out.println("Corrected task counts of " + fixed + " boards");
+            }
+        }
+    }
+
+    // Archiving only flags a task; move the archived ones out of the tasks collection in batches
+    @Scheduled(fixedDelayString = "${kanban.jobs.move-archived-tasks-seconds:300}",
+            initialDelayString = "${kanban.jobs.move-archived-tasks-seconds:300}", timeUnit = TimeUnit.SECONDS)
+    public void moveArchivedTasks() {
+        if (isLeader(MOVE_ARCHIVED_TASKS)) {
+            int moved = taskService.moveArchivedTasks();
+            if (moved > 0) {
+                System.out.println("Moved " + moved + " archived tasks to tasks_archive");
+            }
+        }
+    }
+
+    // Tasks left in a terminal column long enough get archived; runs ahead of the move to tasks_archive
+    @Scheduled(fixedDelayString = "${kanban.jobs.auto-archive-seconds:3600}", initialDelay = 120,
+            timeUnit = TimeUnit.SECONDS)
+    public void autoArchive() {
+        if (isLeader(AUTO_ARCHIVE)) {
+            try {
+                int archived = autoArchiveService.archiveStaleTasks();
+                if (archived > 0) {
+                    System.out.println("Auto-archived " + archived + " stale tasks");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Access checks only look at board_members; give boards and assignments from before it existed theirs.
+    // Runs soon after startup, then now and then to repair memberships a failed write left out.
+    @Scheduled(fixedDelayString = "${kanban.jobs.backfill-board-members-seconds:86400}", initialDelay = 15,
+            timeUnit = TimeUnit.SECONDS)
+    public void backfillBoardMembers() {
+        if (isLeader(BACKFILL_BOARD_MEMBERS)) {
+            int added = boardMembershipService.backfill();
+            if (added > 0) {
+                System.out.println("Added " + added + " missing board memberships");
+            }
+        }
+    }
+
+    // Tenant quotas are checked against incrementally maintained counts; recount to correct drift.
+    // Runs right after startup so data from before tenants existed joins the default tenant early.
+    @Scheduled(fixedDelayString = "${kanban.jobs.reconcile-tenants-seconds:600}", initialDelay = 5,
+            timeUnit = TimeUnit.SECONDS)
+    public void reconcileTenants() {
+        if (isLeader(RECONCILE_TENANTS)) {
+            int fixed = tenantService.reconcile();
+            if (fixed > 0) {
+                System.out.println("Corrected board and task counts of " + fixed + " tenants");
+            }
+        }
+    }
+
+    private boolean isLeader(String lease) {
+        return leaderElection == null || leaderElection.tryAcquire(lease);
+    }
+}
@@ -0,0 +1,89 @@
+package com.kanban.cluster;
+
+import com.kanban.model.ClusterMember;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This instance's entry in cluster_members. The row is refreshed every
+ * heartbeat and expires (TTL index) after three missed ones, so
+ * {@link #liveMembers()} is the set of instances currently running against
+ * this database.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.cluster.enabled", havingValue = "true")
+public class ClusterMembership {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    // Random per start unless pinned; two instances must never share one
+    @Value("${kanban.cluster.instance-id:}")
+    String instanceId;
+
+    @Value("${kanban.cluster.heartbeat-seconds:10}")
+    long heartbeatSeconds = 10;
+
+    private String host;
+    private LocalDateTime startedAt;
+
+    @PostConstruct
+    void join() {
+        host = hostName();
+        if (!StringUtils.hasText(instanceId)) {
+            instanceId = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        startedAt = LocalDateTime.now();
+        heartbeat();
+    }
+
+    @Scheduled(fixedDelayString = "${kanban.cluster.heartbeat-seconds:10}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(instanceId)),
+                new Update().set("host", host)
+                        .set("startedAt", startedAt)
+                        .set("heartbeatAt", now)
+                        .set("expiresAt", now.plusSeconds(3 * heartbeatSeconds)),
+                ClusterMember.class);
+    }
+
+    @PreDestroy
+    void leave() {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(instanceId)), ClusterMember.class);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    // The TTL monitor only runs once a minute, so lapsed rows are filtered here as well
+    public List<ClusterMember> liveMembers() {
+        return mongoTemplate.find(Query.query(Criteria.where("expiresAt").gt(LocalDateTime.now())), ClusterMember.class);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
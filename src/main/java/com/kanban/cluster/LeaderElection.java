@@ -0,0 +1,127 @@
+package com.kanban.cluster;
+
+import com.kanban.model.ClusterLease;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Named leases in cluster_leases, one leader per lease. Acquiring is a single
+ * findAndModify that only matches when the lease is free, expired or already
+ * ours; when another instance holds it the upsert hits the _id and fails with a
+ * duplicate key. The leases an instance holds are renewed every third of their
+ * TTL on a thread of its own, whatever the jobs' schedules and however long a
+ * run takes, so the TTL can stay short (kanban.cluster.lease-ttl-seconds) and a
+ * crashed leader is replaced after at most one TTL. Lease times come from each
+ * instance's clock; keep TTLs well above the expected clock skew.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.cluster.enabled", havingValue = "true")
+public class LeaderElection {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    ClusterMembership membership;
+
+    @Value("${kanban.cluster.lease-ttl-seconds:30}")
+    long leaseTtlSeconds = 30;
+
+    // The leases this instance holds, with their TTLs
+    private final Map<String, Duration> held = new ConcurrentHashMap<>();
+    private ScheduledExecutorService renewals;
+
+    @PostConstruct
+    void start() {
+        renewals = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lease-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMillis = Math.max(1000, TimeUnit.SECONDS.toMillis(leaseTtlSeconds) / 3);
+        renewals.scheduleWithFixedDelay(this::renewHeld, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Hand the leases over on shutdown instead of letting them run out
+    @PreDestroy
+    void stop() {
+        renewals.shutdownNow();
+        held.keySet().forEach(this::release);
+    }
+
+    // Take or renew the lease for kanban.cluster.lease-ttl-seconds
+    public boolean tryAcquire(String lease) {
+        return tryAcquire(lease, Duration.ofSeconds(leaseTtlSeconds));
+    }
+
+    // Take or renew the lease; true when this instance holds it for the next ttl, and keeps it until released
+    public boolean tryAcquire(String lease, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        String self = membership.getInstanceId();
+        Query query = Query.query(Criteria.where("_id").is(lease)
+                .orOperator(Criteria.where("owner").is(self), Criteria.where("expiresAt").lt(now)));
+        Update update = new Update().set("owner", self).set("expiresAt", now.plus(ttl));
+        boolean acquired;
+        try {
+            acquired = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), ClusterLease.class) != null;
+        } catch (DuplicateKeyException e) {
+            acquired = false;
+        }
+        if (acquired) {
+            held.put(lease, ttl);
+        } else {
+            held.remove(lease);
+        }
+        return acquired;
+    }
+
+    // Extend the held leases; one that was lost (expired while this instance was stalled, then taken) is dropped
+    void renewHeld() {
+        held.forEach((lease, ttl) -> {
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                boolean renewed = mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(lease).and("owner").is(membership.getInstanceId())),
+                        new Update().set("expiresAt", now.plus(ttl)), ClusterLease.class) != null;
+                if (!renewed) {
+                    held.remove(lease);
+                }
+            } catch (RuntimeException e) {
+                // Kept: the next round retries, and the lease only lapses if Mongo stays unreachable for a TTL
+                System.out.println("Failed to renew lease " + lease + ": " + e.getMessage());
+            }
+        });
+    }
+
+    public boolean isLeader(String lease) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(lease)
+                .and("owner").is(membership.getInstanceId())
+                .and("expiresAt").gt(LocalDateTime.now())), ClusterLease.class);
+    }
+
+    // Give the lease up early (shutdown) so the next instance doesn't wait for it to expire
+    public void release(String lease) {
+        held.remove(lease);
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(lease).and("owner").is(membership.getInstanceId())),
+                ClusterLease.class);
+    }
+}
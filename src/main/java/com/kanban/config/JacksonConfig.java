@@ -0,0 +1,29 @@
+package com.kanban.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.kanban.model.Board;
+import com.kanban.model.Task;
+import com.kanban.web.FieldSelection;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Attaches the ?fields= filter to the models without annotating them
+    @JsonFilter(FieldSelection.FILTER_ID)
+    interface FieldSelectionMixin {
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSelectionCustomizer() {
+        return builder -> builder
+                .mixIn(Task.class, FieldSelectionMixin.class)
+                .mixIn(Board.class, FieldSelectionMixin.class)
+                // Responses without a selection serialize every property
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
@@ -0,0 +1,215 @@
+package com.kanban.config;
+
+import com.kanban.service.ReadRouting;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoCollection;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoAction;
+import org.springframework.data.mongodb.core.MongoActionOperation;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo client and template settings. The kanban.mongo.* block sizes the
+ * connection pool, sets socket timeouts and wire compression, and picks read
+ * and write concerns: a default for each, the read concern of secondary reads,
+ * and write concerns per collection (document type) and per write operation
+ * (insert, update, remove, ...), the collection's taking precedence. They
+ * apply on top of spring.data.mongodb.*, options in the URI included.
+ */
+@Configuration
+public class MongoConfig {
+
+    @Autowired
+    Environment environment;
+
+    @Autowired(required = false)
+    MeterRegistry meterRegistry;
+
+    @Value("${kanban.mongo.pool.min-size:5}")
+    int poolMinSize = 5;
+
+    @Value("${kanban.mongo.pool.max-size:100}")
+    int poolMaxSize = 100;
+
+    // 0 = idle connections are kept open
+    @Value("${kanban.mongo.pool.max-idle-seconds:300}")
+    long poolMaxIdleSeconds = 300;
+
+    // How long an operation waits for a free connection before it fails
+    @Value("${kanban.mongo.pool.max-wait-millis:5000}")
+    long poolMaxWaitMillis = 5000;
+
+    @Value("${kanban.mongo.socket.connect-timeout-millis:5000}")
+    int connectTimeoutMillis = 5000;
+
+    // 0 = no timeout
+    @Value("${kanban.mongo.socket.read-timeout-millis:0}")
+    int readTimeoutMillis = 0;
+
+    // In order of preference; the server picks the first one it supports. Empty = uncompressed
+    @Value("${kanban.mongo.compressors:zstd,snappy}")
+    String compressors = "zstd,snappy";
+
+    // Empty = the server's default
+    @Value("${kanban.mongo.read-concern.default:}")
+    String defaultReadConcern = "";
+
+    @Value("${kanban.mongo.read-concern.secondary-reads:}")
+    String secondaryReadConcern = "";
+
+    @Value("${kanban.mongo.write-concern.default:}")
+    String defaultWriteConcern = "";
+
+    // Maps keyed by column name (Board.wipLimits) must store columns like "v1.2" - dots can't be part of a field name
+    @Bean
+    static BeanPostProcessor mapKeyDotReplacement() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof MappingMongoConverter converter) {
+                    converter.setMapKeyDotReplacement("\uFF0E"); // fullwidth full stop
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Applied to the blocking and the reactive client alike
+    @Bean
+    MongoClientSettingsBuilderCustomizer mongoClientTuning() {
+        return builder -> {
+            builder.applyToConnectionPoolSettings(pool -> {
+                pool.minSize(poolMinSize)
+                        .maxSize(poolMaxSize)
+                        .maxConnectionIdleTime(poolMaxIdleSeconds, TimeUnit.SECONDS)
+                        .maxWaitTime(poolMaxWaitMillis, TimeUnit.MILLISECONDS);
+                if (meterRegistry != null) {
+                    pool.addConnectionPoolListener(new MongoPoolMetrics(meterRegistry));
+                }
+            });
+            builder.applyToSocketSettings(socket -> socket
+                    .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS));
+            builder.compressorList(compressors(compressors));
+            if (!defaultReadConcern.isBlank()) {
+                builder.readConcern(readConcern(defaultReadConcern));
+            }
+            if (!defaultWriteConcern.isBlank()) {
+                builder.writeConcern(writeConcern(defaultWriteConcern));
+            }
+        };
+    }
+
+    // Boot's template, but every collection it hands out reads where the current thread's ReadRouting says
+    // (the primary, or secondaries for the GET handlers marked @SecondaryReads; writes go to the primary either
+    // way) and writes with the collection's own write concern, if it has one
+    @Bean
+    MongoTemplate mongoTemplate(MongoDatabaseFactory factory, MongoConverter converter) {
+        ReadConcern secondaryReads = secondaryReadConcern.isBlank() ? null : readConcern(secondaryReadConcern);
+        Map<String, WriteConcern> collectionWriteConcerns = collectionWriteConcerns(converter.getMappingContext()
+                .getPersistentEntities().stream().map(MongoPersistentEntity::getCollection).toList());
+        MongoTemplate template = new MongoTemplate(factory, converter) {
+            @Override
+            protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+                MongoCollection<Document> prepared = ReadRouting.prepare(super.prepareCollection(collection));
+                if (secondaryReads != null && ReadRouting.current() != null) {
+                    prepared = prepared.withReadConcern(secondaryReads);
+                }
+                // Also covers the writes the resolver isn't asked about (findAndModify, bulk writes on the collection)
+                WriteConcern writeConcern = collectionWriteConcerns.get(collection.getNamespace().getCollectionName());
+                return writeConcern != null ? prepared.withWriteConcern(writeConcern) : prepared;
+            }
+        };
+        Map<MongoActionOperation, WriteConcern> operationWriteConcerns = operationWriteConcerns();
+        if (!collectionWriteConcerns.isEmpty() || !operationWriteConcerns.isEmpty()) {
+            template.setWriteConcernResolver(action -> resolve(collectionWriteConcerns, operationWriteConcerns, action));
+        }
+        return template;
+    }
+
+    // kanban.mongo.write-concern.collections.<collection>, for the collections of the mapped documents
+    Map<String, WriteConcern> collectionWriteConcerns(Collection<String> collections) {
+        Map<String, WriteConcern> writeConcerns = new HashMap<>();
+        for (String collection : collections) {
+            String value = environment.getProperty("kanban.mongo.write-concern.collections." + collection, "");
+            if (!value.isBlank()) {
+                writeConcerns.put(collection, writeConcern(value));
+            }
+        }
+        return writeConcerns;
+    }
+
+    // kanban.mongo.write-concern.<operation>, e.g. insert-list or remove; findAndModify isn't one of them and
+    // uses the collection's write concern or the default
+    Map<MongoActionOperation, WriteConcern> operationWriteConcerns() {
+        Map<MongoActionOperation, WriteConcern> writeConcerns = new EnumMap<>(MongoActionOperation.class);
+        for (MongoActionOperation operation : MongoActionOperation.values()) {
+            String value = environment.getProperty("kanban.mongo.write-concern." + operation.name().toLowerCase().replace('_', '-'), "");
+            if (!value.isBlank()) {
+                writeConcerns.put(operation, writeConcern(value));
+            }
+        }
+        return writeConcerns;
+    }
+
+    static WriteConcern resolve(Map<String, WriteConcern> collectionWriteConcerns,
+                                Map<MongoActionOperation, WriteConcern> operationWriteConcerns, MongoAction action) {
+        WriteConcern writeConcern = collectionWriteConcerns.get(action.getCollectionName());
+        if (writeConcern != null) {
+            return writeConcern;
+        }
+        return operationWriteConcerns.getOrDefault(action.getMongoActionOperation(), action.getDefaultWriteConcern());
+    }
+
+    // zstd, snappy and/or zlib
+    static List<MongoCompressor> compressors(String names) {
+        List<MongoCompressor> compressors = new ArrayList<>();
+        for (String name : names.split(",")) {
+            switch (name.trim().toLowerCase()) {
+                case "" -> { }
+                case "zstd" -> compressors.add(MongoCompressor.createZstdCompressor());
+                case "snappy" -> compressors.add(MongoCompressor.createSnappyCompressor());
+                case "zlib" -> compressors.add(MongoCompressor.createZlibCompressor());
+                default -> throw new IllegalArgumentException("Unknown Mongo compressor: " + name);
+            }
+        }
+        return compressors;
+    }
+
+    // local, available, majority, linearizable or snapshot
+    static ReadConcern readConcern(String level) {
+        return new ReadConcern(ReadConcernLevel.fromString(level.trim()));
+    }
+
+    // majority, w1, w2, w3, acknowledged, unacknowledged or journaled
+    static WriteConcern writeConcern(String name) {
+        WriteConcern writeConcern = WriteConcern.valueOf(name.trim());
+        if (writeConcern == null) {
+            throw new IllegalArgumentException("Unknown write concern: " + name);
+        }
+        return writeConcern;
+    }
+}
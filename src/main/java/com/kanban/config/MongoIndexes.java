@@ -0,0 +1,69 @@
+package com.kanban.config;
+
+import com.kanban.model.ArchivedTask;
+import com.kanban.model.Task;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the model annotations can't declare. The task text index leads with
+ * tenantId, so a search only walks the searching tenant's part of the index;
+ * @TextIndexed can't add a prefix key, so it is created here with the old
+ * weights. Indexes the tenant-prefixed ones replaced are dropped on the way.
+ */
+@Component
+public class MongoIndexes {
+
+    static final String TASK_TEXT_INDEX = "tenant_text";
+
+    // Replaced by tenant-prefixed indexes: collection class -> index names
+    private static final Map<Class<?>, List<String>> LEGACY = Map.of(
+            Task.class, List.of("Task_TextIndex"),
+            ArchivedTask.class, List.of("ArchivedTask_TextIndex", "assigned_archived_at"));
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Value("${spring.data.mongodb.auto-index-creation:false}")
+    boolean autoIndexCreation;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        if (!autoIndexCreation) {
+            return;
+        }
+        LEGACY.forEach((type, names) -> {
+            IndexOperations indexes = mongoTemplate.indexOps(type);
+            for (IndexInfo index : indexes.getIndexInfo()) {
+                if (names.contains(index.getName())) {
+                    indexes.dropIndex(index.getName());
+                    System.out.println("Dropped index " + index.getName() + " of " + mongoTemplate.getCollectionName(type));
+                }
+            }
+        });
+        // A collection has at most one text index, so the legacy one has to be gone first
+        mongoTemplate.indexOps(Task.class).ensureIndex(new IndexDefinition() {
+            @Override
+            public Document getIndexKeys() {
+                return new Document("tenantId", 1).append("title", "text").append("description", "text");
+            }
+
+            @Override
+            public Document getIndexOptions() {
+                return new Document("name", TASK_TEXT_INDEX)
+                        .append("weights", new Document("title", 2).append("description", 1));
+            }
+        });
+    }
+}
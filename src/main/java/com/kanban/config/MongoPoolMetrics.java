@@ -0,0 +1,60 @@
+package com.kanban.config;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times connection checkouts from the Mongo driver's pools: how long an
+ * operation waited for a connection, per server and outcome ("timeout" means
+ * it waited kanban.mongo.pool.max-wait-millis and gave up). Boot's pool
+ * listener reports the rest: mongodb.driver.pool.size, .checkedout (in use)
+ * and .waitqueuesize.
+ * The wait is measured on the thread that asked for the connection, where the
+ * blocking driver also gets it; checkouts the reactive driver completes on
+ * another thread aren't timed.
+ */
+class MongoPoolMetrics implements ConnectionPoolListener {
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<Long> startedAt = new ThreadLocal<>();
+
+    MongoPoolMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        startedAt.set(System.nanoTime());
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        record(event.getConnectionId().getServerId(), "ok");
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        record(event.getServerId(), event.getReason().name().toLowerCase());
+    }
+
+    private void record(ServerId serverId, String outcome) {
+        Long started = startedAt.get();
+        if (started == null) {
+            return;
+        }
+        startedAt.remove();
+        Timer.builder("kanban.mongo.pool.checkout")
+                .tag("server.address", serverId.getAddress().toString())
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,33 @@
+package com.kanban.config;
+
+import com.kanban.web.ConditionalGetInterceptor;
+import com.kanban.web.RateLimitInterceptor;
+import com.kanban.web.ReadRoutingInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Autowired
+    private ConditionalGetInterceptor conditionalGetInterceptor;
+
+    @Autowired
+    private ReadRoutingInterceptor readRoutingInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Rate limit first - a 304 is cheap, but a client polling in a tight loop should still be slowed down
+        registry.addInterceptor(rateLimitInterceptor);
+        registry.addInterceptor(conditionalGetInterceptor);
+        // Last, so requests answered by the ones above never pick a read preference
+        registry.addInterceptor(readRoutingInterceptor);
+    }
+}
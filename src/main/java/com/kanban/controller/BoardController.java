@@ -1,20 +1,45 @@
 package com.kanban.controller;
 
 import com.kanban.model.Board;
+import com.kanban.model.BoardMember;
+import com.kanban.model.BoardMetrics;
+import com.kanban.model.BoardRole;
+import com.kanban.model.ImportResult;
 import com.kanban.model.User;
+import com.kanban.service.BoardMetricsService;
 import com.kanban.service.BoardService;
+import com.kanban.service.BoardTransferService;
 import com.kanban.service.TaskService;
 import com.kanban.service.NotificationService;
+import com.kanban.service.TenantQuotaExceededException;
+import com.kanban.web.ConditionalGet;
+import com.kanban.web.FieldSelection;
+import com.kanban.web.JsonStreams;
+import com.kanban.web.SecondaryReads;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.kanban.service.CollectionVersionService.BOARDS;
+import static com.kanban.service.CollectionVersionService.TASKS;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/boards")
 @CrossOrigin(origins = "http://localhost:3000")
 public class BoardController {
@@ -28,39 +53,122 @@ public class BoardController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private BoardMetricsService boardMetricsService;
+
+    @Autowired
+    private BoardTransferService boardTransferService;
+
+    @Autowired
+    private JsonStreams jsonStreams;
+
     @GetMapping
-    public ResponseEntity<List<Board>> getAllBoards(Authentication authentication) {
+    @ConditionalGet({BOARDS, TASKS})
+    @SecondaryReads
+    public ResponseEntity<MappingJacksonValue> getAllBoards(@RequestParam(required = false) String fields,
+                                                            Authentication authentication,
+                                                            HttpServletResponse response) throws IOException {
         User user = (User) authentication.getPrincipal();
+        FieldSelection selection = FieldSelection.parse(fields, Board.class);
+        if (!selection.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        // Enhanced logic to show boards where user has access
-        List<Board> boards;
-        if ("ADMIN".equals(user.getRole())) {
-            boards = boardService.getAllBoards(user);
-        } else {
-            // For regular users, get boards they can access (owned + with assigned tasks)
-            boards = taskService.getAccessibleBoards(user);
+        // Admins read the whole collection - stream it from the cursor instead of building a list
+        if (user.isAdmin()) {
+            Stream<Board> boards = selection.isAll()
+                    ? boardService.streamAllBoards(user)
+                    : boardService.streamAllBoards(user, selection);
+            jsonStreams.writeArray(response, boards, selection);
+            return null; // body already written
         }
 
-        return ResponseEntity.ok(boards);
+        // For regular users, get the boards they are a member of
+        List<Board> boards = selection.isAll()
+                ? taskService.getAccessibleBoards(user)
+                : taskService.getAccessibleBoards(user, selection);
+        return ResponseEntity.ok(selection.wrap(boards));
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(BOARDS)
+    @SecondaryReads
     public ResponseEntity<Board> getBoardById(@PathVariable String id, Authentication authentication) {
         User user = (User) authentication.getPrincipal();
         Optional<Board> board = boardService.getBoardById(id, user);
         return board.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
+    // Flow metrics (WIP, throughput, cycle/lead time, cumulative flow) over the last `days` days
+    @GetMapping("/{id}/metrics")
+    @ConditionalGet({BOARDS, TASKS})
+    @SecondaryReads
+    public ResponseEntity<BoardMetrics> getBoardMetrics(@PathVariable String id,
+                                                        @RequestParam(defaultValue = "30") int days,
+                                                        Authentication authentication) {
+        if (days < 1 || days > 365) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        User user = (User) authentication.getPrincipal();
+        Optional<Board> board = boardService.getBoardById(id, user);
+        return board.map(b -> ResponseEntity.ok(boardMetricsService.getMetrics(b, days)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // The board and all its tasks as NDJSON, streamed from the cursor - for members who see every task
+    @GetMapping("/{id}/export")
+    @SecondaryReads
+    public ResponseEntity<Void> exportBoard(@PathVariable String id, Authentication authentication,
+                                            HttpServletResponse response) throws IOException {
+        User user = (User) authentication.getPrincipal();
+        Optional<Board> board = boardService.getBoardById(id, user);
+        if (board.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!boardService.seesAllTasks(id, user)) {
+            return ResponseEntity.status(403).build(); // Forbidden - assignees only see their own tasks
+        }
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"board-" + id + ".ndjson\"");
+        jsonStreams.writeLines(response, boardTransferService.exportBoard(board.get()));
+        return null; // body already written
+    }
+
+    // Creates a new board from an export; lines that fail are listed in the result
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResult> importBoard(Authentication authentication,
+                                                    HttpServletRequest request) throws IOException {
+        User user = (User) authentication.getPrincipal();
+        if (!user.canWrite()) {
+            return ResponseEntity.status(403).build(); // Forbidden - viewers are read-only
+        }
+        ImportResult result = boardTransferService.importBoard(request.getReader(), user);
+        return result.getBoardId() != null ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
     @PostMapping
     public ResponseEntity<Board> createBoard(@RequestBody BoardRequest request, Authentication authentication) {
+        if (!request.hasValidWipLimits()) {
+            return ResponseEntity.badRequest().build();
+        }
         User user = (User) authentication.getPrincipal();
+        if (!user.canWrite()) {
+            return ResponseEntity.status(403).build(); // Forbidden - viewers are read-only
+        }
 
         // Default columns if not provided
         List<String> columns = request.getColumns() != null ? request.getColumns() :
                 Arrays.asList("To Do", "In Progress", "Done");
 
         Board board = new Board(request.getName(), request.getDescription(), user.getUsername(), columns);
-        Board createdBoard = boardService.createBoard(board, user);
+        board.setWipLimits(request.getWipLimits());
+        Board createdBoard;
+        try {
+            createdBoard = boardService.createBoard(board, user);
+        } catch (TenantQuotaExceededException e) {
+            return ResponseEntity.status(403).build(); // Forbidden - the tenant's board quota is used up
+        }
 
         // Add notification for board creation
         notificationService.createBoardNotification(createdBoard, user);
@@ -71,9 +179,13 @@ public class BoardController {
     @PutMapping("/{id}")
     public ResponseEntity<Board> updateBoard(@PathVariable String id, @RequestBody BoardRequest request,
                                              Authentication authentication) {
+        if (!request.hasValidWipLimits()) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
             User user = (User) authentication.getPrincipal();
             Board updatedBoard = new Board(request.getName(), request.getDescription(), null, request.getColumns());
+            updatedBoard.setWipLimits(request.getWipLimits());
             Board board = boardService.updateBoard(id, updatedBoard, user);
 
             // Add notification for board update
@@ -110,10 +222,77 @@ public class BoardController {
 
     // New endpoint to get boards where user can create tasks
     @GetMapping("/accessible")
-    public ResponseEntity<List<Board>> getAccessibleBoards(Authentication authentication) {
+    @ConditionalGet({BOARDS, TASKS})
+    @SecondaryReads
+    public ResponseEntity<MappingJacksonValue> getAccessibleBoards(@RequestParam(required = false) String fields,
+                                                                   Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        List<Board> boards = taskService.getAccessibleBoards(user);
-        return ResponseEntity.ok(boards);
+        FieldSelection selection = FieldSelection.parse(fields, Board.class);
+        if (!selection.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<Board> boards = selection.isAll()
+                ? taskService.getAccessibleBoards(user)
+                : taskService.getAccessibleBoards(user, selection);
+        return ResponseEntity.ok(selection.wrap(boards));
+    }
+
+    // Members of the board and their roles (owner, maintainer, viewer, assignee)
+    @GetMapping("/{id}/members")
+    @SecondaryReads
+    public ResponseEntity<List<BoardMember>> getMembers(@PathVariable String id, Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(boardService.getMembers(id, user));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Share the board with a user, or change their role on it - board owners and admins only
+    @PutMapping("/{id}/members/{username}")
+    public ResponseEntity<Void> setMemberRole(@PathVariable String id, @PathVariable String username,
+                                              @RequestBody MemberRequest request, Authentication authentication) {
+        BoardRole role = BoardRole.of(request.getRole());
+        if (role == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            User user = (User) authentication.getPrincipal();
+            boardService.setMemberRole(id, username, role, user);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(403).build(); // Forbidden
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}/members/{username}")
+    public ResponseEntity<Void> removeMember(@PathVariable String id, @PathVariable String username,
+                                             Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            return boardService.removeMember(id, username, user)
+                    ? ResponseEntity.ok().build()
+                    : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(403).build(); // Forbidden
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    public static class MemberRequest {
+        private String role;
+
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
     }
 
     // DTO class for request
@@ -121,6 +300,7 @@ public class BoardController {
         private String name;
         private String description;
         private List<String> columns;
+        private Map<String, Integer> wipLimits;
 
         public String getName() { return name; }
         public void setName(String name) { this.name = name; }
@@ -130,5 +310,18 @@ public class BoardController {
 
         public List<String> getColumns() { return columns; }
         public void setColumns(List<String> columns) { this.columns = columns; }
+
+        public Map<String, Integer> getWipLimits() { return wipLimits; }
+        public void setWipLimits(Map<String, Integer> wipLimits) { this.wipLimits = wipLimits; }
+
+        // Limits are non-negative (0 closes a column) and only for columns of the board
+        boolean hasValidWipLimits() {
+            if (wipLimits == null) {
+                return true;
+            }
+            List<String> boardColumns = columns != null ? columns : Arrays.asList("To Do", "In Progress", "Done");
+            return wipLimits.entrySet().stream()
+                    .allMatch(limit -> limit.getValue() != null && limit.getValue() >= 0 && boardColumns.contains(limit.getKey()));
+        }
     }
 }
\ No newline at end of file
@@ -3,16 +3,27 @@ package com.kanban.controller;
 import com.kanban.model.Notification;
 import com.kanban.model.User;
 import com.kanban.service.NotificationService;
+import com.kanban.web.ConditionalGet;
+import com.kanban.web.FieldSelection;
+import com.kanban.web.JsonStreams;
+import com.kanban.web.RateLimited;
+import com.kanban.web.SecondaryReads;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static com.kanban.service.CollectionVersionService.NOTIFICATIONS;
+
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/notifications")
 @CrossOrigin(origins = "http://localhost:3000")
 public class NotificationController {
@@ -20,10 +31,24 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private JsonStreams jsonStreams;
+
     // Get all notifications (Admin sees all, User sees only their notifications)
     @GetMapping
-    public ResponseEntity<List<Notification>> getNotifications(Authentication authentication) {
+    @ConditionalGet(NOTIFICATIONS)
+    @SecondaryReads
+    @RateLimited(capacity = 10, refillPerSecond = 0.5)
+    public ResponseEntity<List<Notification>> getNotifications(Authentication authentication, HttpServletResponse response)
+            throws IOException {
         User user = (User) authentication.getPrincipal();
+
+        // Admins read every notification - stream it from the cursor instead of building a list
+        if (user.isAdmin()) {
+            jsonStreams.writeArray(response, notificationService.streamNotifications(user), FieldSelection.all());
+            return null; // body already written
+        }
+
         List<Notification> notifications = notificationService.getNotifications(user);
 
         // Debug logging
@@ -64,6 +89,9 @@ public class NotificationController {
 
     // Get unread count
     @GetMapping("/unread-count")
+    @ConditionalGet(NOTIFICATIONS)
+    @SecondaryReads
+    @RateLimited(capacity = 20, refillPerSecond = 1)
     public ResponseEntity<Map<String, Long>> getUnreadCount(Authentication authentication) {
         User user = (User) authentication.getPrincipal();
         long count = notificationService.getUnreadCount(user);
@@ -0,0 +1,44 @@
+package com.kanban.controller;
+
+import com.kanban.model.Board;
+import com.kanban.model.User;
+import com.kanban.service.ReactiveReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking GET endpoints of BoardController, served when the app runs as a reactive web application
+@RestController
+@RequestMapping("/boards")
+@CrossOrigin(origins = "http://localhost:3000")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBoardController {
+
+    @Autowired
+    private ReactiveReadService readService;
+
+    // Admins get every board, regular users the boards they can access (with assigned tasks)
+    @GetMapping
+    public Flux<Board> getAllBoards(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return readService.getAccessibleBoards(user);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Board>> getBoardById(@PathVariable String id, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return readService.getBoardById(id, user)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/accessible")
+    public Flux<Board> getAccessibleBoards(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return readService.getAccessibleBoards(user);
+    }
+}
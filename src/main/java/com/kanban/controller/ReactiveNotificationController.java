@@ -0,0 +1,37 @@
+package com.kanban.controller;
+
+import com.kanban.model.Notification;
+import com.kanban.model.User;
+import com.kanban.service.ReactiveReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Non-blocking GET endpoints of NotificationController, served when the app runs as a reactive web application
+@RestController
+@RequestMapping("/notifications")
+@CrossOrigin(origins = "http://localhost:3000")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveNotificationController {
+
+    @Autowired
+    private ReactiveReadService readService;
+
+    @GetMapping
+    public Flux<Notification> getNotifications(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return readService.getNotifications(user);
+    }
+
+    // The endpoint clients poll - one count query, no thread held while it runs
+    @GetMapping("/unread-count")
+    public Mono<Map<String, Long>> getUnreadCount(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return readService.getUnreadCount(user).map(count -> Map.of("unreadCount", count));
+    }
+}
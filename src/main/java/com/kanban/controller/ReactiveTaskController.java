@@ -0,0 +1,54 @@
+package com.kanban.controller;
+
+import com.kanban.model.Task;
+import com.kanban.model.User;
+import com.kanban.service.ReactiveReadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Non-blocking GET endpoints of TaskController, served when the app runs as a reactive web application
+@RestController
+@RequestMapping("/tasks")
+@CrossOrigin(origins = "http://localhost:3000")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskController {
+
+    @Autowired
+    private ReactiveReadService readService;
+
+    @GetMapping
+    public Flux<Task> getAllTasks(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return readService.getAllTasks(user);
+    }
+
+    @GetMapping("/board/{boardId}")
+    public Mono<ResponseEntity<List<Task>>> getTasksByBoard(@PathVariable String boardId, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return readService.getTasksByBoard(boardId, user)
+                .collectList()
+                .map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Task>> getTaskById(@PathVariable String id, Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return readService.getTaskById(id, user)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/archived")
+    public Flux<Task> getArchivedTasks(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return readService.getArchivedTasks(user);
+    }
+}
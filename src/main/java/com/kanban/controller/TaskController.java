@@ -1,20 +1,37 @@
 package com.kanban.controller;
 
 import com.kanban.model.Task;
+import com.kanban.model.TaskChanges;
+import com.kanban.model.TaskSearchResult;
 import com.kanban.model.User;
 import com.kanban.service.TaskService;
+import com.kanban.service.TenantQuotaExceededException;
+import com.kanban.service.WipLimitExceededException;
 import com.kanban.service.BoardService;
 import com.kanban.service.NotificationService;
+import com.kanban.service.TaskEventService;
+import com.kanban.web.ConditionalGet;
+import com.kanban.web.FieldSelection;
+import com.kanban.web.JsonStreams;
+import com.kanban.web.SecondaryReads;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.kanban.service.CollectionVersionService.BOARDS;
+import static com.kanban.service.CollectionVersionService.TASKS;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/tasks")
 @CrossOrigin(origins = "http://localhost:3000")
 public class TaskController {
@@ -25,25 +42,100 @@ public class TaskController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private JsonStreams jsonStreams;
+
+    @Autowired
+    private TaskEventService taskEventService;
+
     @GetMapping
-    public ResponseEntity<List<Task>> getAllTasks(Authentication authentication) {
+    @ConditionalGet(TASKS)
+    @SecondaryReads
+    public ResponseEntity<MappingJacksonValue> getAllTasks(@RequestParam(required = false) String fields,
+                                                           Authentication authentication,
+                                                           HttpServletResponse response) throws IOException {
         User user = (User) authentication.getPrincipal();
-        List<Task> tasks = taskService.getAllTasks(user);
-        return ResponseEntity.ok(tasks);
+        FieldSelection selection = FieldSelection.parse(fields, Task.class);
+        if (!selection.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Admins read the whole collection - stream it from the cursor instead of building a list
+        if (user.isAdmin()) {
+            Stream<Task> tasks = selection.isAll()
+                    ? taskService.streamAllTasks(user)
+                    : taskService.streamAllTasks(user, selection);
+            jsonStreams.writeArray(response, tasks, selection);
+            return null; // body already written
+        }
+
+        // Plain reads keep using the derived queries; a selection switches to a projected query
+        List<Task> tasks = selection.isAll()
+                ? taskService.getAllTasks(user)
+                : taskService.getAllTasks(user, selection);
+        return ResponseEntity.ok(selection.wrap(tasks));
     }
 
     @GetMapping("/board/{boardId}")
-    public ResponseEntity<List<Task>> getTasksByBoard(@PathVariable String boardId, Authentication authentication) {
+    @ConditionalGet({TASKS, BOARDS})
+    @SecondaryReads
+    public ResponseEntity<MappingJacksonValue> getTasksByBoard(@PathVariable String boardId,
+                                                               @RequestParam(required = false) String fields,
+                                                               Authentication authentication) {
+        FieldSelection selection = FieldSelection.parse(fields, Task.class);
+        if (!selection.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+
         try {
             User user = (User) authentication.getPrincipal();
-            List<Task> tasks = taskService.getTasksByBoard(boardId, user);
-            return ResponseEntity.ok(tasks);
+            List<Task> tasks = selection.isAll()
+                    ? taskService.getTasksByBoard(boardId, user)
+                    : taskService.getTasksByBoard(boardId, user, selection);
+            return ResponseEntity.ok(selection.wrap(tasks));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @GetMapping("/search")
+    @ConditionalGet({TASKS, BOARDS})
+    @SecondaryReads
+    public ResponseEntity<TaskSearchResult> searchTasks(@RequestParam(required = false) String q,
+                                                        @RequestParam(required = false) String status,
+                                                        @RequestParam(required = false) String priority,
+                                                        @RequestParam(required = false) String assignedTo,
+                                                        @RequestParam(required = false) String boardId,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(defaultValue = "20") int size,
+                                                        Authentication authentication) {
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        User user = (User) authentication.getPrincipal();
+        TaskSearchResult result = taskService.searchTasks(q, status, priority, assignedTo, boardId, page, size, user);
+        return ResponseEntity.ok(result);
+    }
+
+    // Incremental sync - pass the returned cursor as since on the next call, starting from 0.
+    // Not a conditional GET: recent events are held back for a moment, so the versions can't vouch for the response.
+    // Stays on the primary: the cursor is only safe while replication lag is shorter than that moment.
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChanges> getChanges(@RequestParam long since,
+                                                  @RequestParam(defaultValue = "500") int limit,
+                                                  Authentication authentication) {
+        if (since < 0 || limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(taskEventService.getChanges(since, limit, user));
+    }
+
     @GetMapping("/{id}")
+    @ConditionalGet({TASKS, BOARDS})
+    @SecondaryReads
     public ResponseEntity<Task> getTaskById(@PathVariable String id, Authentication authentication) {
         User user = (User) authentication.getPrincipal();
         Optional<Task> task = taskService.getTaskById(id, user);
@@ -75,6 +167,10 @@ public class TaskController {
             notificationService.createTaskNotification(createdTask, user);
 
             return ResponseEntity.ok(createdTask);
+        } catch (WipLimitExceededException e) {
+            return ResponseEntity.status(409).build(); // Conflict - the target column is full
+        } catch (TenantQuotaExceededException e) {
+            return ResponseEntity.status(403).build(); // Forbidden - the tenant's task quota is used up
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -118,8 +214,8 @@ public class TaskController {
 
                 return ResponseEntity.ok(task);
             } else {
-                // Regular user can only update status of tasks assigned to them
-                if (!user.getUsername().equals(originalTask.getAssignedTo())) {
+                // Regular users can only update the status of tasks they may modify (assigned, or on a board they maintain)
+                if (!taskService.canModifyTask(originalTask, user)) {
                     return ResponseEntity.status(403).build(); // Forbidden
                 }
 
@@ -149,6 +245,8 @@ public class TaskController {
 
                 return ResponseEntity.ok(task);
             }
+        } catch (WipLimitExceededException e) {
+            return ResponseEntity.status(409).build(); // Conflict - the target column is full
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -187,9 +285,7 @@ public class TaskController {
      * Check if user has admin role
      */
     private boolean isAdmin(Authentication authentication) {
-        return authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .anyMatch(authority -> authority.equals("ADMIN") || authority.equals("ROLE_ADMIN"));
+        return ((User) authentication.getPrincipal()).isAdmin();
     }
 
     // Add this method to your TaskController class
@@ -207,12 +303,37 @@ public class TaskController {
 
             Task updatedTask = taskService.updateTaskStatusOnly(id, request.getStatus(), user);
             return ResponseEntity.ok(updatedTask);
+        } catch (WipLimitExceededException e) {
+            return ResponseEntity.status(409).build(); // Conflict - the target column is full
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    // Drag-and-drop reordering: the task goes between afterTaskId and beforeTaskId of the target column
+    @PutMapping("/{id}/position")
+    public ResponseEntity<Task> moveTask(@PathVariable String id, @RequestBody MoveRequest request,
+                                         Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+
+            if (!taskService.canUpdateTaskStatus(id, user)) {
+                return ResponseEntity.status(403).build(); // Forbidden
+            }
+
+            Task movedTask = taskService.moveTask(id, request.getStatus(), request.getAfterTaskId(),
+                    request.getBeforeTaskId(), user);
+            return ResponseEntity.ok(movedTask);
+        } catch (WipLimitExceededException e) {
+            return ResponseEntity.status(409).build(); // Conflict - the target column is full
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/archived")
+    @ConditionalGet(TASKS)
+    @SecondaryReads
     public ResponseEntity<List<Task>> getArchivedTasks(Authentication authentication) {
         User user = (User) authentication.getPrincipal();
         List<Task> tasks = taskService.getArchivedTasks(user);
@@ -226,6 +347,10 @@ public class TaskController {
             User user = (User) authentication.getPrincipal();
             Task restoredTask = taskService.restoreTask(id, user);
             return ResponseEntity.ok(restoredTask);
+        } catch (WipLimitExceededException e) {
+            return ResponseEntity.status(409).build(); // Conflict - the target column is full
+        } catch (TenantQuotaExceededException e) {
+            return ResponseEntity.status(403).build(); // Forbidden - the tenant's task quota is used up
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -239,6 +364,22 @@ public class TaskController {
         public void setStatus(String status) { this.status = status; }
     }
 
+    // Target column (null = stay) and the neighbours above/below the drop position (null = column edge)
+    public static class MoveRequest {
+        private String status;
+        private String afterTaskId;
+        private String beforeTaskId;
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public String getAfterTaskId() { return afterTaskId; }
+        public void setAfterTaskId(String afterTaskId) { this.afterTaskId = afterTaskId; }
+
+        public String getBeforeTaskId() { return beforeTaskId; }
+        public void setBeforeTaskId(String beforeTaskId) { this.beforeTaskId = beforeTaskId; }
+    }
+
     // DTO class for request
     public static class TaskRequest {
         private String title;
@@ -0,0 +1,58 @@
+package com.kanban.model;
+
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// An archived task moved out of tasks, so archived tasks don't weigh on the active working set.
+// Tasks are archived in place first (isArchived) and moved here in batches by TaskService.moveArchivedTasks.
+@Document(collection = "tasks_archive")
+@CompoundIndexes({
+        @CompoundIndex(name = "tenant_archived_at", def = "{'tenantId': 1, 'archivedAt': -1}"),
+        @CompoundIndex(name = "tenant_assigned_archived_at", def = "{'tenantId': 1, 'assignedTo': 1, 'archivedAt': -1}"),
+        @CompoundIndex(name = "board_archived_at", def = "{'boardId': 1, 'archivedAt': -1}")
+})
+public class ArchivedTask extends Task {
+
+    private LocalDateTime archivedAt; // when it was archived
+
+    public ArchivedTask() {}
+
+    public static ArchivedTask of(Task task) {
+        ArchivedTask archived = new ArchivedTask();
+        copy(task, archived);
+        archived.setArchived(true);
+        // Archiving was its last write in tasks
+        archived.setArchivedAt(task.getUpdatedAt() != null ? task.getUpdatedAt() : LocalDateTime.now());
+        return archived;
+    }
+
+    // The task as stored in tasks again, still archived - the caller restores it
+    public Task toTask() {
+        Task task = new Task();
+        copy(this, task);
+        return task;
+    }
+
+    private static void copy(Task from, Task to) {
+        to.setId(from.getId());
+        to.setTenantId(from.getTenantId());
+        to.setTitle(from.getTitle());
+        to.setDescription(from.getDescription());
+        to.setStatus(from.getStatus());
+        to.setPriority(from.getPriority());
+        to.setAssignedTo(from.getAssignedTo());
+        to.setCreatedBy(from.getCreatedBy());
+        to.setBoardId(from.getBoardId());
+        to.setCreatedAt(from.getCreatedAt());
+        to.setUpdatedAt(from.getUpdatedAt());
+        to.setArchived(from.isArchived());
+        to.setStatusChangedAt(from.getStatusChangedAt());
+        to.setRank(from.getRank());
+    }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
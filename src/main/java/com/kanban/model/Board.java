@@ -3,20 +3,30 @@ package com.kanban.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Document(collection = "boards")
+// Admin board lists (tenantId) and boards by creator within the tenant
+@CompoundIndex(name = "tenant_created_by", def = "{'tenantId': 1, 'createdBy': 1}")
 public class Board {
     @Id
 
     private String id;
+    private String tenantId; // set from the creator's token, never changes
     private String name;
     private String description;
     private String createdBy;
     private List<String> columns;
+    private Map<String, Integer> wipLimits; // column -> max active tasks; columns without an entry are unlimited
+
+    @ReadOnlyProperty
+    private BoardCounts counts; // joined in from board_counts by board list queries, never stored with the board
 
     @CreatedDate
     private LocalDateTime createdAt;
@@ -37,6 +47,9 @@ public class Board {
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
+    public String getTenantId() { return tenantId; }
+    public void setTenantId(String tenantId) { this.tenantId = tenantId; }
+
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
@@ -49,6 +62,17 @@ public class Board {
     public List<String> getColumns() { return columns; }
     public void setColumns(List<String> columns) { this.columns = columns; }
 
+    public Map<String, Integer> getWipLimits() { return wipLimits; }
+    public void setWipLimits(Map<String, Integer> wipLimits) { this.wipLimits = wipLimits; }
+
+    public BoardCounts getCounts() { return counts; }
+    public void setCounts(BoardCounts counts) { this.counts = counts; }
+
+    // The column's WIP limit, null if it has none
+    public Integer wipLimit(String column) {
+        return wipLimits != null ? wipLimits.get(column) : null;
+    }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
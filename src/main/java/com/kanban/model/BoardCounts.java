@@ -0,0 +1,87 @@
+package com.kanban.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Incrementally maintained task counts of one board (companion of boards, same id).
+// Column and priority names are used as field names, so they are stored encoded - see key().
+@Document(collection = "board_counts")
+public class BoardCounts {
+    @Id
+    private String id; // board id
+    private Map<String, Long> status = new HashMap<>(); // active tasks per column
+    private Map<String, Long> priority = new HashMap<>(); // active tasks per priority
+    private long archived; // archived tasks
+
+    public BoardCounts() {}
+
+    public BoardCounts(String boardId) {
+        this.id = boardId;
+    }
+
+    // Update paths of the counters
+    public static String statusField(String status) {
+        return "status." + key(status);
+    }
+
+    public static String priorityField(String priority) {
+        return "priority." + key(priority);
+    }
+
+    public static final String ARCHIVED_FIELD = "archived";
+
+    // Field-name safe form of a value: '.' and '$' can't appear in an update path
+    public static String key(String value) {
+        return value.replace("%", "%25").replace(".", "%2E").replace("$", "%24");
+    }
+
+    public static String unkey(String key) {
+        return key.replace("%24", "$").replace("%2E", ".").replace("%25", "%");
+    }
+
+    // Active tasks in the column (by its plain name)
+    public long statusCount(String column) {
+        return status.getOrDefault(key(column), 0L);
+    }
+
+    // Same counts, ignoring counters that went back to zero
+    public boolean sameCounts(BoardCounts other) {
+        return getStatus().equals(other.getStatus()) && getPriority().equals(other.getPriority())
+                && archived == other.archived;
+    }
+
+    // Getters and Setters - the maps are exposed with plain names and without zero counts
+    @JsonIgnore
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Map<String, Long> getStatus() { return decode(status); }
+    public void setStatus(Map<String, Long> status) { this.status = encode(status); }
+
+    public Map<String, Long> getPriority() { return decode(priority); }
+    public void setPriority(Map<String, Long> priority) { this.priority = encode(priority); }
+
+    public long getArchived() { return archived; }
+    public void setArchived(long archived) { this.archived = archived; }
+
+    private static Map<String, Long> encode(Map<String, Long> counts) {
+        Map<String, Long> encoded = new HashMap<>();
+        counts.forEach((name, count) -> encoded.put(key(name), count));
+        return encoded;
+    }
+
+    private static Map<String, Long> decode(Map<String, Long> counts) {
+        Map<String, Long> decoded = new TreeMap<>();
+        counts.forEach((key, count) -> {
+            if (count != 0) {
+                decoded.put(unkey(key), count);
+            }
+        });
+        return decoded;
+    }
+}
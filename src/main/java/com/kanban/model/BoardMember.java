@@ -0,0 +1,48 @@
+package com.kanban.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// A user's membership of a board. Access checks read all of a user's memberships with one
+// lookup on user_board; board_user serves the member list and deleting a board's memberships.
+@Document(collection = "board_members")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_board", def = "{'username': 1, 'boardId': 1}", unique = true),
+        @CompoundIndex(name = "board_user", def = "{'boardId': 1, 'username': 1}")
+})
+public class BoardMember {
+    @Id
+    private String id;
+    private String boardId;
+    private String username;
+    private BoardRole role;
+    private LocalDateTime addedAt;
+
+    public BoardMember() {}
+
+    public BoardMember(String boardId, String username, BoardRole role) {
+        this.boardId = boardId;
+        this.username = username;
+        this.role = role;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getBoardId() { return boardId; }
+    public void setBoardId(String boardId) { this.boardId = boardId; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public BoardRole getRole() { return role; }
+    public void setRole(BoardRole role) { this.role = role; }
+
+    public LocalDateTime getAddedAt() { return addedAt; }
+    public void setAddedAt(LocalDateTime addedAt) { this.addedAt = addedAt; }
+}
@@ -0,0 +1,46 @@
+package com.kanban.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class BoardMetrics {
+    private String boardId;
+    private int days;
+    private LocalDateTime generatedAt;
+    private Map<String, Long> wip; // column -> active tasks
+    private long throughput; // tasks that reached the last column in the window
+    private Map<String, Long> throughputByDay;
+    private Map<String, Double> cycleTimeHours; // p50/p85/p95 from leaving the first column to done
+    private Map<String, Double> leadTimeHours; // p50/p85/p95 from creation to done
+    private Map<String, Map<String, Long>> cumulativeFlow; // day -> column -> cumulative arrivals
+
+    public BoardMetrics() {}
+
+    // Getters and Setters
+    public String getBoardId() { return boardId; }
+    public void setBoardId(String boardId) { this.boardId = boardId; }
+
+    public int getDays() { return days; }
+    public void setDays(int days) { this.days = days; }
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+
+    public Map<String, Long> getWip() { return wip; }
+    public void setWip(Map<String, Long> wip) { this.wip = wip; }
+
+    public long getThroughput() { return throughput; }
+    public void setThroughput(long throughput) { this.throughput = throughput; }
+
+    public Map<String, Long> getThroughputByDay() { return throughputByDay; }
+    public void setThroughputByDay(Map<String, Long> throughputByDay) { this.throughputByDay = throughputByDay; }
+
+    public Map<String, Double> getCycleTimeHours() { return cycleTimeHours; }
+    public void setCycleTimeHours(Map<String, Double> cycleTimeHours) { this.cycleTimeHours = cycleTimeHours; }
+
+    public Map<String, Double> getLeadTimeHours() { return leadTimeHours; }
+    public void setLeadTimeHours(Map<String, Double> leadTimeHours) { this.leadTimeHours = leadTimeHours; }
+
+    public Map<String, Map<String, Long>> getCumulativeFlow() { return cumulativeFlow; }
+    public void setCumulativeFlow(Map<String, Map<String, Long>> cumulativeFlow) { this.cumulativeFlow = cumulativeFlow; }
+}
@@ -0,0 +1,37 @@
+package com.kanban.model;
+
+// A user's role on one board (see BoardMember), strongest first. Memberships are only ever
+// upgraded automatically, so an owner who gets a task assigned stays the owner.
+public enum BoardRole {
+    OWNER,      // the board's creator: everything, including managing members
+    MAINTAINER, // sees and edits every task of the board
+    VIEWER,     // sees every task of the board, read-only
+    ASSIGNEE;   // added when a task is assigned: sees and edits their own tasks only
+
+    // Resolves a role name ("viewer", "VIEWER", ...); null for unknown roles
+    public static BoardRole of(String name) {
+        for (BoardRole role : values()) {
+            if (role.name().equalsIgnoreCase(name)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    // At least as strong as the other role
+    public boolean includes(BoardRole other) {
+        return ordinal() <= other.ordinal();
+    }
+
+    public boolean seesAllTasks() {
+        return includes(VIEWER);
+    }
+
+    public boolean modifiesAllTasks() {
+        return includes(MAINTAINER);
+    }
+
+    public boolean managesBoard() {
+        return this == OWNER;
+    }
+}
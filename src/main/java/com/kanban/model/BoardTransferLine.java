@@ -0,0 +1,31 @@
+package com.kanban.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One NDJSON line of a board export/import: the board first, then one line per task
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BoardTransferLine {
+    private Board board;
+    private Task task;
+
+    public BoardTransferLine() {}
+
+    public static BoardTransferLine of(Board board) {
+        BoardTransferLine line = new BoardTransferLine();
+        line.board = board;
+        return line;
+    }
+
+    public static BoardTransferLine of(Task task) {
+        BoardTransferLine line = new BoardTransferLine();
+        line.task = task;
+        return line;
+    }
+
+    // Getters and Setters
+    public Board getBoard() { return board; }
+    public void setBoard(Board board) { this.board = board; }
+
+    public Task getTask() { return task; }
+    public void setTask(Task task) { this.task = task; }
+}
@@ -0,0 +1,27 @@
+package com.kanban.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Time-limited ownership of a named singleton job; whoever holds an unexpired lease is its leader
+@Document(collection = "cluster_leases")
+public class ClusterLease {
+    @Id
+    private String id; // lease name
+    private String owner; // instance id
+    private LocalDateTime expiresAt;
+
+    public ClusterLease() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
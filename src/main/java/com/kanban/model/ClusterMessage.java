@@ -0,0 +1,42 @@
+package com.kanban.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Broadcast bus entry; the collection is capped, so old messages age out on their own
+@Document(collection = "cluster_bus")
+public class ClusterMessage {
+    @Id
+    private String id;
+    private String topic;
+    private String payload;
+    private String origin; // instance id of the sender
+    private LocalDateTime at;
+
+    public ClusterMessage() {}
+
+    public ClusterMessage(String topic, String payload, String origin, LocalDateTime at) {
+        this.topic = topic;
+        this.payload = payload;
+        this.origin = origin;
+        this.at = at;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public String getOrigin() { return origin; }
+    public void setOrigin(String origin) { this.origin = origin; }
+
+    public LocalDateTime getAt() { return at; }
+    public void setAt(LocalDateTime at) { this.at = at; }
+}
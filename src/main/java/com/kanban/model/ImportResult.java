@@ -0,0 +1,59 @@
+package com.kanban.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Response of POST /boards/import - the new board and what happened to each line
+public class ImportResult {
+    // Only the first errors are listed; failed still counts all of them
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private String boardId;
+    private long imported; // tasks
+    private long failed; // lines
+    private List<LineError> errors = new ArrayList<>();
+
+    public static class LineError {
+        private long line;
+        private String message;
+
+        public LineError() {}
+
+        public LineError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+
+    public ImportResult() {}
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public void addError(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new LineError(line, message));
+        }
+    }
+
+    // Getters and Setters
+    public String getBoardId() { return boardId; }
+    public void setBoardId(String boardId) { this.boardId = boardId; }
+
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public List<LineError> getErrors() { return errors; }
+    public void setErrors(List<LineError> errors) { this.errors = errors; }
+}
@@ -2,14 +2,22 @@ package com.kanban.model;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "notifications")
+// Every notification read is within one tenant: admins read the whole tenant, users their own
+@CompoundIndexes({
+        @CompoundIndex(name = "tenant_target_created", def = "{'tenantId': 1, 'targetUser': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "tenant_target_read", def = "{'tenantId': 1, 'targetUser': 1, 'isRead': 1}")
+})
 public class Notification {
     @Id
     private String id;
+    private String tenantId; // tenant of the board or task it is about
     private String message;
     private String type; // TASK_CREATED, TASK_UPDATED, TASK_ASSIGNED, TASK_DELETED, BOARD_CREATED, BOARD_UPDATED, BOARD_DELETED
     private String taskId;
@@ -42,6 +50,9 @@ public class Notification {
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
+    public String getTenantId() { return tenantId; }
+    public void setTenantId(String tenantId) { this.tenantId = tenantId; }
+
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
 
@@ -76,6 +87,7 @@ public class Notification {
     public String toString() {
         return "Notification{" +
                 "id='" + id + '\'' +
+                ", tenantId='" + tenantId + '\'' +
                 ", message='" + message + '\'' +
                 ", type='" + type + '\'' +
                 ", taskId='" + taskId + '\'' +
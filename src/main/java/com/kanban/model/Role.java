@@ -0,0 +1,49 @@
+package com.kanban.model;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Global roles, strongest first. Each role also holds the authorities of the roles below it, so
+// hasRole('USER') admits admins. The authority lists are built once per role. Per-board roles
+// (owner, maintainer, ...) live in BoardRole.
+public enum Role {
+    ADMIN,
+    USER,
+    VIEWER; // read-only
+
+    private List<GrantedAuthority> authorities;
+
+    static {
+        for (Role role : values()) {
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            for (Role implied : values()) {
+                if (role.includes(implied)) {
+                    authorities.add(new SimpleGrantedAuthority("ROLE_" + implied.name()));
+                }
+            }
+            role.authorities = List.copyOf(authorities);
+        }
+    }
+
+    // Resolves a role claim ("admin", "ADMIN", ...); null for unknown roles
+    public static Role of(String name) {
+        for (Role role : values()) {
+            if (role.name().equalsIgnoreCase(name)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    // At least as strong as the other role
+    public boolean includes(Role other) {
+        return ordinal() <= other.ordinal();
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
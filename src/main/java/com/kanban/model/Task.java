@@ -3,14 +3,32 @@ package com.kanban.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "tasks")
+// Indexes for reads across boards lead with tenantId, so one tenant's tasks never scan another's.
+// Board-led indexes need no prefix (a board belongs to one tenant), nor do the jobs' indexes, which
+// sweep every tenant. The text index (tenantId, title, description) is created by MongoIndexes.
+@CompoundIndexes({
+        @CompoundIndex(name = "board_status_rank", def = "{'boardId': 1, 'status': 1, 'rank': 1}"),
+        // Admin task lists (tenantId) and users' assigned tasks (tenantId, assignedTo)
+        @CompoundIndex(name = "tenant_assigned", def = "{'tenantId': 1, 'assignedTo': 1}"),
+        // Auto-archiving looks up the tasks that have sat in a column the longest
+        @CompoundIndex(name = "status_changed_at", def = "{'status': 1, 'statusChangedAt': 1}"),
+        // Only covers the archived tasks that haven't been moved to tasks_archive yet
+        @CompoundIndex(name = "archived_assigned", def = "{'isArchived': 1, 'assignedTo': 1}",
+                partialFilter = "{'isArchived': true}"),
+        @CompoundIndex(name = "tenant_archived_assigned", def = "{'tenantId': 1, 'isArchived': 1, 'assignedTo': 1}",
+                partialFilter = "{'isArchived': true}")
+})
 public class Task {
     @Id
     private String id;
+    private String tenantId; // the board's tenant
     private String title;
     private String description;
     private String status;
@@ -27,6 +45,10 @@ public class Task {
 
     private boolean isArchived = false; // New field
 
+    private LocalDateTime statusChangedAt; // when the task entered its current column
+
+    private String rank; // position within the column, see Ranks
+
     public Task() {}
 
     public Task(String title, String description, String status, String priority,
@@ -44,6 +66,9 @@ public class Task {
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
+    public String getTenantId() { return tenantId; }
+    public void setTenantId(String tenantId) { this.tenantId = tenantId; }
+
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
@@ -73,4 +98,10 @@ public class Task {
 
     public boolean isArchived() { return isArchived; }
     public void setArchived(boolean archived) { isArchived = archived; }
+
+    public LocalDateTime getStatusChangedAt() { return statusChangedAt; }
+    public void setStatusChangedAt(LocalDateTime statusChangedAt) { this.statusChangedAt = statusChangedAt; }
+
+    public String getRank() { return rank; }
+    public void setRank(String rank) { this.rank = rank; }
 }
\ No newline at end of file
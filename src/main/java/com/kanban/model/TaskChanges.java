@@ -0,0 +1,44 @@
+package com.kanban.model;
+
+import java.util.List;
+
+// Response of GET /tasks/changes - current state of what changed since the caller's cursor
+public class TaskChanges {
+    private long cursor; // pass back as ?since= on the next call
+    private boolean hasMore;
+    private List<Task> tasks;
+    private List<Board> boards;
+    private List<String> deletedTaskIds;
+    private List<String> deletedBoardIds;
+
+    public TaskChanges() {}
+
+    public TaskChanges(long cursor, boolean hasMore, List<Task> tasks, List<Board> boards,
+                       List<String> deletedTaskIds, List<String> deletedBoardIds) {
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+        this.tasks = tasks;
+        this.boards = boards;
+        this.deletedTaskIds = deletedTaskIds;
+        this.deletedBoardIds = deletedBoardIds;
+    }
+
+    // Getters and Setters
+    public long getCursor() { return cursor; }
+    public void setCursor(long cursor) { this.cursor = cursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public List<Task> getTasks() { return tasks; }
+    public void setTasks(List<Task> tasks) { this.tasks = tasks; }
+
+    public List<Board> getBoards() { return boards; }
+    public void setBoards(List<Board> boards) { this.boards = boards; }
+
+    public List<String> getDeletedTaskIds() { return deletedTaskIds; }
+    public void setDeletedTaskIds(List<String> deletedTaskIds) { this.deletedTaskIds = deletedTaskIds; }
+
+    public List<String> getDeletedBoardIds() { return deletedBoardIds; }
+    public void setDeletedBoardIds(List<String> deletedBoardIds) { this.deletedBoardIds = deletedBoardIds; }
+}
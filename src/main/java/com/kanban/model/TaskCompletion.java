@@ -0,0 +1,29 @@
+package com.kanban.model;
+
+import org.springframework.data.annotation.Id;
+
+import java.time.LocalDateTime;
+
+// Per-task timestamps aggregated from the transition log for cycle/lead time metrics
+public class TaskCompletion {
+    @Id
+    private String taskId;
+    private LocalDateTime createdAt; // null for tasks created before transitions were recorded
+    private LocalDateTime startedAt;
+    private LocalDateTime doneAt;
+
+    public TaskCompletion() {}
+
+    // Getters and Setters
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getDoneAt() { return doneAt; }
+    public void setDoneAt(LocalDateTime doneAt) { this.doneAt = doneAt; }
+}
@@ -0,0 +1,75 @@
+package com.kanban.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Append-only change log entry for a task or board, ordered by seq
+@Document(collection = "task_events")
+@CompoundIndexes({
+        @CompoundIndex(name = "board_seq", def = "{'boardId': 1, 'seq': 1}"),
+        @CompoundIndex(name = "audience_seq", def = "{'audience': 1, 'seq': 1}")
+})
+public class TaskEvent {
+    public static final String TASK = "TASK";
+    public static final String BOARD = "BOARD";
+
+    public static final String UPSERT = "UPSERT";
+    public static final String TOMBSTONE = "TOMBSTONE"; // archived or deleted
+
+    @Id
+    private String id;
+    @Indexed(unique = true)
+    private long seq;
+    private String entityType; // TASK, BOARD
+    private String entityId;
+    private String boardId; // null for events only meant for their audience
+    private String op; // UPSERT, TOMBSTONE
+    private List<String> audience; // users whose view changed beyond the board's owner
+    private String tenantId; // the entity's, kept for tombstones of entities that are gone
+    @Indexed // finds the recent events the sync cursor has to wait for
+    private LocalDateTime at;
+
+    public TaskEvent() {}
+
+    public TaskEvent(String entityType, String entityId, String boardId, String op, List<String> audience) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.boardId = boardId;
+        this.op = op;
+        this.audience = audience;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+
+    public String getEntityId() { return entityId; }
+    public void setEntityId(String entityId) { this.entityId = entityId; }
+
+    public String getBoardId() { return boardId; }
+    public void setBoardId(String boardId) { this.boardId = boardId; }
+
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+
+    public List<String> getAudience() { return audience; }
+    public void setAudience(List<String> audience) { this.audience = audience; }
+
+    public String getTenantId() { return tenantId; }
+    public void setTenantId(String tenantId) { this.tenantId = tenantId; }
+
+    public LocalDateTime getAt() { return at; }
+    public void setAt(LocalDateTime at) { this.at = at; }
+}
@@ -0,0 +1,38 @@
+package com.kanban.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class TaskSearchResult {
+    private List<Task> tasks;
+    private long total;
+    private int page;
+    private int size;
+    private Map<String, Map<String, Long>> facets; // facet field -> value -> count
+
+    public TaskSearchResult() {}
+
+    public TaskSearchResult(List<Task> tasks, long total, int page, int size, Map<String, Map<String, Long>> facets) {
+        this.tasks = tasks;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.facets = facets;
+    }
+
+    // Getters and Setters
+    public List<Task> getTasks() { return tasks; }
+    public void setTasks(List<Task> tasks) { this.tasks = tasks; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public Map<String, Map<String, Long>> getFacets() { return facets; }
+    public void setFacets(Map<String, Map<String, Long>> facets) { this.facets = facets; }
+}
@@ -0,0 +1,60 @@
+package com.kanban.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// One row per status change of a task; the source for board flow metrics
+@Document(collection = "task_transitions")
+@CompoundIndexes({
+        @CompoundIndex(name = "board_changed_at", def = "{'boardId': 1, 'changedAt': 1}"),
+        // Histories of the tasks that moved in a metrics window
+        @CompoundIndex(name = "task_changed_at", def = "{'taskId': 1, 'changedAt': 1}")
+})
+public class TaskTransition {
+    @Id
+    private String id;
+    private String taskId;
+    private String boardId;
+    private String fromStatus; // null when the task was created
+    private String toStatus;
+    private String changedBy;
+    private LocalDateTime changedAt;
+
+    public TaskTransition() {}
+
+    public TaskTransition(String taskId, String boardId, String fromStatus, String toStatus,
+                          String changedBy, LocalDateTime changedAt) {
+        this.taskId = taskId;
+        this.boardId = boardId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.changedBy = changedBy;
+        this.changedAt = changedAt;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public String getBoardId() { return boardId; }
+    public void setBoardId(String boardId) { this.boardId = boardId; }
+
+    public String getFromStatus() { return fromStatus; }
+    public void setFromStatus(String fromStatus) { this.fromStatus = fromStatus; }
+
+    public String getToStatus() { return toStatus; }
+    public void setToStatus(String toStatus) { this.toStatus = toStatus; }
+
+    public String getChangedBy() { return changedBy; }
+    public void setChangedBy(String changedBy) { this.changedBy = changedBy; }
+
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+}
@@ -0,0 +1,35 @@
+package com.kanban.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Boards and active tasks of one tenant, maintained with every board and task write like BoardCounts,
+// so quota checks don't have to count
+@Document(collection = "tenant_counts")
+public class TenantCounts {
+    @Id
+    private String id; // tenant id
+    private long boards;
+    private long tasks; // active (non-archived) tasks
+
+    public static final String BOARDS_FIELD = "boards";
+    public static final String TASKS_FIELD = "tasks";
+
+    public TenantCounts() {}
+
+    public TenantCounts(String tenantId, long boards, long tasks) {
+        this.id = tenantId;
+        this.boards = boards;
+        this.tasks = tasks;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public long getBoards() { return boards; }
+    public void setBoards(long boards) { this.boards = boards; }
+
+    public long getTasks() { return tasks; }
+    public void setTasks(long tasks) { this.tasks = tasks; }
+}
@@ -0,0 +1,18 @@
+package com.kanban.model;
+
+// Tenant ids: every user, board, task and notification belongs to one tenant. Tokens without the
+// tenant claim and documents from before tenants existed belong to the default tenant.
+public final class Tenants {
+
+    public static final String DEFAULT = "default";
+
+    private Tenants() {}
+
+    public static String orDefault(String tenantId) {
+        return tenantId != null && !tenantId.isBlank() ? tenantId : DEFAULT;
+    }
+
+    public static boolean same(String tenantId, User user) {
+        return orDefault(tenantId).equals(user.getTenantId());
+    }
+}
@@ -1,26 +1,34 @@
 package com.kanban.model;
 
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.List;
 
 public class User implements UserDetails {
     private String username;
     private String email;
-    private String role;
+    private Role role;
+    private String tenantId;
 
-    public User(String username, String email, String role) {
+    public User(String username, String email, Role role, String tenantId) {
         this.username = username;
         this.email = email;
         this.role = role;
+        this.tenantId = Tenants.orDefault(tenantId);
+    }
+
+    public User(String username, String email, Role role) {
+        this(username, email, role, Tenants.DEFAULT);
+    }
+
+    public User(String username, String email, String role) {
+        this(username, email, Role.of(role));
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
+        return role.getAuthorities();
     }
 
     @Override
@@ -37,10 +45,24 @@ public class User implements UserDetails {
         return email;
     }
 
-    public String getRole() {
+    public Role getRole() {
         return role;
     }
 
+    // Usernames are only unique within a tenant
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    // Viewers can look but not change anything
+    public boolean canWrite() {
+        return role.includes(Role.USER);
+    }
+
     @Override
     public boolean isAccountNonExpired() {
         return true;
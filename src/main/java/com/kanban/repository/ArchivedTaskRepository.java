@@ -0,0 +1,19 @@
+package com.kanban.repository;
+
+import com.kanban.model.ArchivedTask;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedTaskRepository extends MongoRepository<ArchivedTask, String> {
+    List<ArchivedTask> findByTenantIdOrderByArchivedAtDesc(String tenantId);
+    List<ArchivedTask> findByTenantIdAndAssignedToOrderByArchivedAtDesc(String tenantId, String assignedTo);
+
+    // Cursor-backed read of one board's archived tasks (board export); callers must close the stream
+    @Meta(cursorBatchSize = 500)
+    Stream<ArchivedTask> streamByBoardId(String boardId);
+}
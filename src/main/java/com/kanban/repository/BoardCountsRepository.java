@@ -0,0 +1,9 @@
+package com.kanban.repository;
+
+import com.kanban.model.BoardCounts;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BoardCountsRepository extends MongoRepository<BoardCounts, String>, BoardCountsRepositoryCustom {
+}
@@ -0,0 +1,10 @@
+package com.kanban.repository;
+
+import java.util.Map;
+
+public interface BoardCountsRepositoryCustom {
+
+    // Apply the deltas (counter path, see BoardCounts.statusField -> change) in a single update, creating the document
+    // if needed. With a limit the limited counter must be below it, otherwise nothing changes and false is returned.
+    boolean increment(String boardId, Map<String, Long> deltas, String limitedField, Integer limit);
+}
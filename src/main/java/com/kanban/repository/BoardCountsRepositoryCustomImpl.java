@@ -0,0 +1,41 @@
+package com.kanban.repository;
+
+import com.kanban.model.BoardCounts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Map;
+
+public class BoardCountsRepositoryCustomImpl implements BoardCountsRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean increment(String boardId, Map<String, Long> deltas, String limitedField, Integer limit) {
+        if (limit != null && limit <= 0) {
+            return false;
+        }
+
+        Criteria criteria = Criteria.where("_id").is(boardId);
+        if (limit != null) {
+            // $not $gte also matches a counter that doesn't exist yet
+            criteria = criteria.and(limitedField).not().gte(limit);
+        }
+        Update update = new Update();
+        deltas.forEach(update::inc);
+
+        try {
+            // The check and the increments are one document update; boards without counts get them on first use
+            mongoTemplate.upsert(Query.query(criteria), update, BoardCounts.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // The document exists but didn't match: the limited counter is full
+            return false;
+        }
+    }
+}
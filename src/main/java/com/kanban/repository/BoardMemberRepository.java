@@ -0,0 +1,19 @@
+package com.kanban.repository;
+
+import com.kanban.model.BoardMember;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BoardMemberRepository extends MongoRepository<BoardMember, String>, BoardMemberRepositoryCustom {
+    // All memberships of a user - a prefix of the user_board index
+    List<BoardMember> findByUsername(String username);
+
+    List<BoardMember> findByBoardIdOrderByUsernameAsc(String boardId);
+
+    long deleteByBoardIdAndUsername(String boardId, String username);
+
+    long deleteByBoardId(String boardId);
+}
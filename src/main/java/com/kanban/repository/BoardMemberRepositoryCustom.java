@@ -0,0 +1,20 @@
+package com.kanban.repository;
+
+import com.kanban.model.BoardMember;
+import com.kanban.model.BoardRole;
+
+import java.util.List;
+
+public interface BoardMemberRepositoryCustom {
+
+    // Add the membership unless the user already has one on the board, whatever its role.
+    // Returns true if it was added.
+    boolean addIfAbsent(String boardId, String username, BoardRole role);
+
+    // Give the user the role on the board, adding the membership if needed
+    void setRole(String boardId, String username, BoardRole role);
+
+    // Many memberships in one bulk write: with overwrite like setRole, otherwise like addIfAbsent.
+    // Returns the number added or changed.
+    int addAll(List<BoardMember> members, boolean overwrite);
+}
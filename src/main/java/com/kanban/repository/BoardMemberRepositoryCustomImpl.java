@@ -0,0 +1,73 @@
+package com.kanban.repository;
+
+import com.kanban.model.BoardMember;
+import com.kanban.model.BoardRole;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class BoardMemberRepositoryCustomImpl implements BoardMemberRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean addIfAbsent(String boardId, String username, BoardRole role) {
+        try {
+            // $setOnInsert leaves an existing membership (and its role) alone
+            return mongoTemplate.upsert(member(boardId, username), insert(role), BoardMember.class).getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            // A concurrent upsert of the same membership won
+            return false;
+        }
+    }
+
+    @Override
+    public void setRole(String boardId, String username, BoardRole role) {
+        Update update = new Update().set("role", role).setOnInsert("addedAt", LocalDateTime.now());
+        try {
+            mongoTemplate.upsert(member(boardId, username), update, BoardMember.class);
+        } catch (DuplicateKeyException e) {
+            // Lost the insert race; the membership exists now, so this is a plain update
+            mongoTemplate.updateFirst(member(boardId, username), update, BoardMember.class);
+        }
+    }
+
+    @Override
+    public int addAll(List<BoardMember> members, boolean overwrite) {
+        if (members.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BoardMember.class);
+        for (BoardMember member : members) {
+            Update update = overwrite
+                    ? new Update().set("role", member.getRole()).setOnInsert("addedAt", LocalDateTime.now())
+                    : insert(member.getRole());
+            bulk.upsert(member(member.getBoardId(), member.getUsername()), update);
+        }
+        try {
+            BulkWriteResult result = bulk.execute();
+            return result.getUpserts().size() + result.getModifiedCount();
+        } catch (BulkOperationException e) {
+            // Memberships added concurrently by regular writes fail on the unique index; the rest went through
+            return e.getResult().getUpserts().size() + e.getResult().getModifiedCount();
+        }
+    }
+
+    private static Query member(String boardId, String username) {
+        return Query.query(Criteria.where("username").is(username).and("boardId").is(boardId));
+    }
+
+    private static Update insert(BoardRole role) {
+        return new Update().setOnInsert("role", role).setOnInsert("addedAt", LocalDateTime.now());
+    }
+}
@@ -1,21 +1,28 @@
 package com.kanban.repository;
 
 import com.kanban.model.Board;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface BoardRepository extends MongoRepository<Board, String> {
+public interface BoardRepository extends MongoRepository<Board, String>, BoardRepositoryCustom {
 
-    // Find boards created by a specific user
-    List<Board> findByCreatedBy(String createdBy);
+    // Boards of the tenant, and those created by a specific user in it
+    List<Board> findByTenantId(String tenantId);
+    List<Board> findByTenantIdAndCreatedBy(String tenantId, String createdBy);
 
     // Find boards by multiple IDs (for boards where user has assigned tasks)
     List<Board> findAllById(Iterable<String> ids);
 
+    // Cursor-backed read of the whole collection; callers must close the stream
+    @Meta(cursorBatchSize = 500)
+    Stream<Board> streamAllBy();
+
     // Custom query to find boards where user is either creator or has tasks assigned
 //    @Query("{ $or: [ { 'createdBy': ?0 }, { '_id': { $in: ?1 } } ] }")
 //    List<Board> findBoardsAccessibleToUser(String username, List<String> boardIdsWithTasks);
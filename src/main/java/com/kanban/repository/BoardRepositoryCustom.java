@@ -0,0 +1,25 @@
+package com.kanban.repository;
+
+import com.kanban.model.Board;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BoardRepositoryCustom {
+
+    // Run the query but only read the given fields (plus _id) off the wire
+    List<Board> findWithFields(Query query, Collection<String> fields);
+
+    // Cursor-backed variant of findWithFields; callers must close the stream
+    Stream<Board> streamWithFields(Query query, Collection<String> fields);
+
+    // Boards with their BoardCounts joined in by one aggregation ($lookup on board_counts);
+    // null criteria matches every board, empty fields read the whole board
+    List<Board> findWithCounts(Criteria criteria, Collection<String> fields);
+
+    // Cursor-backed variant of findWithCounts; callers must close the stream
+    Stream<Board> streamWithCounts(Criteria criteria, Collection<String> fields);
+}
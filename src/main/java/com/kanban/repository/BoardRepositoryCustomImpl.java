@@ -0,0 +1,63 @@
+package com.kanban.repository;
+
+import com.kanban.model.Board;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BoardRepositoryCustomImpl implements BoardRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Board> findWithFields(Query query, Collection<String> fields) {
+        return mongoTemplate.find(project(query, fields), Board.class);
+    }
+
+    @Override
+    public Stream<Board> streamWithFields(Query query, Collection<String> fields) {
+        return mongoTemplate.stream(project(query, fields).cursorBatchSize(500), Board.class);
+    }
+
+    @Override
+    public List<Board> findWithCounts(Criteria criteria, Collection<String> fields) {
+        return mongoTemplate.aggregate(withCounts(criteria, fields), Board.class).getMappedResults();
+    }
+
+    @Override
+    public Stream<Board> streamWithCounts(Criteria criteria, Collection<String> fields) {
+        return mongoTemplate.aggregateStream(withCounts(criteria, fields), Board.class);
+    }
+
+    private TypedAggregation<Board> withCounts(Criteria criteria, Collection<String> fields) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (criteria != null) {
+            stages.add(Aggregation.match(criteria));
+        }
+        if (!fields.isEmpty()) {
+            stages.add(Aggregation.project(fields.stream().filter(field -> !field.equals("counts")).toArray(String[]::new)));
+        }
+        // Board and counts share the id; a board without counts yet gets none
+        stages.add(Aggregation.lookup("board_counts", "_id", "_id", "counts"));
+        stages.add(Aggregation.addFields()
+                .addFieldWithValue("counts", ArrayOperators.ArrayElemAt.arrayOf("counts").elementAt(0))
+                .build());
+        return Aggregation.newAggregation(Board.class, stages);
+    }
+
+    private Query project(Query query, Collection<String> fields) {
+        query.fields().include(fields.toArray(new String[0]));
+        return query;
+    }
+}
@@ -1,14 +1,22 @@
 package com.kanban.repository;
 
 import com.kanban.model.Notification;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface NotificationRepository extends MongoRepository<Notification, String> {
-    List<Notification> findByTargetUserOrderByCreatedAtDesc(String targetUser);
-    List<Notification> findByTargetUserAndIsReadOrderByCreatedAtDesc(String targetUser, boolean isRead);
-    long countByTargetUserAndIsRead(String targetUser, boolean isRead);
+    // Prefixes of the (tenantId, targetUser, ...) indexes
+    List<Notification> findByTenantIdOrderByCreatedAtDesc(String tenantId);
+    List<Notification> findByTenantIdAndTargetUserOrderByCreatedAtDesc(String tenantId, String targetUser);
+    List<Notification> findByTenantIdAndTargetUserAndIsReadOrderByCreatedAtDesc(String tenantId, String targetUser, boolean isRead);
+    long countByTenantIdAndTargetUserAndIsRead(String tenantId, String targetUser, boolean isRead);
+
+    // Cursor-backed read of the tenant's notifications; callers must close the stream
+    @Meta(cursorBatchSize = 500)
+    Stream<Notification> streamByTenantIdOrderByCreatedAtDesc(String tenantId);
 }
@@ -0,0 +1,13 @@
+package com.kanban.repository;
+
+import com.kanban.model.ArchivedTask;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+// Non-blocking counterpart of ArchivedTaskRepository for the reactive read mode
+@Repository
+public interface ReactiveArchivedTaskRepository extends ReactiveMongoRepository<ArchivedTask, String> {
+    Flux<ArchivedTask> findByTenantIdOrderByArchivedAtDesc(String tenantId);
+    Flux<ArchivedTask> findByTenantIdAndAssignedToOrderByArchivedAtDesc(String tenantId, String assignedTo);
+}
@@ -0,0 +1,13 @@
+package com.kanban.repository;
+
+import com.kanban.model.Board;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+// Non-blocking counterpart of BoardRepository for the reactive read mode
+@Repository
+public interface ReactiveBoardRepository extends ReactiveMongoRepository<Board, String> {
+    Flux<Board> findByTenantId(String tenantId);
+    Flux<Board> findByTenantIdAndCreatedBy(String tenantId, String createdBy);
+}
@@ -0,0 +1,15 @@
+package com.kanban.repository;
+
+import com.kanban.model.Notification;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterpart of NotificationRepository for the reactive read mode
+@Repository
+public interface ReactiveNotificationRepository extends ReactiveMongoRepository<Notification, String> {
+    Flux<Notification> findByTenantIdOrderByCreatedAtDesc(String tenantId);
+    Flux<Notification> findByTenantIdAndTargetUserOrderByCreatedAtDesc(String tenantId, String targetUser);
+    Mono<Long> countByTenantIdAndTargetUserAndIsRead(String tenantId, String targetUser, boolean isRead);
+}
@@ -0,0 +1,17 @@
+package com.kanban.repository;
+
+import com.kanban.model.Task;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+// Non-blocking counterpart of TaskRepository for the reactive read mode
+@Repository
+public interface ReactiveTaskRepository extends ReactiveMongoRepository<Task, String> {
+    Flux<Task> findByBoardIdOrderByStatusAscRankAsc(String boardId);
+    Flux<Task> findByBoardIdAndAssignedToOrderByStatusAscRankAsc(String boardId, String assignedTo);
+    Flux<Task> findByTenantId(String tenantId);
+    Flux<Task> findByTenantIdAndAssignedTo(String tenantId, String assignedTo);
+    Flux<Task> findByTenantIdAndIsArchived(String tenantId, boolean isArchived);
+    Flux<Task> findByTenantIdAndAssignedToAndIsArchived(String tenantId, String username, boolean isArchived);
+}
@@ -0,0 +1,25 @@
+package com.kanban.repository;
+
+import com.kanban.model.TaskEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TaskEventRepositoryCustom {
+
+    // Assign the next sequence number and insert the event
+    TaskEvent append(TaskEvent event);
+
+    // Same for a batch: one sequence range and one insertMany
+    void appendAll(List<TaskEvent> events);
+
+    // Events in (since, through], for the given boards or audience (null boards = all events)
+    List<TaskEvent> findChanges(long since, long through, Collection<String> boardIds, String username, int limit);
+
+    // Seq and creation time of the events created at or after from, in seq order
+    List<TaskEvent> findCreatedSince(LocalDateTime from);
+
+    // Highest sequence number below the given one, or 0
+    long findLatestSeqBelow(long seq);
+}
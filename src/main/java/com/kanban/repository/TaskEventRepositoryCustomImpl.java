@@ -0,0 +1,83 @@
+package com.kanban.repository;
+
+import com.kanban.model.TaskEvent;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public class TaskEventRepositoryCustomImpl implements TaskEventRepositoryCustom {
+
+    private static final String COUNTERS = "counters";
+    private static final String SEQUENCE = "task_events";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public TaskEvent append(TaskEvent event) {
+        Document counter = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(SEQUENCE)),
+                new Update().inc("seq", 1L),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, COUNTERS);
+
+        event.setSeq(counter.get("seq", Number.class).longValue());
+        event.setAt(LocalDateTime.now());
+        return mongoTemplate.insert(event);
+    }
+
+    @Override
+    public void appendAll(List<TaskEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Document counter = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(SEQUENCE)),
+                new Update().inc("seq", (long) events.size()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, COUNTERS);
+
+        long seq = counter.get("seq", Number.class).longValue() - events.size();
+        LocalDateTime now = LocalDateTime.now();
+        for (TaskEvent event : events) {
+            event.setSeq(++seq);
+            event.setAt(now);
+        }
+        mongoTemplate.insertAll(events);
+    }
+
+    @Override
+    public List<TaskEvent> findChanges(long since, long through, Collection<String> boardIds,
+                                       String username, int limit) {
+        Criteria criteria = Criteria.where("seq").gt(since).lte(through);
+        if (boardIds != null) {
+            criteria = criteria.orOperator(Criteria.where("boardId").in(boardIds), Criteria.where("audience").is(username));
+        }
+        Query query = Query.query(criteria).with(Sort.by("seq")).limit(limit);
+        return mongoTemplate.find(query, TaskEvent.class);
+    }
+
+    @Override
+    public List<TaskEvent> findCreatedSince(LocalDateTime from) {
+        Query query = Query.query(Criteria.where("at").gte(from)).with(Sort.by("seq"));
+        query.fields().include("seq").include("at");
+        return mongoTemplate.find(query, TaskEvent.class);
+    }
+
+    @Override
+    public long findLatestSeqBelow(long seq) {
+        Query query = Query.query(Criteria.where("seq").lt(seq)).with(Sort.by(Sort.Direction.DESC, "seq")).limit(1);
+        query.fields().include("seq");
+        TaskEvent latest = mongoTemplate.findOne(query, TaskEvent.class);
+        return latest != null ? latest.getSeq() : 0;
+    }
+}
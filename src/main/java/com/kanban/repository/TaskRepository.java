@@ -1,19 +1,34 @@
 package com.kanban.repository;
 
 import com.kanban.model.Task;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends MongoRepository<Task, String> {
+public interface TaskRepository extends MongoRepository<Task, String>, TaskRepositoryCustom {
     List<Task> findByBoardId(String boardId);
-    List<Task> findByAssignedTo(String assignedTo);
+    // Column by column, each in rank order - served by the (boardId, status, rank) index
+    List<Task> findByBoardIdOrderByStatusAscRankAsc(String boardId);
+    List<Task> findByBoardIdAndStatusAndIsArchivedOrderByRankAsc(String boardId, String status, boolean isArchived);
+    // Within the tenant - served by the (tenantId, assignedTo) index
+    List<Task> findByTenantId(String tenantId);
+    List<Task> findByTenantIdAndAssignedTo(String tenantId, String assignedTo);
 //    List<Task> findByCreatedBy(String createdBy);
 //    List<Task> findByBoardIdAndStatus(String boardId, String status);
-    List<Task> findByIsArchived(boolean isArchived);
+    List<Task> findByTenantIdAndIsArchived(String tenantId, boolean isArchived);
 //    List<Task> findByBoardIdAndIsArchived(String boardId, boolean isArchived);
 
-    List<Task> findByAssignedToAndIsArchived(String username, boolean b);
+    List<Task> findByTenantIdAndAssignedToAndIsArchived(String tenantId, String username, boolean b);
+
+    // Cursor-backed read of the tenant's tasks; callers must close the stream
+    @Meta(cursorBatchSize = 500)
+    Stream<Task> streamByTenantId(String tenantId);
+
+    // Cursor-backed read of one board's tasks (board export); callers must close the stream
+    @Meta(cursorBatchSize = 500)
+    Stream<Task> streamByBoardId(String boardId);
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.kanban.repository;
+
+import com.kanban.model.BoardCounts;
+import com.kanban.model.Task;
+import com.kanban.model.TaskSearchResult;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface TaskRepositoryCustom {
+
+    // Run the query but only read the given fields (plus _id) off the wire
+    List<Task> findWithFields(Query query, Collection<String> fields);
+
+    // Cursor-backed variant of findWithFields; callers must close the stream
+    Stream<Task> streamWithFields(Query query, Collection<String> fields);
+
+    // Distinct board ids of the active (non-archived) tasks
+    List<String> findActiveBoardIds();
+
+    // Column -> number of active (non-archived) tasks on the board
+    Map<String, Long> countActiveByStatus(String boardId);
+
+    // Recounted BoardCounts of every board that has tasks (archived ones in tasks_archive included)
+    List<BoardCounts> countAllBoards();
+
+    // Board id -> users with active tasks assigned on the board
+    Map<String, Set<String>> findAssigneesByBoard();
+
+    // Up to limit archived tasks still in tasks
+    List<Task> findArchived(int limit);
+
+    // Move archived tasks to tasks_archive: copy, then remove the ones still archived from tasks.
+    // A task restored in between stays and loses its copy. Returns the number moved.
+    int moveToArchive(List<Task> tasks);
+
+    // Up to limit active tasks in the given columns that entered them before the cutoff
+    List<Task> findStaleInColumns(Collection<String> statuses, LocalDateTime cutoff, int limit);
+
+    // Archive the tasks with one bulk write, each only if it's still active in the column it was read in.
+    // Returns the ones now archived.
+    List<Task> archiveAll(List<Task> tasks);
+
+    // Highest rank in the column, null if it has no ranked tasks
+    String findLastRank(String boardId, String status);
+
+    // Lowest rank in the column above the given one, null if there is none
+    String findNextRank(String boardId, String status, String rank);
+
+    // Move a task to a column/rank in one single-document update; statusChangedAt is only set when non-null
+    Task updatePosition(String id, String status, String rank, LocalDateTime statusChangedAt);
+
+    // Board id -> columns with active tasks that are unranked or whose rank is longer than maxRankLength
+    Map<String, Set<String>> findColumnsToRebalance(int maxRankLength);
+
+    // Give tasks[i] ranks[i] in one bulk write, skipping tasks whose column or rank changed since they were read
+    void updateRanks(List<Task> tasks, String[] ranks);
+
+    // Full-text search (text may be empty) within the tenant plus facet counts, all in one aggregation
+    TaskSearchResult search(String tenantId, String text, Criteria filter, int page, int size);
+}
@@ -0,0 +1,307 @@
+package com.kanban.repository;
+
+import com.kanban.model.ArchivedTask;
+import com.kanban.model.BoardCounts;
+import com.kanban.model.Task;
+import com.kanban.model.TaskSearchResult;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final List<String> FACET_FIELDS = List.of("status", "priority", "assignedTo", "boardId");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Task> findWithFields(Query query, Collection<String> fields) {
+        return mongoTemplate.find(project(query, fields), Task.class);
+    }
+
+    @Override
+    public Stream<Task> streamWithFields(Query query, Collection<String> fields) {
+        return mongoTemplate.stream(project(query, fields).cursorBatchSize(500), Task.class);
+    }
+
+    @Override
+    public List<String> findActiveBoardIds() {
+        return mongoTemplate.findDistinct(Query.query(Criteria.where("isArchived").ne(true)), "boardId",
+                Task.class, String.class);
+    }
+
+    @Override
+    public Map<String, Long> countActiveByStatus(String boardId) {
+        TypedAggregation<Task> aggregation = Aggregation.newAggregation(Task.class,
+                Aggregation.match(Criteria.where("boardId").is(boardId).and("isArchived").ne(true)),
+                Aggregation.group("status").count().as("count"));
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            counts.put(String.valueOf(row.get("_id")), row.get("count", Number.class).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    public List<BoardCounts> countAllBoards() {
+        TypedAggregation<Task> aggregation = Aggregation.newAggregation(Task.class,
+                Aggregation.group("boardId", "isArchived", "status", "priority").count().as("count"));
+
+        Map<String, BoardCounts> counts = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> statusCounts = new HashMap<>();
+        Map<String, Map<String, Long>> priorityCounts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            Document id = row.get("_id", Document.class);
+            String boardId = id.getString("boardId");
+            long count = row.get("count", Number.class).longValue();
+            BoardCounts board = counts.computeIfAbsent(boardId, BoardCounts::new);
+            if (Boolean.TRUE.equals(id.getBoolean("isArchived"))) {
+                board.setArchived(board.getArchived() + count);
+                continue;
+            }
+            // Tasks without a status or priority aren't counted under one, same as on writes
+            if (id.getString("status") != null) {
+                statusCounts.computeIfAbsent(boardId, key -> new HashMap<>()).merge(id.getString("status"), count, Long::sum);
+            }
+            if (id.getString("priority") != null) {
+                priorityCounts.computeIfAbsent(boardId, key -> new HashMap<>()).merge(id.getString("priority"), count, Long::sum);
+            }
+        }
+        counts.forEach((boardId, board) -> {
+            board.setStatus(statusCounts.getOrDefault(boardId, Map.of()));
+            board.setPriority(priorityCounts.getOrDefault(boardId, Map.of()));
+        });
+
+        // Tasks caught halfway through moveToArchive are counted twice until the next recount
+        TypedAggregation<ArchivedTask> archived = Aggregation.newAggregation(ArchivedTask.class,
+                Aggregation.group("boardId").count().as("count"));
+        for (Document row : mongoTemplate.aggregate(archived, Document.class).getMappedResults()) {
+            BoardCounts board = counts.computeIfAbsent(row.getString("_id"), BoardCounts::new);
+            board.setArchived(board.getArchived() + row.get("count", Number.class).longValue());
+        }
+        return new ArrayList<>(counts.values());
+    }
+
+    @Override
+    public Map<String, Set<String>> findAssigneesByBoard() {
+        TypedAggregation<Task> aggregation = Aggregation.newAggregation(Task.class,
+                Aggregation.match(Criteria.where("isArchived").ne(true).and("assignedTo").ne(null)),
+                Aggregation.group("boardId", "assignedTo"));
+
+        Map<String, Set<String>> assignees = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            Document id = row.get("_id", Document.class);
+            assignees.computeIfAbsent(id.getString("boardId"), key -> new HashSet<>()).add(id.getString("assignedTo"));
+        }
+        return assignees;
+    }
+
+    @Override
+    public List<Task> findArchived(int limit) {
+        return mongoTemplate.find(Query.query(Criteria.where("isArchived").is(true)).limit(limit), Task.class);
+    }
+
+    @Override
+    public int moveToArchive(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        // Replace by id, so a rerun after a crash halfway doesn't trip over the copies that made it
+        BulkOperations copies = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ArchivedTask.class);
+        for (Task task : tasks) {
+            copies.replaceOne(Query.query(Criteria.where("id").is(task.getId())), ArchivedTask.of(task),
+                    FindAndReplaceOptions.options().upsert());
+        }
+        copies.execute();
+
+        List<String> ids = tasks.stream().map(Task::getId).toList();
+        long moved = mongoTemplate.remove(Query.query(Criteria.where("id").in(ids).and("isArchived").is(true)),
+                Task.class).getDeletedCount();
+        if (moved < ids.size()) {
+            // Restored in the meantime - the task in tasks is the live one
+            Query restored = Query.query(Criteria.where("id").in(ids));
+            restored.fields().include("id");
+            List<String> restoredIds = mongoTemplate.find(restored, Task.class).stream().map(Task::getId).toList();
+            mongoTemplate.remove(Query.query(Criteria.where("id").in(restoredIds)), ArchivedTask.class);
+        }
+        return (int) moved;
+    }
+
+    @Override
+    public List<Task> findStaleInColumns(Collection<String> statuses, LocalDateTime cutoff, int limit) {
+        // Tasks from before statusChangedAt existed go by their last update
+        Criteria stale = new Criteria().orOperator(
+                Criteria.where("statusChangedAt").lt(cutoff),
+                Criteria.where("statusChangedAt").is(null).and("updatedAt").lt(cutoff));
+        return mongoTemplate.find(Query.query(Criteria.where("status").in(statuses).and("isArchived").ne(true)
+                .andOperator(stale)).limit(limit), Task.class);
+    }
+
+    @Override
+    public List<Task> archiveAll(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return tasks;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class);
+        for (Task task : tasks) {
+            bulk.updateOne(Query.query(Criteria.where("id").is(task.getId())
+                            .and("status").is(task.getStatus()).and("isArchived").ne(true)),
+                    new Update().set("isArchived", true).set("updatedAt", now));
+        }
+        if (bulk.execute().getModifiedCount() == tasks.size()) {
+            return tasks;
+        }
+
+        // Some were moved or archived in the meantime - keep the ones archived now
+        Query archived = Query.query(Criteria.where("id").in(tasks.stream().map(Task::getId).toList())
+                .and("isArchived").is(true));
+        archived.fields().include("id");
+        Set<String> archivedIds = mongoTemplate.find(archived, Task.class).stream()
+                .map(Task::getId)
+                .collect(Collectors.toSet());
+        return tasks.stream().filter(task -> archivedIds.contains(task.getId())).toList();
+    }
+
+    @Override
+    public String findLastRank(String boardId, String status) {
+        return findRank(Query.query(column(boardId, status).and("rank").ne(null))
+                .with(Sort.by(Sort.Direction.DESC, "rank")));
+    }
+
+    @Override
+    public String findNextRank(String boardId, String status, String rank) {
+        return findRank(Query.query(column(boardId, status).and("rank").gt(rank)).with(Sort.by("rank")));
+    }
+
+    @Override
+    public Task updatePosition(String id, String status, String rank, LocalDateTime statusChangedAt) {
+        // @LastModifiedDate is only applied by save(), so updatedAt is set here
+        Update update = new Update().set("status", status).set("rank", rank).set("updatedAt", LocalDateTime.now());
+        if (statusChangedAt != null) {
+            update.set("statusChangedAt", statusChangedAt);
+        }
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(id)), update,
+                FindAndModifyOptions.options().returnNew(true), Task.class);
+    }
+
+    @Override
+    public Map<String, Set<String>> findColumnsToRebalance(int maxRankLength) {
+        TypedAggregation<Task> aggregation = Aggregation.newAggregation(Task.class,
+                Aggregation.match(Criteria.where("isArchived").ne(true).orOperator(
+                        Criteria.where("rank").is(null),
+                        Criteria.where("rank").regex("^.{" + (maxRankLength + 1) + "}"))),
+                Aggregation.group("boardId", "status"));
+
+        Map<String, Set<String>> columns = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            Document id = row.get("_id", Document.class);
+            columns.computeIfAbsent(id.getString("boardId"), boardId -> new LinkedHashSet<>()).add(id.getString("status"));
+        }
+        return columns;
+    }
+
+    @Override
+    public void updateRanks(List<Task> tasks, String[] ranks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class);
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            Query unchanged = Query.query(Criteria.where("id").is(task.getId())
+                    .and("status").is(task.getStatus()).and("rank").is(task.getRank()));
+            bulk.updateOne(unchanged, Update.update("rank", ranks[i]));
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public TaskSearchResult search(String tenantId, String text, Criteria filter, int page, int size) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        AggregationOperation order;
+        if (StringUtils.hasText(text)) {
+            // $text has to be the first stage so the text index is used, and that index is prefixed
+            // with tenantId, which therefore has to be matched by equality in the same stage
+            stages.add(context -> new Document("$match", new Document("tenantId", tenantId)
+                    .append("$text", new Document("$search", text))));
+            stages.add(Aggregation.match(filter));
+            stages.add(context -> new Document("$addFields", new Document("score", new Document("$meta", "textScore"))));
+            order = Aggregation.sort(Sort.by(Sort.Direction.DESC, "score").and(Sort.by("_id")));
+        } else {
+            stages.add(Aggregation.match(Criteria.where("tenantId").is(tenantId)));
+            stages.add(Aggregation.match(filter));
+            order = Aggregation.sort(Sort.by(Sort.Direction.DESC, "updatedAt").and(Sort.by("_id")));
+        }
+
+        // One pass over the matches produces the page, the total and every facet
+        FacetOperation facet = Aggregation.facet(order, Aggregation.skip((long) page * size), Aggregation.limit(size)).as("results")
+                .and(Aggregation.count().as("count")).as("total");
+        for (String field : FACET_FIELDS) {
+            facet = facet.and(Aggregation.sortByCount(field)).as(field);
+        }
+        stages.add(facet);
+
+        Document result = mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+                mongoTemplate.getCollectionName(Task.class), Document.class).getUniqueMappedResult();
+        if (result == null) {
+            return new TaskSearchResult(List.of(), 0, page, size, Map.of());
+        }
+
+        List<Task> tasks = result.getList("results", Document.class).stream()
+                .map(document -> mongoTemplate.getConverter().read(Task.class, document))
+                .collect(Collectors.toList());
+        List<Document> total = result.getList("total", Document.class);
+        long count = total.isEmpty() ? 0 : total.get(0).get("count", Number.class).longValue();
+
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        for (String field : FACET_FIELDS) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Document bucket : result.getList(field, Document.class)) {
+                // Tasks without a value (e.g. unassigned) are counted in the total only
+                if (bucket.get("_id") != null) {
+                    counts.put(bucket.get("_id").toString(), bucket.get("count", Number.class).longValue());
+                }
+            }
+            facets.put(field, counts);
+        }
+
+        return new TaskSearchResult(tasks, count, page, size, facets);
+    }
+
+    // Reads a single rank off the (boardId, status, rank) index
+    private String findRank(Query query) {
+        query.fields().include("rank");
+        Task task = mongoTemplate.findOne(query.limit(1), Task.class);
+        return task != null ? task.getRank() : null;
+    }
+
+    private static Criteria column(String boardId, String status) {
+        return Criteria.where("boardId").is(boardId).and("status").is(status).and("isArchived").ne(true);
+    }
+
+    private Query project(Query query, Collection<String> fields) {
+        query.fields().include(fields.toArray(new String[0]));
+        return query;
+    }
+}
@@ -0,0 +1,9 @@
+package com.kanban.repository;
+
+import com.kanban.model.TaskTransition;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TaskTransitionRepository extends MongoRepository<TaskTransition, String>, TaskTransitionRepositoryCustom {
+}
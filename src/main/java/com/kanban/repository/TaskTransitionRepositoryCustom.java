@@ -0,0 +1,19 @@
+package com.kanban.repository;
+
+import com.kanban.model.TaskCompletion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface TaskTransitionRepositoryCustom {
+
+    // Tasks whose latest move was into doneStatus at or after since
+    List<TaskCompletion> findCompletions(String boardId, String firstStatus, String doneStatus, LocalDateTime since);
+
+    // Column -> number of transitions into it before the given time
+    Map<String, Long> countArrivalsBefore(String boardId, LocalDateTime before);
+
+    // Day (yyyy-MM-dd, in the JVM's zone like LocalDate.now()) -> column -> number of transitions into it, from the given time on
+    Map<String, Map<String, Long>> countDailyArrivals(String boardId, LocalDateTime since);
+}
@@ -0,0 +1,90 @@
+package com.kanban.repository;
+
+import com.kanban.model.TaskCompletion;
+import com.kanban.model.TaskTransition;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class TaskTransitionRepositoryCustomImpl implements TaskTransitionRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<TaskCompletion> findCompletions(String boardId, String firstStatus, String doneStatus, LocalDateTime since) {
+        // Only tasks that moved in the window can have been completed in it. Their ids come off the
+        // (boardId, changedAt) index, so the grouping below reads their histories, not the whole board's
+        List<String> taskIds = mongoTemplate.findDistinct(
+                Query.query(Criteria.where("boardId").is(boardId).and("changedAt").gte(since)),
+                "taskId", TaskTransition.class, String.class);
+        if (taskIds.isEmpty()) {
+            return List.of();
+        }
+
+        TypedAggregation<TaskTransition> aggregation = Aggregation.newAggregation(TaskTransition.class,
+                // Served by the (taskId, changedAt) index; a task's history before the window sets its start times
+                Aggregation.match(Criteria.where("taskId").in(taskIds).and("boardId").is(boardId)),
+                Aggregation.sort(Sort.by("changedAt")),
+                Aggregation.group("taskId")
+                        .min(changedAtIf(new Document("$eq", Arrays.asList("$fromStatus", null)))).as("createdAt")
+                        // Work starts the first time the task is anywhere but the first column
+                        .min(changedAtIf(new Document("$ne", Arrays.asList("$toStatus", firstStatus)))).as("startedAt")
+                        .last("changedAt").as("doneAt")
+                        .last("toStatus").as("lastStatus"),
+                Aggregation.match(Criteria.where("lastStatus").is(doneStatus).and("doneAt").gte(since)));
+
+        return mongoTemplate.aggregate(aggregation, TaskCompletion.class).getMappedResults();
+    }
+
+    // changedAt when the condition holds, null otherwise - $min skips the nulls
+    private AggregationExpression changedAtIf(Document condition) {
+        return context -> new Document("$cond", Arrays.asList(condition, "$changedAt", null));
+    }
+
+    @Override
+    public Map<String, Long> countArrivalsBefore(String boardId, LocalDateTime before) {
+        TypedAggregation<TaskTransition> aggregation = Aggregation.newAggregation(TaskTransition.class,
+                Aggregation.match(Criteria.where("boardId").is(boardId).and("changedAt").lt(before)),
+                Aggregation.group("toStatus").count().as("count"));
+
+        Map<String, Long> arrivals = new TreeMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            arrivals.put(String.valueOf(row.get("_id")), row.get("count", Number.class).longValue());
+        }
+        return arrivals;
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> countDailyArrivals(String boardId, LocalDateTime since) {
+        TypedAggregation<TaskTransition> aggregation = Aggregation.newAggregation(TaskTransition.class,
+                Aggregation.match(Criteria.where("boardId").is(boardId).and("changedAt").gte(since)),
+                Aggregation.project("toStatus")
+                        // LocalDateTimes are stored as instants in the JVM's zone; days are bucketed in the same zone
+                        .and(DateOperators.dateOf("changedAt").withTimezone(DateOperators.Timezone.fromZone(ZoneId.systemDefault()))
+                                .toString("%Y-%m-%d")).as("day"),
+                Aggregation.group("day", "toStatus").count().as("count"));
+
+        Map<String, Map<String, Long>> arrivals = new TreeMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            Document key = row.get("_id", Document.class);
+            arrivals.computeIfAbsent(key.getString("day"), day -> new TreeMap<>())
+                    .put(String.valueOf(key.get("toStatus")), row.get("count", Number.class).longValue());
+        }
+        return arrivals;
+    }
+}
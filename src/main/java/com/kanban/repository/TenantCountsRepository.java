@@ -0,0 +1,9 @@
+package com.kanban.repository;
+
+import com.kanban.model.TenantCounts;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TenantCountsRepository extends MongoRepository<TenantCounts, String>, TenantCountsRepositoryCustom {
+}
@@ -0,0 +1,18 @@
+package com.kanban.repository;
+
+import com.kanban.model.TenantCounts;
+
+import java.util.Map;
+
+public interface TenantCountsRepositoryCustom {
+
+    // Add delta to the counter (TenantCounts.BOARDS_FIELD or TASKS_FIELD), creating the document if needed.
+    // With a limit the result must not exceed it, otherwise nothing changes and null is returned.
+    TenantCounts increment(String tenantId, String field, long delta, Long limit);
+
+    // Recounted TenantCounts of every tenant that has boards or active tasks
+    Map<String, TenantCounts> countAllTenants();
+
+    // Give the boards, tasks and notifications from before tenants existed the tenant; returns the number changed
+    long assignMissingTenant(String tenantId);
+}
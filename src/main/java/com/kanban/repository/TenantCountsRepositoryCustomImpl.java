@@ -0,0 +1,84 @@
+package com.kanban.repository;
+
+import com.kanban.model.ArchivedTask;
+import com.kanban.model.Board;
+import com.kanban.model.Notification;
+import com.kanban.model.Task;
+import com.kanban.model.TenantCounts;
+import com.kanban.model.Tenants;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TenantCountsRepositoryCustomImpl implements TenantCountsRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public TenantCounts increment(String tenantId, String field, long delta, Long limit) {
+        if (limit != null && limit - delta < 0) {
+            return null;
+        }
+
+        Criteria criteria = Criteria.where("_id").is(tenantId);
+        if (limit != null) {
+            // $not $gt also matches a counter that doesn't exist yet
+            criteria = criteria.and(field).not().gt(limit - delta);
+        }
+        try {
+            // Check and increment are one document update; tenants get their document on first use
+            return mongoTemplate.findAndModify(Query.query(criteria), new Update().inc(field, delta),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), TenantCounts.class);
+        } catch (DuplicateKeyException e) {
+            // The document exists but didn't match: the quota is used up
+            return null;
+        }
+    }
+
+    @Override
+    public Map<String, TenantCounts> countAllTenants() {
+        Map<String, TenantCounts> counts = new HashMap<>();
+        for (Document row : countByTenant(Board.class, new Criteria())) {
+            counts.computeIfAbsent(tenant(row), id -> new TenantCounts(id, 0, 0))
+                    .setBoards(row.get("count", Number.class).longValue());
+        }
+        for (Document row : countByTenant(Task.class, Criteria.where("isArchived").ne(true))) {
+            TenantCounts tenant = counts.computeIfAbsent(tenant(row), id -> new TenantCounts(id, 0, 0));
+            tenant.setTasks(tenant.getTasks() + row.get("count", Number.class).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    public long assignMissingTenant(String tenantId) {
+        Query missing = Query.query(Criteria.where("tenantId").exists(false));
+        Update update = Update.update("tenantId", tenantId);
+        long changed = 0;
+        for (Class<?> type : List.of(Board.class, Task.class, ArchivedTask.class, Notification.class)) {
+            changed += mongoTemplate.updateMulti(missing, update, type).getModifiedCount();
+        }
+        return changed;
+    }
+
+    private List<Document> countByTenant(Class<?> type, Criteria criteria) {
+        return mongoTemplate.aggregate(Aggregation.newAggregation(type,
+                Aggregation.match(criteria),
+                Aggregation.group("tenantId").count().as("count")), Document.class).getMappedResults();
+    }
+
+    // Documents not backfilled yet count towards the default tenant
+    private static String tenant(Document row) {
+        return Tenants.orDefault(row.getString("_id"));
+    }
+}
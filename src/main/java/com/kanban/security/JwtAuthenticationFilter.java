@@ -6,6 +6,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -16,6 +17,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
@@ -33,8 +35,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             System.out.println("Authorization Header: " + request.getHeader("Authorization"));
             System.out.println("Extracted JWT: " + (jwt != null ? jwt.substring(0, Math.min(50, jwt.length())) + "..." : "null"));
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                User user = tokenProvider.getUserFromToken(jwt);
+            // Validated and resolved (role and authorities included) in one parse
+            User user = StringUtils.hasText(jwt) ? tokenProvider.getUserFromToken(jwt) : null;
+            if (user != null) {
                 System.out.println("User from token: " + user.getUsername() + " | Role: " + user.getRole());
 
                 UsernamePasswordAuthenticationToken authentication =
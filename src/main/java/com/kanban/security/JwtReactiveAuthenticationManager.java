@@ -0,0 +1,46 @@
+package com.kanban.security;
+
+import com.kanban.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Reactive counterpart of JwtAuthenticationFilter: reads the bearer token and authenticates it with JwtTokenProvider
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class JwtReactiveAuthenticationManager implements ReactiveAuthenticationManager, ServerAuthenticationConverter {
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    // No bearer token means no authentication attempt - the authorization rules decide what happens next
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        String bearerToken = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            String jwt = bearerToken.substring(7);
+            return Mono.just(new UsernamePasswordAuthenticationToken(jwt, jwt));
+        }
+        return Mono.empty();
+    }
+
+    // Parsing the token is CPU-only, so it is fine on the event loop
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String jwt = (String) authentication.getCredentials();
+        User user = tokenProvider.getUserFromToken(jwt);
+        if (user == null) {
+            return Mono.error(new BadCredentialsException("Invalid JWT token"));
+        }
+        return Mono.just(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
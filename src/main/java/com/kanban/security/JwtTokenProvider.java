@@ -1,8 +1,11 @@
 package com.kanban.security;
 
+import com.kanban.model.Role;
+import com.kanban.model.Tenants;
 import com.kanban.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
@@ -22,61 +25,68 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private int jwtExpirationInMs;
 
+    // Claim naming the user's tenant; tokens without it belong to the default tenant
+    @Value("${kanban.tenant.claim:tenant}")
+    private String tenantClaim = "tenant";
+
     private SecretKey getSigningKey() {
         // Create a properly sized key for HS512
         byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    // Built once - the key and parser are the same for every token
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        parser = Jwts.parserBuilder()
+                .setSigningKey(getSigningKey())
+                .build();
+    }
+
     public String getUsernameFromJWT(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getSubject();
-        } catch (Exception e) {
-            System.err.println("Error extracting username from JWT: " + e.getMessage());
-            return null;
-        }
+        Claims claims = validClaims(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     public String getRoleFromJWT(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.get("role", String.class);
-        } catch (Exception e) {
-            System.err.println("Error extracting role from JWT: " + e.getMessage());
-            return null;
-        }
+        Claims claims = validClaims(token);
+        return claims != null ? claims.get("role", String.class) : null;
     }
 
     public String getEmailFromJWT(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.get("email", String.class);
-        } catch (Exception e) {
-            System.err.println("Error extracting email from JWT: " + e.getMessage());
+        Claims claims = validClaims(token);
+        return claims != null ? claims.get("email", String.class) : null;
+    }
+
+    public String getTenantFromJWT(String token) {
+        Claims claims = validClaims(token);
+        return claims != null ? Tenants.orDefault(claims.get(tenantClaim, String.class)) : null;
+    }
+
+    public boolean validateToken(String authToken) {
+        return validClaims(authToken) != null;
+    }
+
+    // Validates and resolves the user with a single parse of the token; null if it isn't valid
+    public User getUserFromToken(String token) {
+        Claims claims = validClaims(token);
+        if (claims == null) {
             return null;
         }
+        String username = claims.getSubject();
+        Role role = Role.of(claims.get("role", String.class));
+        if (username != null && role != null) {
+            return new User(username, claims.get("email", String.class), role, claims.get(tenantClaim, String.class));
+        }
+        System.err.println("JWT without a username or a known role");
+        return null;
     }
 
-    public boolean validateToken(String authToken) {
+    private Claims validClaims(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (SecurityException ex) {
             System.err.println("Invalid JWT signature: " + ex.getMessage());
         } catch (MalformedJwtException ex) {
@@ -90,22 +100,6 @@ public class JwtTokenProvider {
         } catch (Exception ex) {
             System.err.println("JWT validation error: " + ex.getMessage());
         }
-        return false;
-    }
-
-    public User getUserFromToken(String token) {
-        try {
-            String username = getUsernameFromJWT(token);
-            String email = getEmailFromJWT(token);
-            String role = getRoleFromJWT(token);
-
-            if (username != null && role != null) {
-                return new User(username, email, role);
-            }
-            return null;
-        } catch (Exception e) {
-            System.err.println("Error creating user from token: " + e.getMessage());
-            return null;
-        }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.Task;
+import com.kanban.repository.BoardRepository;
+import com.kanban.repository.TaskRepository;
+import com.kanban.web.RateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Archives tasks that have sat in a terminal column (Done, ...) for longer
+ * than kanban.auto-archive.after-days, so finished work stops weighing on
+ * board loads. Runs in bounded batches - one bulk write each - paced by a
+ * token bucket so a large backlog is worked off gradually instead of
+ * competing with foreground requests, and capped per run. Owners get one
+ * summary notification per board rather than one per task.
+ */
+@Service
+public class AutoArchiveService {
+
+    private static final String RATE_LIMIT_KEY = "job:auto-archive";
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    @Autowired
+    BoardCountsService boardCounts;
+
+    @Autowired
+    TaskEventService taskEventService;
+
+    @Autowired
+    HotBoardCache hotBoardCache;
+
+    @Autowired
+    CollectionVersionService collectionVersions;
+
+    @Autowired
+    NotificationService notificationService;
+
+    @Autowired
+    RateLimiter rateLimiter;
+
+    // 0 turns auto-archiving off
+    @Value("${kanban.auto-archive.after-days:30}")
+    int afterDays = 30;
+
+    @Value("${kanban.auto-archive.terminal-columns:Done}")
+    List<String> terminalColumns = List.of("Done");
+
+    @Value("${kanban.auto-archive.batch-size:200}")
+    int batchSize = 200;
+
+    @Value("${kanban.auto-archive.batches-per-second:2}")
+    double batchesPerSecond = 2;
+
+    @Value("${kanban.auto-archive.max-per-run:10000}")
+    int maxPerRun = 10000;
+
+    // Background job (run by ClusterJobs on one instance); returns the number of tasks archived
+    public int archiveStaleTasks() throws InterruptedException {
+        if (afterDays <= 0 || terminalColumns.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        Map<String, Long> archivedPerBoard = new LinkedHashMap<>();
+        int archived = 0;
+
+        while (archived < maxPerRun) {
+            awaitBatchSlot();
+            int limit = Math.min(batchSize, maxPerRun - archived);
+            List<Task> batch = taskRepository.findStaleInColumns(terminalColumns, cutoff, limit);
+            List<Task> done = taskRepository.archiveAll(batch);
+            archived += done.size();
+            recordArchived(done, archivedPerBoard);
+            if (batch.size() < limit) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            collectionVersions.touchAll(CollectionVersionService.TASKS);
+            for (Board board : boardRepository.findAllById(archivedPerBoard.keySet())) {
+                notificationService.autoArchiveNotification(board, archivedPerBoard.get(board.getId()), afterDays);
+            }
+        }
+        return archived;
+    }
+
+    private void recordArchived(List<Task> tasks, Map<String, Long> archivedPerBoard) {
+        Map<String, List<Task>> byBoard = tasks.stream().collect(Collectors.groupingBy(Task::getBoardId));
+        byBoard.forEach((boardId, boardTasks) -> {
+            // Counted as they were before archiving
+            boardCounts.tasksArchived(boardId, boardTasks);
+            hotBoardCache.evictTasks(boardId);
+            archivedPerBoard.merge(boardId, (long) boardTasks.size(), Long::sum);
+        });
+        tasks.forEach(task -> task.setArchived(true));
+        if (!tasks.isEmpty()) {
+            taskEventService.recordTasks(tasks);
+        }
+    }
+
+    // One token per batch; a run that has used up its burst waits for the bucket instead of hammering the database
+    private void awaitBatchSlot() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = rateLimiter.tryAcquire(RATE_LIMIT_KEY, 1, batchesPerSecond)) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.BoardCounts;
+import com.kanban.model.Task;
+import com.kanban.model.Tenants;
+import com.kanban.repository.BoardCountsRepository;
+import com.kanban.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Per-board task counts - active tasks by column and by priority, and archived
+ * tasks - kept in board_counts next to the board and updated with every task
+ * write instead of being counted from the tasks, so board lists can carry them.
+ * A write's changes to the counters are netted and applied as one $inc on the
+ * board's counts document; entering a column with a WIP limit makes that $inc
+ * conditional, so concurrent moves can't both take the last slot. The counters
+ * go first and are undone if the task write then fails; anything that slips
+ * through (a crash in between, columns renamed on the board) is corrected by
+ * the reconciliation job. Tasks becoming active (created, restored) are also
+ * taken out of the tenant's task quota first, see {@link TenantService}.
+ */
+@Service
+public class BoardCountsService {
+
+    @Autowired
+    BoardCountsRepository boardCountsRepository;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    TenantService tenants;
+
+    // What a task contributes to its board's counts
+    public record Counted(String status, String priority, boolean archived) {
+        public static Counted of(Task task) {
+            return new Counted(task.getStatus(), task.getPriority(), task.isArchived());
+        }
+    }
+
+    // Count a task changing from one state to another (null = no task) around the write that changes it
+    public <T> T countedWrite(Board board, Counted before, Counted after, Supplier<T> write) {
+        Map<String, Long> deltas = deltas(before, after);
+        if (deltas.isEmpty()) {
+            return write.get();
+        }
+        // Only entering a column is checked - a task already in it stays when the limit is lowered
+        boolean entersColumn = after != null && !after.archived() && after.status() != null
+                && (before == null || before.archived() || !Objects.equals(before.status(), after.status()));
+        Integer limit = entersColumn ? board.wipLimit(after.status()) : null;
+        String tenantId = Tenants.orDefault(board.getTenantId());
+        long activated = active(after) - active(before);
+        if (activated > 0) {
+            tenants.reserveTasks(tenantId, activated);
+        }
+        if (!boardCountsRepository.increment(board.getId(), deltas,
+                limit != null ? BoardCounts.statusField(after.status()) : null, limit)) {
+            if (activated > 0) {
+                tenants.releaseTasks(tenantId, activated);
+            }
+            throw new WipLimitExceededException(after.status(), limit);
+        }
+        T result;
+        try {
+            result = write.get();
+        } catch (RuntimeException e) {
+            Map<String, Long> undo = new HashMap<>();
+            deltas.forEach((field, delta) -> undo.put(field, -delta));
+            boardCountsRepository.increment(board.getId(), undo, null, null);
+            if (activated > 0) {
+                tenants.releaseTasks(tenantId, activated);
+            }
+            throw e;
+        }
+        if (activated < 0) {
+            tenants.releaseTasks(tenantId, -activated);
+        }
+        return result;
+    }
+
+    // Tasks added without limit checks (board import)
+    public void addTasks(String boardId, List<Task> tasks) {
+        Map<String, Long> deltas = new HashMap<>();
+        for (Task task : tasks) {
+            count(deltas, Counted.of(task), 1);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (!deltas.isEmpty()) {
+            boardCountsRepository.increment(boardId, deltas, null, null);
+        }
+    }
+
+    // Active tasks of the board archived in bulk (auto-archiving), as they were before; they leave the tenant's quota
+    public void tasksArchived(String boardId, List<Task> tasks) {
+        if (!tasks.isEmpty()) {
+            tenants.releaseTasks(Tenants.orDefault(tasks.get(0).getTenantId()), tasks.size());
+        }
+        Map<String, Long> deltas = new HashMap<>();
+        for (Task task : tasks) {
+            Counted before = Counted.of(task);
+            count(deltas, before, -1);
+            count(deltas, new Counted(before.status(), before.priority(), true), 1);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (!deltas.isEmpty()) {
+            boardCountsRepository.increment(boardId, deltas, null, null);
+        }
+    }
+
+    public BoardCounts getCounts(String boardId) {
+        return boardCountsRepository.findById(boardId).orElseGet(() -> new BoardCounts(boardId));
+    }
+
+    public void boardDeleted(String boardId) {
+        boardCountsRepository.deleteById(boardId);
+    }
+
+    // Background job (run by ClusterJobs on one instance): recount every board and fix the counts that drifted.
+    // A write landing between the recount and the fix can leave a count off by one until the next run.
+    public int reconcile() {
+        Map<String, BoardCounts> actual = new HashMap<>();
+        for (BoardCounts counts : taskRepository.countAllBoards()) {
+            actual.put(counts.getId(), counts);
+        }
+
+        int fixed = 0;
+        for (BoardCounts stored : boardCountsRepository.findAll()) {
+            BoardCounts recounted = actual.remove(stored.getId());
+            // Boards whose tasks are all gone count nothing
+            if (recounted == null) {
+                recounted = new BoardCounts(stored.getId());
+            }
+            if (!recounted.sameCounts(stored)) {
+                boardCountsRepository.save(recounted);
+                fixed++;
+            }
+        }
+        // Boards that have tasks but no counts yet
+        for (BoardCounts recounted : actual.values()) {
+            boardCountsRepository.save(recounted);
+            fixed++;
+        }
+        return fixed;
+    }
+
+    private static long active(Counted task) {
+        return task != null && !task.archived() ? 1 : 0;
+    }
+
+    // Counter path -> change, without the changes that cancel out (a $inc can't name a field twice)
+    private static Map<String, Long> deltas(Counted before, Counted after) {
+        Map<String, Long> deltas = new HashMap<>();
+        count(deltas, before, -1);
+        count(deltas, after, 1);
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    private static void count(Map<String, Long> deltas, Counted task, long sign) {
+        if (task == null) {
+            return;
+        }
+        if (task.archived()) {
+            deltas.merge(BoardCounts.ARCHIVED_FIELD, sign, Long::sum);
+            return;
+        }
+        if (task.status() != null) {
+            deltas.merge(BoardCounts.statusField(task.status()), sign, Long::sum);
+        }
+        if (task.priority() != null) {
+            deltas.merge(BoardCounts.priorityField(task.priority()), sign, Long::sum);
+        }
+    }
+}
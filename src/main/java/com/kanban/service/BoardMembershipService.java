@@ -0,0 +1,267 @@
+package com.kanban.service;
+
+import com.kanban.cluster.ClusterBus;
+import com.kanban.model.Board;
+import com.kanban.model.BoardMember;
+import com.kanban.model.BoardRole;
+import com.kanban.repository.BoardMemberRepository;
+import com.kanban.repository.BoardRepository;
+import com.kanban.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Board memberships (board_members) and the cached views of them the access
+ * checks read: per user, board id -> role, loaded with one query on the
+ * user_board index; per board, the members that see all of its tasks (the
+ * audience of task writes). Both are bounded LRU maps. Membership writes drop
+ * the entries they affect, and with kanban.cluster.enabled the drop is
+ * broadcast on the cluster bus so other instances re-read too. Entries also
+ * expire after kanban.members.cache-seconds, which bounds how long a lost
+ * broadcast can leave a stale one behind.
+ */
+@Service
+public class BoardMembershipService {
+
+    private static final String INVALIDATE_TOPIC = "members.invalidate";
+    private static final String ALL = "*";
+
+    @Autowired
+    BoardMemberRepository boardMemberRepository;
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    // Only present when clustering is enabled
+    @Autowired(required = false)
+    ClusterBus clusterBus;
+
+    @Value("${kanban.members.cache-entries:10000}")
+    int cacheEntries = 10000;
+
+    @Value("${kanban.members.cache-seconds:60}")
+    long cacheSeconds = 60;
+
+    private final Lru<Map<String, BoardRole>> users = new Lru<>();
+    private final Lru<List<String>> audiences = new Lru<>();
+    // Bumped by every invalidation; a load that raced with one is not cached, it may predate the write
+    private final AtomicLong generation = new AtomicLong();
+
+    private record Cached<T>(T value, long loadedAt) {}
+
+    @PostConstruct
+    void subscribe() {
+        if (clusterBus != null) {
+            // Payload: the board id (or * for everything), then one username per line
+            clusterBus.subscribe(INVALIDATE_TOPIC, payload -> {
+                String[] lines = payload.split("\n");
+                if (ALL.equals(lines[0])) {
+                    invalidateAllLocally();
+                } else {
+                    invalidateLocally(lines[0], Arrays.asList(lines).subList(1, lines.length));
+                }
+            });
+        }
+    }
+
+    // Board id -> the user's role on it, for every board the user is a member of
+    public Map<String, BoardRole> memberships(String username) {
+        return cached(users, username, () -> {
+            Map<String, BoardRole> boards = new HashMap<>();
+            for (BoardMember member : boardMemberRepository.findByUsername(username)) {
+                boards.put(member.getBoardId(), member.getRole());
+            }
+            return Map.copyOf(boards);
+        });
+    }
+
+    // The user's role on the board, null if they aren't a member
+    public BoardRole role(String boardId, String username) {
+        return memberships(username).get(boardId);
+    }
+
+    // Members whose view includes every task of the board (owner, maintainers, viewers)
+    public List<String> seeingAllTasks(String boardId) {
+        return cached(audiences, boardId, () -> boardMemberRepository.findByBoardIdOrderByUsernameAsc(boardId).stream()
+                .filter(member -> member.getRole().seesAllTasks())
+                .map(BoardMember::getUsername)
+                .toList());
+    }
+
+    public List<BoardMember> getMembers(String boardId) {
+        return boardMemberRepository.findByBoardIdOrderByUsernameAsc(boardId);
+    }
+
+    public void boardCreated(Board board) {
+        setRole(board.getId(), board.getCreatedBy(), BoardRole.OWNER);
+    }
+
+    public void setRole(String boardId, String username, BoardRole role) {
+        boardMemberRepository.setRole(boardId, username, role);
+        invalidate(boardId, List.of(username));
+    }
+
+    public boolean removeMember(String boardId, String username) {
+        boolean removed = boardMemberRepository.deleteByBoardIdAndUsername(boardId, username) > 0;
+        invalidate(boardId, List.of(username));
+        return removed;
+    }
+
+    // Assigning a task makes the assignee a member; when they already are (the usual case) the cache answers
+    public void ensureAssignee(String boardId, String username) {
+        ensureAssignees(boardId, Collections.singletonList(username));
+    }
+
+    public void ensureAssignees(String boardId, Collection<String> usernames) {
+        List<String> added = new ArrayList<>();
+        for (String username : usernames) {
+            if (username != null && !memberships(username).containsKey(boardId)) {
+                boardMemberRepository.addIfAbsent(boardId, username, BoardRole.ASSIGNEE);
+                added.add(username);
+            }
+        }
+        if (!added.isEmpty()) {
+            invalidate(boardId, added);
+        }
+    }
+
+    // Returns the usernames of the members it had
+    public List<String> boardDeleted(String boardId) {
+        List<String> usernames = getMembers(boardId).stream().map(BoardMember::getUsername).toList();
+        boardMemberRepository.deleteByBoardId(boardId);
+        invalidate(boardId, usernames);
+        return usernames;
+    }
+
+    // Background job (run by ClusterJobs on one instance): memberships for the boards and assignments
+    // from before board_members existed, or missed by a write that failed halfway. Returns the number added.
+    public int backfill() {
+        List<BoardMember> owners = new ArrayList<>();
+        Set<String> boardIds = new HashSet<>();
+        for (Board board : boardRepository.findWithFields(new Query(), List.of("id", "createdBy"))) {
+            owners.add(new BoardMember(board.getId(), board.getCreatedBy(), BoardRole.OWNER));
+            boardIds.add(board.getId());
+        }
+        List<BoardMember> assignees = new ArrayList<>();
+        taskRepository.findAssigneesByBoard().forEach((boardId, usernames) -> {
+            // Tasks of deleted boards are left for the cascade job
+            if (boardIds.contains(boardId)) {
+                usernames.forEach(username -> assignees.add(new BoardMember(boardId, username, BoardRole.ASSIGNEE)));
+            }
+        });
+
+        // The creator is the owner even if an assignment got them a membership first
+        int added = boardMemberRepository.addAll(owners, true) + boardMemberRepository.addAll(assignees, false);
+        if (added > 0) {
+            invalidateAllLocally();
+            if (clusterBus != null) {
+                clusterBus.publish(INVALIDATE_TOPIC, ALL);
+            }
+        }
+        return added;
+    }
+
+    private void invalidate(String boardId, Collection<String> usernames) {
+        invalidateLocally(boardId, usernames);
+        if (clusterBus != null) {
+            clusterBus.publish(INVALIDATE_TOPIC, boardId + "\n" + String.join("\n", usernames));
+        }
+    }
+
+    private void invalidateLocally(String boardId, Collection<String> usernames) {
+        generation.incrementAndGet();
+        audiences.remove(boardId);
+        for (String username : usernames) {
+            users.remove(username);
+        }
+    }
+
+    private void invalidateAllLocally() {
+        generation.incrementAndGet();
+        audiences.clear();
+        users.clear();
+    }
+
+    private <T> T cached(Lru<T> cache, String key, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        Cached<T> cached = cache.get(key);
+        if (cached != null && now - cached.loadedAt() < cacheSeconds * 1000) {
+            return cached.value();
+        }
+        long loadedAt = generation.get();
+        // From the primary, the entry outlives the request (see ReadRouting)
+        T value = ReadRouting.primary(loader);
+        if (cacheEntries > 0 && generation.get() == loadedAt) {
+            cache.put(key, new Cached<>(value, now));
+        }
+        return value;
+    }
+
+    // Bounded by cacheEntries. Locked with a ReentrantLock, not a monitor: every access check passes through
+    // here, and a request waiting for a monitor would pin its virtual thread (java21 profile)
+    private class Lru<T> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Cached<T>> entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached<T>> eldest) {
+                return size() > cacheEntries;
+            }
+        };
+
+        Cached<T> get(String key) {
+            lock.lock();
+            try {
+                return entries.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(String key, Cached<T> value) {
+            lock.lock();
+            try {
+                entries.put(key, value);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(String key) {
+            lock.lock();
+            try {
+                entries.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.BoardMetrics;
+import com.kanban.model.Task;
+import com.kanban.model.TaskCompletion;
+import com.kanban.model.TaskTransition;
+import com.kanban.repository.TaskRepository;
+import com.kanban.repository.TaskTransitionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+@Service
+public class BoardMetricsService {
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    TaskTransitionRepository taskTransitionRepository;
+
+    @Autowired
+    HotBoardCache hotBoardCache;
+
+    // Cached results are dropped on any write to the board or its tasks; the TTL only rolls the time window forward
+    @Value("${kanban.metrics.cache-ttl-seconds:600}")
+    long cacheTtlSeconds = 600;
+
+    // (board, window) pairs kept, least recently used dropped first
+    @Value("${kanban.metrics.cache-max-entries:1000}")
+    int cacheMaxEntries = 1000;
+
+    // Guarded by lock - a ReentrantLock like HotBoardCache's, so waiting requests don't pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, BoardMetrics> cache = new LinkedHashMap<>(64, 0.75f, true);
+    // Bumped by every invalidation; a compute that raced with one is not cached, it may predate the write
+    private long generation;
+
+    private record Key(String boardId, int days) {}
+
+    // HotBoardCache sees every board and task write, this instance's and - through the invalidation
+    // channel - the other instances'
+    @PostConstruct
+    void subscribe() {
+        if (hotBoardCache != null) {
+            hotBoardCache.addDependent(this::invalidate);
+        }
+    }
+
+    // Log a status change of a task and invalidate the board's cached metrics
+    public void recordTransition(Task task, String fromStatus, String changedBy) {
+        taskTransitionRepository.save(new TaskTransition(task.getId(), task.getBoardId(), fromStatus,
+                task.getStatus(), changedBy, LocalDateTime.now()));
+        invalidate(task.getBoardId());
+    }
+
+    // null drops every board's metrics, for writes whose board isn't known
+    public void invalidate(String boardId) {
+        lock.lock();
+        try {
+            generation++;
+            if (boardId == null) {
+                cache.clear();
+            } else {
+                cache.keySet().removeIf(key -> key.boardId().equals(boardId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BoardMetrics getMetrics(Board board, int days) {
+        Key key = new Key(board.getId(), days);
+        long loadedAt;
+        lock.lock();
+        try {
+            BoardMetrics cached = cache.get(key);
+            if (cached != null && cached.getGeneratedAt().isAfter(LocalDateTime.now().minusSeconds(cacheTtlSeconds))) {
+                return cached;
+            }
+            loadedAt = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        // From the primary: the result is shared by every caller until the TTL, so a secondary that is behind
+        // would serve what the invalidation just dropped to all of them
+        BoardMetrics metrics = ReadRouting.primary(() -> computeMetrics(board, days));
+        lock.lock();
+        try {
+            if (generation == loadedAt) {
+                cache.put(key, metrics);
+                Iterator<BoardMetrics> eldest = cache.values().iterator();
+                while (cache.size() > cacheMaxEntries && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return metrics;
+    }
+
+    private BoardMetrics computeMetrics(Board board, int days) {
+        List<String> columns = board.getColumns() != null ? board.getColumns() : List.of();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = now.toLocalDate().minusDays(days - 1L).atStartOfDay();
+
+        BoardMetrics metrics = new BoardMetrics();
+        metrics.setBoardId(board.getId());
+        metrics.setDays(days);
+        metrics.setGeneratedAt(now);
+
+        // WIP - every board column is reported, empty ones as 0
+        Map<String, Long> wip = new LinkedHashMap<>();
+        columns.forEach(column -> wip.put(column, 0L));
+        wip.putAll(taskRepository.countActiveByStatus(board.getId()));
+        metrics.setWip(wip);
+
+        // Throughput and cycle/lead times - completion means arriving in the last column
+        List<TaskCompletion> completions = columns.isEmpty() ? List.of()
+                : taskTransitionRepository.findCompletions(board.getId(), columns.get(0), columns.get(columns.size() - 1), since);
+        Map<String, Long> throughputByDay = new TreeMap<>();
+        for (LocalDate day = since.toLocalDate(); !day.isAfter(now.toLocalDate()); day = day.plusDays(1)) {
+            throughputByDay.put(day.toString(), 0L);
+        }
+        completions.forEach(completion -> throughputByDay.merge(completion.getDoneAt().toLocalDate().toString(), 1L, Long::sum));
+        metrics.setThroughput(completions.size());
+        metrics.setThroughputByDay(throughputByDay);
+        metrics.setCycleTimeHours(percentiles(completions, TaskCompletion::getStartedAt));
+        metrics.setLeadTimeHours(percentiles(completions, TaskCompletion::getCreatedAt));
+
+        // Cumulative flow - running total of arrivals per column, one row per day in the window
+        Map<String, Long> running = new LinkedHashMap<>();
+        columns.forEach(column -> running.put(column, 0L));
+        taskTransitionRepository.countArrivalsBefore(board.getId(), since).forEach(running::put);
+        Map<String, Map<String, Long>> daily = taskTransitionRepository.countDailyArrivals(board.getId(), since);
+        Map<String, Map<String, Long>> cumulativeFlow = new LinkedHashMap<>();
+        for (String day : throughputByDay.keySet()) {
+            daily.getOrDefault(day, Map.of()).forEach((column, count) -> running.merge(column, count, Long::sum));
+            cumulativeFlow.put(day, new LinkedHashMap<>(running));
+        }
+        metrics.setCumulativeFlow(cumulativeFlow);
+
+        return metrics;
+    }
+
+    // p50/p85/p95 in hours of doneAt - start, skipping tasks without a start
+    private Map<String, Double> percentiles(List<TaskCompletion> completions, Function<TaskCompletion, LocalDateTime> start) {
+        double[] hours = completions.stream()
+                .filter(completion -> start.apply(completion) != null)
+                .mapToDouble(completion -> Duration.between(start.apply(completion), completion.getDoneAt()).toMinutes() / 60.0)
+                .sorted()
+                .toArray();
+
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (hours.length == 0) {
+            return result;
+        }
+        for (int percentile : new int[]{50, 85, 95}) {
+            // Nearest-rank percentile
+            int rank = (int) Math.ceil(percentile / 100.0 * hours.length);
+            result.put("p" + percentile, Math.round(hours[Math.max(rank, 1) - 1] * 100) / 100.0);
+        }
+        return result;
+    }
+}
@@ -1,14 +1,22 @@
 package com.kanban.service;
 
 import com.kanban.model.Board;
+import com.kanban.model.BoardMember;
+import com.kanban.model.BoardRole;
+import com.kanban.model.Tenants;
 import com.kanban.model.User;
 import com.kanban.repository.BoardRepository;
+import com.kanban.web.FieldSelection;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BoardService {
@@ -16,101 +24,191 @@ public class BoardService {
     @Autowired
     BoardRepository boardRepository;
 
-    // Return all boards if admin, otherwise only boards created by the user OR assigned to them
+    @Autowired
+    CollectionVersionService collectionVersions;
+
+    @Autowired
+    TaskEventService taskEventService;
+
+    @Autowired
+    PermissionService permissions;
+
+    @Autowired
+    HotBoardCache hotBoardCache;
+
+    @Autowired
+    BoardCountsService boardCounts;
+
+    @Autowired
+    BoardMembershipService memberships;
+
+    @Autowired
+    TenantService tenants;
+
+    // Return all boards of the tenant if admin, otherwise the boards the user is a member of
     public List<Board> getAllBoards(User user) {
-        if ("ADMIN".equals(user.getRole())) {
-            return boardRepository.findAll();
+        if (user.isAdmin()) {
+            return boardRepository.findByTenantId(user.getTenantId());
         }
-        // For regular users, show boards they created OR boards where they have tasks assigned
-        return boardRepository.findByCreatedBy(user.getUsername());
+        // Owned, shared with the user, or where they have tasks assigned - in the user's tenant
+        return boardRepository.findAllById(memberships.memberships(user.getUsername()).keySet()).stream()
+                .filter(board -> permissions.sameTenant(board, user))
+                .collect(Collectors.toList());
     }
 
-    // Return board if accessible by user (admin, creator, or has tasks in the board)
+    // Streaming variant of getAllBoards for large result sets - the caller closes the stream
+    public Stream<Board> streamAllBoards(User user) {
+        if (user.isAdmin()) {
+            return boardRepository.streamWithCounts(accessible(user), List.of());
+        }
+        return getAllBoards(user).stream();
+    }
+
+    // Streaming variant that only reads the selected fields - the caller closes the stream
+    public Stream<Board> streamAllBoards(User user, FieldSelection selection) {
+        Criteria criteria = accessible(user);
+        if (selection.getDocumentFields().contains("counts")) {
+            return boardRepository.streamWithCounts(criteria, selection.getDocumentFields());
+        }
+        return boardRepository.streamWithFields(Query.query(criteria), selection.getDocumentFields());
+    }
+
+    // The tenant's boards for admins, the ones the user is a member of otherwise (memberships are keyed by
+    // username, which is only unique within the tenant, so the tenant is matched either way)
+    Criteria accessible(User user) {
+        Criteria criteria = Criteria.where("tenantId").is(user.getTenantId());
+        return user.isAdmin()
+                ? criteria
+                : criteria.and("id").in(memberships.memberships(user.getUsername()).keySet());
+    }
+
+    // Return board if accessible by user (admin or a member of the board)
     public Optional<Board> getBoardById(String id, User user) {
-        Optional<Board> board = boardRepository.findById(id);
+        Optional<Board> board = permissions.board(id);
         if (board.isPresent() && canAccessBoard(board.get(), user)) {
             return board;
         }
         return Optional.empty();
     }
 
-    // Allow user to create board
+    // Allow user to create board, within their tenant's board quota
     public Board createBoard(Board board, User user) {
         board.setCreatedBy(user.getUsername());
-        return boardRepository.save(board);
+        board.setTenantId(user.getTenantId());
+        tenants.reserveBoard(user.getTenantId());
+        Board savedBoard;
+        try {
+            savedBoard = boardRepository.save(board);
+        } catch (RuntimeException e) {
+            tenants.releaseBoard(user.getTenantId());
+            throw e;
+        }
+        memberships.boardCreated(savedBoard);
+        hotBoardCache.putBoard(savedBoard);
+        collectionVersions.touch(CollectionVersionService.BOARDS, savedBoard.getCreatedBy());
+        taskEventService.recordBoard(savedBoard, false, List.of());
+        return savedBoard;
     }
 
     // Allow admin or board owner to update board
-    @PreAuthorize("hasRole('ADMIN') or @boardService.canModifyBoard(#id, authentication.principal)")
+    @PreAuthorize("@permissions.canModifyBoard(#id, authentication.principal)")
     public Board updateBoard(String id, Board updatedBoard, User user) {
-        Optional<Board> existingBoard = boardRepository.findById(id);
-        if (existingBoard.isPresent() && canModifyBoard(id, user)) {
+        // Already loaded by the @PreAuthorize check
+        Optional<Board> existingBoard = permissions.board(id);
+        if (existingBoard.isPresent() && permissions.canAccessBoard(existingBoard.get(), user)) {
             Board board = existingBoard.get();
             board.setName(updatedBoard.getName());
             board.setDescription(updatedBoard.getDescription());
             board.setColumns(updatedBoard.getColumns());
-            return boardRepository.save(board);
+            // Lowering a limit below the current count doesn't move tasks out, it only stops new ones coming in
+            board.setWipLimits(updatedBoard.getWipLimits());
+            Board savedBoard = boardRepository.save(board);
+            hotBoardCache.putBoard(savedBoard);
+            // Every member sees the board, so every view may have changed
+            collectionVersions.touchAll(CollectionVersionService.BOARDS);
+            taskEventService.recordBoard(savedBoard, false, List.of());
+            return savedBoard;
         }
         throw new RuntimeException("Board not found or access denied");
     }
 
     // Allow admin or board owner to delete board
-    @PreAuthorize("hasRole('ADMIN') or @boardService.canModifyBoard(#id, authentication.principal)")
+    @PreAuthorize("@permissions.canModifyBoard(#id, authentication.principal)")
     public void deleteBoard(String id, User user) {
         if (canModifyBoard(id, user)) {
+            // Its tasks stay in the tenant's task quota until the cascade job archives them
+            Board board = permissions.board(id).get();
             boardRepository.deleteById(id);
+            tenants.releaseBoard(Tenants.orDefault(board.getTenantId()));
+            boardCounts.boardDeleted(id);
+            List<String> members = memberships.boardDeleted(id);
+            permissions.evictBoard(id);
+            hotBoardCache.evictBoard(id);
+            collectionVersions.touchAll(CollectionVersionService.BOARDS);
+            taskEventService.recordBoard(board, true, members);
         } else {
             throw new RuntimeException("Access denied");
         }
     }
 
-    // Enhanced access control - allow access if user is admin, creator, or has tasks in the board
-    public boolean canAccessBoard(Board board, User user) {
-        if ("ADMIN".equals(user.getRole())) {
-            return true;
+    // Members of the board with their roles, for anyone who can see the board
+    public List<BoardMember> getMembers(String boardId, User user) {
+        if (!canAccessBoard(boardId, user)) {
+            throw new RuntimeException("Board not found or access denied");
         }
+        return memberships.getMembers(boardId);
+    }
+
+    // Add a member or change their role; the board's creator always stays its owner
+    @PreAuthorize("@permissions.canModifyBoard(#boardId, authentication.principal)")
+    public void setMemberRole(String boardId, String username, BoardRole role, User user) {
+        Board board = permissions.board(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
+        if (username.equals(board.getCreatedBy())) {
+            throw new IllegalArgumentException("The board's creator can't change role");
+        }
+        memberships.setRole(boardId, username, role);
+        membershipChanged(username);
+        taskEventService.recordMembership(board, username, false);
+    }
 
-        // User can access if they created the board
-        if (board.getCreatedBy().equals(user.getUsername())) {
-            return true;
+    @PreAuthorize("@permissions.canModifyBoard(#boardId, authentication.principal)")
+    public boolean removeMember(String boardId, String username, User user) {
+        Board board = permissions.board(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
+        if (username.equals(board.getCreatedBy())) {
+            throw new IllegalArgumentException("The board's creator can't be removed");
         }
+        boolean removed = memberships.removeMember(boardId, username);
+        membershipChanged(username);
+        if (removed) {
+            taskEventService.recordMembership(board, username, true);
+        }
+        return removed;
+    }
 
-        // Note: If you want to allow users to see boards where they have assigned tasks,
-        // you would need to inject TaskRepository and check for tasks assigned to the user
-        // For now, keeping it simple - users can only see boards they created
+    // The member's board list and the tasks they see on the board both change
+    private void membershipChanged(String username) {
+        collectionVersions.touch(CollectionVersionService.BOARDS, username);
+        collectionVersions.touch(CollectionVersionService.TASKS, username);
+    }
 
-        return false;
+    // Access rules live in PermissionService; these delegates keep the service API stable
+    public boolean canAccessBoard(Board board, User user) {
+        return permissions.canAccessBoard(board, user);
     }
 
-    // Helper for @PreAuthorize - access by boardId
     public boolean canAccessBoard(String boardId, User user) {
-        Optional<Board> board = boardRepository.findById(boardId);
-        return board.isPresent() && canAccessBoard(board.get(), user);
+        return permissions.canAccessBoard(boardId, user);
     }
 
-    // Used for @PreAuthorize to check update/delete permission
     public boolean canModifyBoard(String boardId, User user) {
-        if ("ADMIN".equals(user.getRole())) {
-            return true;
-        }
-        Optional<Board> board = boardRepository.findById(boardId);
-        return board.isPresent() && board.get().getCreatedBy().equals(user.getUsername());
+        return permissions.canModifyBoard(boardId, user);
     }
 
-    // New method to check if a board exists and is accessible for task creation
     public boolean canCreateTaskInBoard(String boardId, User user) {
-        Optional<Board> board = boardRepository.findById(boardId);
-        if (!board.isPresent()) {
-            return false;
-        }
-
-        // Admin can create tasks in any board
-        if ("ADMIN".equals(user.getRole())) {
-            return true;
-        }
+        return permissions.canCreateTaskInBoard(boardId, user);
+    }
 
-        // Users can create tasks in boards they own
-        // OR in boards where they already have tasks (if you want this behavior)
-        return board.get().getCreatedBy().equals(user.getUsername());
+    public boolean seesAllTasks(String boardId, User user) {
+        return permissions.seesAllTasks(boardId, user);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,217 @@
+package com.kanban.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kanban.model.ArchivedTask;
+import com.kanban.model.Board;
+import com.kanban.model.BoardTransferLine;
+import com.kanban.model.ImportResult;
+import com.kanban.model.Task;
+import com.kanban.model.Tenants;
+import com.kanban.model.User;
+import com.kanban.repository.ArchivedTaskRepository;
+import com.kanban.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Board export/import as NDJSON: a board line followed by one line per task.
+ * Export reads the tasks from a cursor; import parses one line at a time and
+ * writes tasks with one insertMany per chunk, so memory stays flat however
+ * large the board is. Imported tasks skip the per-task notification, metrics
+ * and change-log work of createTask: the change log gets one batch per chunk
+ * and each assignee one summary notification at the end.
+ */
+@Service
+public class BoardTransferService {
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    BoardService boardService;
+
+    @Autowired
+    NotificationService notificationService;
+
+    @Autowired
+    CollectionVersionService collectionVersions;
+
+    @Autowired
+    TaskEventService taskEventService;
+
+    @Autowired
+    BoardCountsService boardCounts;
+
+    @Autowired
+    BoardMembershipService memberships;
+
+    @Autowired
+    TenantService tenants;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${kanban.import.chunk-size:500}")
+    int chunkSize = 500;
+
+    // The board line, then its tasks straight from the cursor; the caller closes the stream
+    public Stream<BoardTransferLine> exportBoard(Board board) {
+        // Archived tasks moved to tasks_archive are part of the board too
+        Stream<Task> tasks = Stream.concat(taskRepository.streamByBoardId(board.getId()),
+                archivedTaskRepository.streamByBoardId(board.getId()).map(ArchivedTask::toTask));
+        return Stream.concat(Stream.of(BoardTransferLine.of(board)), tasks.map(BoardTransferLine::of));
+    }
+
+    // Imports into a new board owned by the user; bad lines are reported and skipped
+    public ImportResult importBoard(BufferedReader reader, User user) throws IOException {
+        ImportResult result = new ImportResult();
+        Board board = null;
+        List<Task> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        Map<String, Long> assignedCounts = new TreeMap<>();
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            BoardTransferLine parsed;
+            try {
+                parsed = objectMapper.readValue(line, BoardTransferLine.class);
+            } catch (JsonProcessingException e) {
+                result.addError(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+
+            if (parsed.getBoard() != null) {
+                if (board != null) {
+                    result.addError(lineNumber, "Only one board per import");
+                } else if (!StringUtils.hasText(parsed.getBoard().getName())) {
+                    result.addError(lineNumber, "Board name is required");
+                } else {
+                    try {
+                        board = createBoard(parsed.getBoard(), user);
+                        result.setBoardId(board.getId());
+                    } catch (TenantQuotaExceededException e) {
+                        result.addError(lineNumber, e.getMessage());
+                    }
+                }
+            } else if (parsed.getTask() != null) {
+                String error = board == null ? "Task before the board line" : validate(parsed.getTask(), board);
+                if (error != null) {
+                    result.addError(lineNumber, error);
+                    continue;
+                }
+                chunk.add(newTask(parsed.getTask(), board, user));
+                chunkLines.add(lineNumber);
+                if (chunk.size() >= chunkSize) {
+                    insertChunk(chunk, chunkLines, assignedCounts, result);
+                }
+            } else {
+                result.addError(lineNumber, "Line has neither a board nor a task");
+            }
+        }
+        insertChunk(chunk, chunkLines, assignedCounts, result);
+
+        if (board != null && result.getImported() > 0) {
+            // Assignees become members of the new board, like on a regular assignment
+            memberships.ensureAssignees(board.getId(), assignedCounts.keySet());
+            // Everyone whose task list changed, in one bump each
+            List<String> audience = new ArrayList<>(assignedCounts.keySet());
+            audience.add(user.getUsername());
+            collectionVersions.touch(CollectionVersionService.TASKS, audience.toArray(String[]::new));
+            notificationService.importNotifications(board, assignedCounts, user);
+        }
+        return result;
+    }
+
+    private Board createBoard(Board imported, User user) {
+        List<String> columns = imported.getColumns() != null && !imported.getColumns().isEmpty()
+                ? imported.getColumns()
+                : Arrays.asList("To Do", "In Progress", "Done");
+        Board board = new Board(imported.getName(), imported.getDescription(), user.getUsername(), columns);
+        board.setWipLimits(imported.getWipLimits());
+        return boardService.createBoard(board, user);
+    }
+
+    private String validate(Task task, Board board) {
+        if (!StringUtils.hasText(task.getTitle())) {
+            return "Task title is required";
+        }
+        if (task.getStatus() == null || !board.getColumns().contains(task.getStatus())) {
+            return "Status '" + task.getStatus() + "' is not a column of the board";
+        }
+        return null;
+    }
+
+    // Only the content is taken over; identity, board and ownership belong to the importing side
+    private Task newTask(Task imported, Board board, User user) {
+        Task task = new Task(imported.getTitle(), imported.getDescription(), imported.getStatus(),
+                imported.getPriority(), imported.getAssignedTo(), user.getUsername(), board.getId());
+        task.setTenantId(board.getTenantId());
+        task.setArchived(imported.isArchived());
+        // Ranks only order tasks within a column, so they stay valid on the new board
+        task.setRank(imported.getRank());
+        task.setStatusChangedAt(imported.getStatusChangedAt() != null ? imported.getStatusChangedAt() : LocalDateTime.now());
+        return task;
+    }
+
+    private void insertChunk(List<Task> chunk, List<Long> chunkLines, Map<String, Long> assignedCounts,
+                             ImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // The chunk's active tasks have to fit in the tenant's quota as a whole
+        String tenantId = Tenants.orDefault(chunk.get(0).getTenantId());
+        long active = chunk.stream().filter(task -> !task.isArchived()).count();
+        try {
+            tenants.reserveTasks(tenantId, active);
+        } catch (TenantQuotaExceededException e) {
+            for (Long line : chunkLines) {
+                result.addError(line, e.getMessage());
+            }
+            chunk.clear();
+            chunkLines.clear();
+            return;
+        }
+        try {
+            List<Task> inserted = taskRepository.insert(chunk);
+            taskEventService.recordTasks(inserted);
+            for (Task task : inserted) {
+                if (!task.isArchived() && task.getAssignedTo() != null) {
+                    assignedCounts.merge(task.getAssignedTo(), 1L, Long::sum);
+                }
+            }
+            // WIP limits aren't enforced on import - the exported board may already be over them
+            boardCounts.addTasks(inserted.get(0).getBoardId(), inserted);
+            result.addImported(inserted.size());
+        } catch (DataAccessException e) {
+            tenants.releaseTasks(tenantId, active);
+            for (Long line : chunkLines) {
+                result.addError(line, "Insert failed: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+}
@@ -0,0 +1,22 @@
+package com.kanban.service;
+
+/**
+ * Delivers board and task writes made by other instances to this instance's
+ * {@link HotBoardCache}. Selected with kanban.cache.invalidation:
+ * "none" (default, single instance), "change-stream" (Mongo change streams,
+ * needs a replica set) or "cluster-bus" (the cluster broadcast bus, needs
+ * kanban.cluster.enabled).
+ */
+public interface CacheInvalidationChannel {
+
+    // Start applying remote writes to the cache; called once when the cache is created
+    void subscribe(HotBoardCache cache);
+
+    // This instance wrote the board; channels that don't see writes by themselves pass it on
+    default void boardChanged(String boardId) {
+    }
+
+    // This instance wrote a task on the board
+    default void tasksChanged(String boardId) {
+    }
+}
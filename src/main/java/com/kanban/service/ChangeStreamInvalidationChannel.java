@@ -0,0 +1,84 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.Task;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Follows the boards and tasks collections through Mongo change streams, so
+ * every instance sees every write, its own included, and nothing has to be
+ * published. Inserts and updates carry
+ * the current document (fullDocument lookup) and are written into the cache;
+ * deletes only carry the id and evict.
+ */
+@Component
+@ConditionalOnProperty(name = "kanban.cache.invalidation", havingValue = "change-stream")
+public class ChangeStreamInvalidationChannel implements CacheInvalidationChannel {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private MessageListenerContainer container;
+
+    @Override
+    public void subscribe(HotBoardCache cache) {
+        container = new DefaultMessageListenerContainer(mongoTemplate);
+        container.register(ChangeStreamRequest.builder((Message<ChangeStreamDocument<Document>, Board> message) -> {
+                    Board board = message.getBody();
+                    if (board != null) {
+                        cache.refreshBoard(board);
+                    } else {
+                        evict(cache, message, cache::invalidateBoard);
+                    }
+                })
+                .collection(mongoTemplate.getCollectionName(Board.class))
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build(), Board.class);
+        container.register(ChangeStreamRequest.builder((Message<ChangeStreamDocument<Document>, Task> message) -> {
+                    Task task = message.getBody();
+                    if (task != null) {
+                        cache.refreshTask(task);
+                    } else {
+                        evict(cache, message, cache::invalidateTask);
+                    }
+                })
+                .collection(mongoTemplate.getCollectionName(Task.class))
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build(), Task.class);
+        container.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    // Deletes evict by id; drops, renames and stream invalidations clear the whole cache
+    private static void evict(HotBoardCache cache, Message<ChangeStreamDocument<Document>, ?> message,
+                              Consumer<String> evictById) {
+        ChangeStreamDocument<Document> change = message.getRaw();
+        if (change == null || change.getOperationType() != OperationType.DELETE || change.getDocumentKey() == null) {
+            cache.clear();
+            return;
+        }
+        BsonValue id = change.getDocumentKey().get("_id");
+        evictById.accept(id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue());
+    }
+}
@@ -0,0 +1,132 @@
+package com.kanban.service;
+
+import com.kanban.cluster.ClusterBus;
+import com.kanban.model.User;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks a version counter per (collection, user) so read endpoints can answer
+ * conditional requests without touching Mongo. Writes bump the versions of the
+ * users whose view changed; writes with an audience we can't cheaply work out
+ * bump the collection-wide epoch instead, which invalidates every user at once.
+ * With kanban.cluster.enabled the bumps are broadcast on the cluster bus, so a
+ * write on one instance also invalidates the other instances' versions.
+ */
+@Service
+public class CollectionVersionService {
+
+    public static final String TASKS = "tasks";
+    public static final String BOARDS = "boards";
+    public static final String NOTIFICATIONS = "notifications";
+
+    // Admins read whole collections, so they share one scope that every write bumps
+    private static final String ADMIN_SCOPE = "#admin";
+    private static final String EPOCH_SCOPE = "#epoch";
+
+    private static final String TOUCH_TOPIC = "versions.touch";
+    private static final String TOUCH_ALL_TOPIC = "versions.touchAll";
+
+    // Only present when clustering is enabled
+    @Autowired(required = false)
+    ClusterBus clusterBus;
+
+    // Versions live in memory only; the boot time keeps ETags from a previous run from matching
+    private final long bootTime = System.currentTimeMillis();
+
+    private final Map<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+    private record Stamp(long version, long lastModified) {
+        Stamp next() {
+            return new Stamp(version + 1, System.currentTimeMillis());
+        }
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (clusterBus != null) {
+            // Payload: the collection, then one username per line
+            clusterBus.subscribe(TOUCH_TOPIC, payload -> {
+                String[] lines = payload.split("\n");
+                bumpUsers(lines[0], Arrays.copyOfRange(lines, 1, lines.length));
+            });
+            clusterBus.subscribe(TOUCH_ALL_TOPIC, collection -> bump(collection, EPOCH_SCOPE));
+        }
+    }
+
+    // Record a write that changed what the given users (and admins) see in a collection
+    public void touch(String collection, String... usernames) {
+        bumpUsers(collection, usernames);
+        if (clusterBus != null) {
+            StringBuilder payload = new StringBuilder(collection);
+            for (String username : usernames) {
+                if (username != null) {
+                    payload.append('\n').append(username);
+                }
+            }
+            clusterBus.publish(TOUCH_TOPIC, payload.toString());
+        }
+    }
+
+    // Record a write whose audience is unknown - every user's view of the collection changes
+    public void touchAll(String collection) {
+        bump(collection, EPOCH_SCOPE);
+        if (clusterBus != null) {
+            clusterBus.publish(TOUCH_ALL_TOPIC, collection);
+        }
+    }
+
+    // Weak ETag covering the user's view of the given collections
+    public String etag(User user, String variant, String... collections) {
+        StringBuilder tag = new StringBuilder("W/\"").append(Long.toString(bootTime, 36));
+        for (String collection : collections) {
+            tag.append('-').append(stamp(collection, EPOCH_SCOPE).version)
+                    .append('.').append(stamp(collection, scopeOf(user)).version);
+        }
+        if (variant != null) {
+            tag.append('-').append(Integer.toHexString(variant.hashCode()));
+        }
+        return tag.append('"').toString();
+    }
+
+    // Time of the most recent write affecting the user's view of the given collections
+    public long lastModified(User user, String... collections) {
+        long lastModified = bootTime;
+        for (String collection : collections) {
+            lastModified = Math.max(lastModified, stamp(collection, EPOCH_SCOPE).lastModified);
+            lastModified = Math.max(lastModified, stamp(collection, scopeOf(user)).lastModified);
+        }
+        return lastModified;
+    }
+
+    private void bumpUsers(String collection, String... usernames) {
+        bump(collection, ADMIN_SCOPE);
+        for (String username : usernames) {
+            if (username != null) {
+                bump(collection, username);
+            }
+        }
+    }
+
+    private void bump(String collection, String scope) {
+        stamps.compute(key(collection, scope), (key, stamp) -> stamp == null ? new Stamp(1, System.currentTimeMillis()) : stamp.next());
+    }
+
+    private Stamp stamp(String collection, String scope) {
+        Stamp stamp = stamps.get(key(collection, scope));
+        return stamp != null ? stamp : new Stamp(0, bootTime);
+    }
+
+    private String scopeOf(User user) {
+        return user.isAdmin() ? ADMIN_SCOPE : user.getUsername();
+    }
+
+    private String key(String collection, String scope) {
+        return collection + ":" + scope;
+    }
+}
@@ -0,0 +1,169 @@
+package com.kanban.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent reads (repository calls) in parallel so a request waits for
+ * the slowest one instead of the sum of all of them. Usage:
+ *
+ * <pre>
+ * try (FanOut.Scope scope = fanOut.open()) {
+ *     Supplier&lt;Optional&lt;Task&gt;&gt; task = scope.fork(() -&gt; taskRepository.findById(id));
+ *     Supplier&lt;Optional&lt;Board&gt;&gt; board = scope.fork(() -&gt; boardRepository.findById(boardId));
+ *     scope.join();
+ *     ...
+ * }
+ * </pre>
+ *
+ * join() fails on the first failed fork, or when the deadline passes, and cancels
+ * (interrupts) the forks still running; closing the scope cancels whatever is left.
+ * That is why only reads are forked: an interrupted write may or may not have
+ * reached Mongo. Work that needs the request thread (PermissionService's
+ * per-request memo) runs on the caller between fork() and join().
+ * Forks run on FanOut's own pool (kanban.fanout.pool.*; virtual threads under the
+ * java21 profile) with the caller's security context and {@link ReadRouting}.
+ * The pool has no queue: when it is saturated a fork runs inline on the caller,
+ * which degrades to the sequential behaviour.
+ */
+@Component
+public class FanOut {
+
+    // Set up by start(), unless a test provides one
+    Executor executor;
+
+    @Value("${kanban.fanout.timeout-millis:5000}")
+    long timeoutMillis = 5000;
+
+    @Value("${kanban.fanout.pool.core-size:16}")
+    int poolCoreSize = 16;
+
+    @Value("${kanban.fanout.pool.max-size:64}")
+    int poolMaxSize = 64;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    boolean virtualThreads;
+
+    // Not Boot's applicationTaskExecutor, whose queue and size @Async and the schedulers depend on
+    @PostConstruct
+    void start() {
+        if (executor != null) {
+            return;
+        }
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor forks = new SimpleAsyncTaskExecutor("fanout-");
+            forks.setVirtualThreads(true);
+            executor = forks;
+        } else {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setThreadNamePrefix("fanout-");
+            pool.setCorePoolSize(poolCoreSize);
+            pool.setMaxPoolSize(poolMaxSize);
+            pool.setQueueCapacity(0);
+            pool.initialize();
+            executor = pool;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    public Scope open() {
+        return new Scope(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    public class Scope implements AutoCloseable {
+        private final long deadline;
+        private final List<FutureTask<?>> forks = new ArrayList<>();
+        private final BlockingQueue<FutureTask<?>> completed = new LinkedBlockingQueue<>();
+        private boolean joined;
+
+        private Scope(long deadline) {
+            this.deadline = deadline;
+        }
+
+        // Start a read (never a write, see above); its result is available from the supplier once join() returned
+        public <T> Supplier<T> fork(Callable<T> read) {
+            FutureTask<T> fork = new FutureTask<>(new DelegatingSecurityContextCallable<>(ReadRouting.inherit(read))) {
+                @Override
+                protected void done() {
+                    completed.add(this);
+                }
+            };
+            forks.add(fork);
+            try {
+                executor.execute(fork);
+            } catch (RejectedExecutionException e) {
+                fork.run();
+            }
+            return () -> result(fork);
+        }
+
+        // Wait for every fork; rethrows the first failure (RuntimeExceptions as they are)
+        public void join() {
+            joined = true;
+            try {
+                for (int done = 0; done < forks.size(); done++) {
+                    FutureTask<?> fork = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (fork == null) {
+                        throw new RuntimeException("Parallel reads timed out after " + timeoutMillis + "ms");
+                    }
+                    fork.get();
+                }
+            } catch (ExecutionException e) {
+                cancelAll();
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for parallel reads", e);
+            } catch (RuntimeException e) {
+                cancelAll();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+
+        private <T> T result(FutureTask<T> fork) {
+            if (!joined || !fork.isDone()) {
+                throw new IllegalStateException("join() must complete before reading a forked result");
+            }
+            try {
+                return fork.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Forked read did not succeed", e);
+            }
+        }
+
+        private void cancelAll() {
+            for (FutureTask<?> fork : forks) {
+                fork.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.Task;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of boards and per-board task lists (findByBoardId) for the
+ * hot boards that are read far more often than they are edited. Entries are
+ * weighed by an estimate of their heap size and the least recently used ones
+ * are dropped once the total passes kanban.cache.max-weight-bytes (0 disables
+ * the cache).
+ *
+ * BoardService and TaskService write their saves through to the cache (put* /
+ * evictBoard), which also hands them to the configured
+ * {@link CacheInvalidationChannel}; writes made by other instances come back
+ * from the channel through the refresh* / invalidate* methods, which don't
+ * publish again. Boards are handed out as copies because the
+ * update paths modify the instance they loaded; task lists are unmodifiable.
+ * Caches derived from a board and its tasks (board metrics) register with
+ * {@link #addDependent} and are told the board id of every write the cache
+ * sees, local or remote.
+ * Hit/miss counts and the current weight are published as kanban.cache.* meters.
+ * The entries are guarded by a ReentrantLock rather than a monitor: a request
+ * waiting for a monitor would pin its virtual thread (java21 profile).
+ */
+@Component
+public class HotBoardCache implements MeterBinder {
+
+    private static final String BOARD = "board:";
+    private static final String TASKS = "tasks:";
+
+    // Same order as findByBoardIdOrderByStatusAscRankAsc (Mongo sorts missing values first)
+    private static final Comparator<Task> COLUMN_ORDER = Comparator
+            .comparing(Task::getStatus, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Task::getRank, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    @Value("${kanban.cache.max-weight-bytes:16777216}")
+    long maxWeightBytes = 16 * 1024 * 1024;
+
+    @Autowired(required = false)
+    CacheInvalidationChannel invalidationChannel;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock; values are Optional<Board> or List<Task>
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+    // Bumped by every write; a load that raced with a write is not cached, it may predate the write
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private record Entry(Object value, long weight) {}
+
+    private final List<Consumer<String>> dependents = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    void subscribe() {
+        if (invalidationChannel != null) {
+            invalidationChannel.subscribe(this);
+        }
+    }
+
+    // Called with the board id after each write to the board or its tasks, or null when the board isn't known
+    public void addDependent(Consumer<String> invalidateBoard) {
+        dependents.add(invalidateBoard);
+    }
+
+    public Optional<Board> getBoard(String boardId, Supplier<Optional<Board>> loader) {
+        @SuppressWarnings("unchecked")
+        Optional<Board> board = (Optional<Board>) get(BOARD + boardId);
+        if (board == null) {
+            long loadedAt = generation();
+            // From the primary: a secondary that is behind would cache what an invalidation just dropped
+            board = ReadRouting.primary(loader);
+            // Missing boards aren't cached, a board created on another instance shows up right away
+            if (board.isPresent()) {
+                Board copy = copy(board.get());
+                putLoaded(BOARD + boardId, Optional.of(copy), boardWeight(copy), loadedAt);
+            }
+        }
+        return board.map(HotBoardCache::copy);
+    }
+
+    public List<Task> getTasks(String boardId, Supplier<List<Task>> loader) {
+        @SuppressWarnings("unchecked")
+        List<Task> tasks = (List<Task>) get(TASKS + boardId);
+        if (tasks == null) {
+            long loadedAt = generation();
+            tasks = List.copyOf(ReadRouting.primary(loader));
+            putLoaded(TASKS + boardId, tasks, tasksWeight(tasks), loadedAt);
+        }
+        return tasks;
+    }
+
+    // Write-through for a board saved by this instance
+    public void putBoard(Board board) {
+        refreshBoard(board);
+        if (invalidationChannel != null) {
+            invalidationChannel.boardChanged(board.getId());
+        }
+    }
+
+    // Write-through for a task saved by this instance
+    public void putTask(Task task) {
+        refreshTask(task);
+        if (invalidationChannel != null) {
+            invalidationChannel.tasksChanged(task.getBoardId());
+        }
+    }
+
+    // Many tasks of a board rewritten by this instance at once (rank rebalancing) - drops its task list
+    public void evictTasks(String boardId) {
+        invalidateTasks(boardId);
+        if (invalidationChannel != null) {
+            invalidationChannel.tasksChanged(boardId);
+        }
+    }
+
+    // Board deleted by this instance - drops the board and its task list
+    public void evictBoard(String boardId) {
+        invalidateBoard(boardId);
+        invalidateTasks(boardId);
+        if (invalidationChannel != null) {
+            invalidationChannel.boardChanged(boardId);
+            invalidationChannel.tasksChanged(boardId);
+        }
+    }
+
+    // Current state of a board written elsewhere
+    public void refreshBoard(Board board) {
+        lock.lock();
+        try {
+            generation++;
+            Board copy = copy(board);
+            put(BOARD + board.getId(), Optional.of(copy), boardWeight(copy));
+        } finally {
+            lock.unlock();
+        }
+        notifyDependents(board.getId());
+    }
+
+    // Current state of a task written elsewhere: replace it in its board's cached list, or add it if it is new
+    public void refreshTask(Task task) {
+        replaceTask(task);
+        notifyDependents(task.getBoardId());
+    }
+
+    private void replaceTask(Task task) {
+        lock.lock();
+        try {
+            generation++;
+            Entry entry = entries.get(TASKS + task.getBoardId());
+            if (entry == null) {
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            List<Task> tasks = new ArrayList<>((List<Task>) entry.value());
+            boolean replaced = false;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (tasks.get(i).getId().equals(task.getId())) {
+                    tasks.set(i, task);
+                    replaced = true;
+                }
+            }
+            if (!replaced) {
+                tasks.add(task);
+            }
+            // A move changes the task's column or rank
+            tasks.sort(COLUMN_ORDER);
+            tasks = List.copyOf(tasks);
+            put(TASKS + task.getBoardId(), tasks, tasksWeight(tasks));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A task deleted elsewhere; only its id is known, so every list containing it is dropped
+    public void invalidateTask(String taskId) {
+        List<String> boardIds = new ArrayList<>();
+        lock.lock();
+        try {
+            generation++;
+            entries.entrySet().removeIf(e -> {
+                if (e.getKey().startsWith(TASKS) && containsTask(e.getValue(), taskId)) {
+                    weight -= e.getValue().weight();
+                    boardIds.add(e.getKey().substring(TASKS.length()));
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            lock.unlock();
+        }
+        if (boardIds.isEmpty()) {
+            // Its board's list wasn't cached, so the board isn't known
+            notifyDependents(null);
+        }
+        boardIds.forEach(this::notifyDependents);
+    }
+
+    public void invalidateBoard(String boardId) {
+        lock.lock();
+        try {
+            generation++;
+            remove(BOARD + boardId);
+        } finally {
+            lock.unlock();
+        }
+        notifyDependents(boardId);
+    }
+
+    public void invalidateTasks(String boardId) {
+        lock.lock();
+        try {
+            generation++;
+            remove(TASKS + boardId);
+        } finally {
+            lock.unlock();
+        }
+        notifyDependents(boardId);
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            generation++;
+            entries.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+        notifyDependents(null);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : hits.get() / (double) total;
+    }
+
+    public long getWeightBytes() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("kanban.cache.hits", this, HotBoardCache::getHits).register(registry);
+        FunctionCounter.builder("kanban.cache.misses", this, HotBoardCache::getMisses).register(registry);
+        Gauge.builder("kanban.cache.hit.ratio", this, HotBoardCache::getHitRatio).register(registry);
+        Gauge.builder("kanban.cache.size", this, HotBoardCache::size).register(registry);
+        Gauge.builder("kanban.cache.weight", this, HotBoardCache::getWeightBytes).baseUnit("bytes").register(registry);
+    }
+
+    // Outside the lock: dependents take their own
+    private void notifyDependents(String boardId) {
+        for (Consumer<String> dependent : dependents) {
+            dependent.accept(boardId);
+        }
+    }
+
+    private Object get(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void putLoaded(String key, Object value, long entryWeight, long loadedAt) {
+        lock.lock();
+        try {
+            if (generation == loadedAt) {
+                put(key, value, entryWeight);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock, as for remove
+    private void put(String key, Object value, long entryWeight) {
+        if (entryWeight > maxWeightBytes) {
+            remove(key);
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(value, entryWeight));
+        weight += entryWeight - (previous != null ? previous.weight() : 0);
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (weight > maxWeightBytes && eldest.hasNext()) {
+            weight -= eldest.next().weight();
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    private static boolean containsTask(Entry entry, String taskId) {
+        for (Object task : (List<?>) entry.value()) {
+            if (taskId.equals(((Task) task).getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Board copy(Board board) {
+        Board copy = new Board(board.getName(), board.getDescription(), board.getCreatedBy(),
+                board.getColumns() != null ? new ArrayList<>(board.getColumns()) : null);
+        copy.setId(board.getId());
+        copy.setTenantId(board.getTenantId());
+        copy.setWipLimits(board.getWipLimits() != null ? new HashMap<>(board.getWipLimits()) : null);
+        copy.setCreatedAt(board.getCreatedAt());
+        copy.setUpdatedAt(board.getUpdatedAt());
+        return copy;
+    }
+
+    // Rough heap estimates: object headers and references plus two bytes per character
+    private static long boardWeight(Board board) {
+        long weight = 160 + chars(board.getId()) + chars(board.getTenantId()) + chars(board.getName())
+                + chars(board.getDescription()) + chars(board.getCreatedBy());
+        if (board.getColumns() != null) {
+            for (String column : board.getColumns()) {
+                weight += 16 + chars(column);
+            }
+        }
+        if (board.getWipLimits() != null) {
+            weight += 48L * board.getWipLimits().size();
+        }
+        return weight;
+    }
+
+    private static long tasksWeight(List<Task> tasks) {
+        long weight = 32;
+        for (Task task : tasks) {
+            weight += 200 + chars(task.getId()) + chars(task.getTitle()) + chars(task.getDescription())
+                    + chars(task.getStatus()) + chars(task.getPriority()) + chars(task.getAssignedTo())
+                    + chars(task.getCreatedBy()) + chars(task.getBoardId()) + chars(task.getRank());
+        }
+        return weight;
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
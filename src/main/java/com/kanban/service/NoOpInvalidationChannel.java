@@ -0,0 +1,14 @@
+package com.kanban.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Single instance: every write goes through this instance's services, which write through to the cache
+@Component
+@ConditionalOnProperty(name = "kanban.cache.invalidation", havingValue = "none", matchIfMissing = true)
+public class NoOpInvalidationChannel implements CacheInvalidationChannel {
+
+    @Override
+    public void subscribe(HotBoardCache cache) {
+    }
+}
@@ -3,14 +3,19 @@ package com.kanban.service;
 import com.kanban.model.Board;
 import com.kanban.model.Notification;
 import com.kanban.model.Task;
+import com.kanban.model.Tenants;
 import com.kanban.model.User;
 import com.kanban.repository.BoardRepository;
 import com.kanban.repository.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class NotificationService {
@@ -21,43 +26,51 @@ public class NotificationService {
     @Autowired
     BoardRepository boardRepository;
 
-    // Get notifications for user (Admin sees all, User sees only their notifications)
+    @Autowired
+    CollectionVersionService collectionVersions;
+
+    @Autowired
+    FanOut fanOut;
+
+    // Get notifications for user (Admin sees all of the tenant's, User sees only their notifications)
     public List<Notification> getNotifications(User user) {
-        if ("ADMIN".equals(user.getRole())) {
-            return notificationRepository.findAll();
+        if (user.isAdmin()) {
+            return notificationRepository.findByTenantIdOrderByCreatedAtDesc(user.getTenantId());
+        }
+        return notificationRepository.findByTenantIdAndTargetUserOrderByCreatedAtDesc(user.getTenantId(), user.getUsername());
+    }
+
+    // Streaming variant of getNotifications for large result sets - the caller closes the stream
+    public Stream<Notification> streamNotifications(User user) {
+        if (user.isAdmin()) {
+            return notificationRepository.streamByTenantIdOrderByCreatedAtDesc(user.getTenantId());
         }
-        return notificationRepository.findByTargetUserOrderByCreatedAtDesc(user.getUsername());
+        return getNotifications(user).stream();
     }
 
     // Get unread count - Each user gets their own count
     public long getUnreadCount(User user) {
-        return notificationRepository.countByTargetUserAndIsRead(user.getUsername(), false);
+        return notificationRepository.countByTenantIdAndTargetUserAndIsRead(user.getTenantId(), user.getUsername(), false);
     }
 
     // Mark notification as read - Only affects the specific notification
     public void markAsRead(String notificationId, User user) {
         Optional<Notification> notification = notificationRepository.findById(notificationId);
-        if (notification.isPresent()) {
+        if (notification.isPresent() && Tenants.same(notification.get().getTenantId(), user)) {
             Notification notif = notification.get();
             // Admin can mark any notification, users can only mark their own
-            if ("ADMIN".equals(user.getRole()) || notif.getTargetUser().equals(user.getUsername())) {
+            if (user.isAdmin() || notif.getTargetUser().equals(user.getUsername())) {
                 notif.setRead(true);
                 notificationRepository.save(notif);
+                collectionVersions.touch(CollectionVersionService.NOTIFICATIONS, notif.getTargetUser());
             }
         }
     }
 
     // Mark all notifications as read for the current user only
     public void markAllAsRead(User user) {
-        List<Notification> notifications;
-
-        if ("ADMIN".equals(user.getRole())) {
-            // Admin marks all system notifications as read
-            notifications = notificationRepository.findAll();
-        } else {
-            // User marks only their notifications as read
-            notifications = notificationRepository.findByTargetUserOrderByCreatedAtDesc(user.getUsername());
-        }
+        // Admin marks all of the tenant's notifications as read, users only their own
+        List<Notification> notifications = getNotifications(user);
 
         notifications.stream()
                 .filter(n -> !n.isRead()) // Only unread notifications
@@ -65,6 +78,12 @@ public class NotificationService {
                     n.setRead(true);
                     notificationRepository.save(n);
                 });
+
+        if (user.isAdmin()) {
+            collectionVersions.touchAll(CollectionVersionService.NOTIFICATIONS);
+        } else {
+            collectionVersions.touch(CollectionVersionService.NOTIFICATIONS, user.getUsername());
+        }
     }
 
     // Helper method to determine if a user should receive notifications
@@ -73,26 +92,59 @@ public class NotificationService {
         return !targetUser.equals(triggeredByUser);
     }
 
+    // Imported tasks: one notification per assignee instead of one per task, inserted with one insertMany
+    public void importNotifications(Board board, Map<String, Long> assignedCounts, User triggeredBy) {
+        List<Notification> notifications = new ArrayList<>();
+        assignedCounts.forEach((assignee, count) -> {
+            if (shouldNotifyUser(assignee, triggeredBy.getUsername()) && !"ADMIN".equals(assignee)) {
+                String message = String.format("%d tasks have been assigned to you in imported board '%s'", count, board.getName());
+                Notification notification = new Notification(
+                        message, "TASK_ASSIGNED", null, null,
+                        board.getId(), board.getName(), assignee, triggeredBy.getUsername()
+                );
+                if (isNewNotification(board.getTenantId(), notification, existingNotifications(board.getTenantId(), assignee))) {
+                    notifications.add(notification);
+                }
+            }
+        });
+
+        if (!notifications.isEmpty()) {
+            notificationRepository.insert(notifications);
+            collectionVersions.touch(CollectionVersionService.NOTIFICATIONS,
+                    notifications.stream().map(Notification::getTargetUser).toArray(String[]::new));
+        }
+    }
+
+    // Tasks archived by the auto-archiving job: one notification to the board owner instead of one per task
+    public void autoArchiveNotification(Board board, long count, int afterDays) {
+        String message = String.format("%d tasks untouched for %d days were archived automatically in board '%s'",
+                count, afterDays, board.getName());
+        safeSaveNotification(board.getTenantId(), new Notification(
+                message, "TASKS_ARCHIVED", null, null,
+                board.getId(), board.getName(), board.getCreatedBy(), "system"
+        ));
+    }
+
     // Create notification when board is created
     public void createBoardNotification(Board board, User triggeredBy) {
         // Only notify if USER creates board (notify ADMIN)
         // Don't notify if ADMIN creates board
-        if ("USER".equals(triggeredBy.getRole())) {
+        if (!triggeredBy.isAdmin()) {
             String message = String.format("New board '%s' created by %s", board.getName(), triggeredBy.getUsername());
             Notification adminNotification = new Notification(
                     message, "BOARD_CREATED", null, null,
                     board.getId(), board.getName(), "ADMIN", triggeredBy.getUsername()
             );
-            safeSaveNotification(adminNotification);
+            safeSaveNotification(board.getTenantId(), adminNotification);
         }
     }
 
     // Create notification when task is created
     public void createTaskNotification(Task task, User triggeredBy) {
-        Optional<Board> board = boardRepository.findById(task.getBoardId());
-        String boardName = board.map(Board::getName).orElse("Unknown Board");
+        TaskNotificationReads reads = readForTaskNotification(task, triggeredBy);
+        String boardName = reads.boardName();
 
-        if ("ADMIN".equals(triggeredBy.getRole())) {
+        if (triggeredBy.isAdmin()) {
             // ADMIN creates task - notify assigned USER only (if task is assigned to someone else)
             if (task.getAssignedTo() != null &&
                     shouldNotifyUser(task.getAssignedTo(), triggeredBy.getUsername()) &&
@@ -103,7 +155,7 @@ public class NotificationService {
                         message, "TASK_ASSIGNED", task.getId(), task.getTitle(),
                         task.getBoardId(), boardName, task.getAssignedTo(), triggeredBy.getUsername()
                 );
-                safeSaveNotification(userNotification);
+                safeSaveNotification(task.getTenantId(), userNotification, reads.existing());
             }
         } else {
             // USER creates task - notify ADMIN only
@@ -112,16 +164,16 @@ public class NotificationService {
                     message, "TASK_CREATED", task.getId(), task.getTitle(),
                     task.getBoardId(), boardName, "ADMIN", triggeredBy.getUsername()
             );
-            safeSaveNotification(adminNotification);
+            safeSaveNotification(task.getTenantId(), adminNotification, reads.existing());
         }
     }
 
     // Create notification when task is updated
     public void updateTaskNotification(Task task, User triggeredBy) {
-        Optional<Board> board = boardRepository.findById(task.getBoardId());
-        String boardName = board.map(Board::getName).orElse("Unknown Board");
+        TaskNotificationReads reads = readForTaskNotification(task, triggeredBy);
+        String boardName = reads.boardName();
 
-        if ("ADMIN".equals(triggeredBy.getRole())) {
+        if (triggeredBy.isAdmin()) {
             // ADMIN updates task - notify assigned USER only (if task is assigned to someone else)
             if (task.getAssignedTo() != null &&
                     shouldNotifyUser(task.getAssignedTo(), triggeredBy.getUsername()) &&
@@ -132,7 +184,7 @@ public class NotificationService {
                         message, "TASK_UPDATED", task.getId(), task.getTitle(),
                         task.getBoardId(), boardName, task.getAssignedTo(), triggeredBy.getUsername()
                 );
-                safeSaveNotification(userNotification);
+                safeSaveNotification(task.getTenantId(), userNotification, reads.existing());
             }
         } else {
             // USER updates task - notify ADMIN only
@@ -141,16 +193,16 @@ public class NotificationService {
                     message, "TASK_UPDATED", task.getId(), task.getTitle(),
                     task.getBoardId(), boardName, "ADMIN", triggeredBy.getUsername()
             );
-            safeSaveNotification(adminNotification);
+            safeSaveNotification(task.getTenantId(), adminNotification, reads.existing());
         }
     }
 
     // Create notification when task is assigned
     public void assignTaskNotification(Task task, String previousAssignee, User triggeredBy) {
-        Optional<Board> board = boardRepository.findById(task.getBoardId());
-        String boardName = board.map(Board::getName).orElse("Unknown Board");
+        TaskNotificationReads reads = readForTaskNotification(task, triggeredBy);
+        String boardName = reads.boardName();
 
-        if ("ADMIN".equals(triggeredBy.getRole())) {
+        if (triggeredBy.isAdmin()) {
             // ADMIN assigns task - notify the assigned USER only (if different from admin)
             if (task.getAssignedTo() != null &&
                     shouldNotifyUser(task.getAssignedTo(), triggeredBy.getUsername()) &&
@@ -161,7 +213,7 @@ public class NotificationService {
                         message, "TASK_ASSIGNED", task.getId(), task.getTitle(),
                         task.getBoardId(), boardName, task.getAssignedTo(), triggeredBy.getUsername()
                 );
-                safeSaveNotification(userNotification);
+                safeSaveNotification(task.getTenantId(), userNotification, reads.existing());
             }
         } else {
             // USER assigns task - notify ADMIN only
@@ -171,16 +223,16 @@ public class NotificationService {
                     message, "TASK_ASSIGNED", task.getId(), task.getTitle(),
                     task.getBoardId(), boardName, "ADMIN", triggeredBy.getUsername()
             );
-            safeSaveNotification(adminNotification);
+            safeSaveNotification(task.getTenantId(), adminNotification, reads.existing());
         }
     }
 
     // Create notification when task is deleted
     public void deleteTaskNotification(Task task, User triggeredBy) {
-        Optional<Board> board = boardRepository.findById(task.getBoardId());
-        String boardName = board.map(Board::getName).orElse("Unknown Board");
+        TaskNotificationReads reads = readForTaskNotification(task, triggeredBy);
+        String boardName = reads.boardName();
 
-        if ("ADMIN".equals(triggeredBy.getRole())) {
+        if (triggeredBy.isAdmin()) {
             // ADMIN archives task - notify assigned USER only (if task was assigned to someone else)
             if (task.getAssignedTo() != null &&
                     shouldNotifyUser(task.getAssignedTo(), triggeredBy.getUsername()) &&
@@ -191,7 +243,7 @@ public class NotificationService {
                         message, "TASK_ARCHIVED", task.getId(), task.getTitle(),
                         task.getBoardId(), boardName, task.getAssignedTo(), triggeredBy.getUsername()
                 );
-                safeSaveNotification(userNotification);
+                safeSaveNotification(task.getTenantId(), userNotification, reads.existing());
             }
         } else {
             // USER archives task - notify ADMIN only
@@ -200,7 +252,7 @@ public class NotificationService {
                     message, "TASK_ARCHIVED", task.getId(), task.getTitle(),
                     task.getBoardId(), boardName, "ADMIN", triggeredBy.getUsername()
             );
-            safeSaveNotification(adminNotification);
+            safeSaveNotification(task.getTenantId(), adminNotification, reads.existing());
         }
     }
 
@@ -208,13 +260,13 @@ public class NotificationService {
     public void deleteBoardNotification(Board board, User triggeredBy) {
         // Only notify if USER deletes board (notify ADMIN)
         // Don't notify if ADMIN deletes board
-        if ("USER".equals(triggeredBy.getRole())) {
+        if (!triggeredBy.isAdmin()) {
             String message = String.format("Board '%s' has been deleted by %s", board.getName(), triggeredBy.getUsername());
             Notification adminNotification = new Notification(
                     message, "BOARD_DELETED", null, null,
                     board.getId(), board.getName(), "ADMIN", triggeredBy.getUsername()
             );
-            safeSaveNotification(adminNotification);
+            safeSaveNotification(board.getTenantId(), adminNotification);
         }
     }
 
@@ -222,22 +274,22 @@ public class NotificationService {
     public void updateBoardNotification(Board board, User triggeredBy) {
         // Only notify if USER updates board (notify ADMIN)
         // Don't notify if ADMIN updates board
-        if ("USER".equals(triggeredBy.getRole())) {
+        if (!triggeredBy.isAdmin()) {
             String message = String.format("Board '%s' has been updated by %s", board.getName(), triggeredBy.getUsername());
             Notification adminNotification = new Notification(
                     message, "BOARD_UPDATED", null, null,
                     board.getId(), board.getName(), "ADMIN", triggeredBy.getUsername()
             );
-            safeSaveNotification(adminNotification);
+            safeSaveNotification(board.getTenantId(), adminNotification);
         }
     }
 
     // Add this method to your NotificationService class
     public void restoreTaskNotification(Task task, User triggeredBy) {
-        Optional<Board> board = boardRepository.findById(task.getBoardId());
-        String boardName = board.map(Board::getName).orElse("Unknown Board");
+        TaskNotificationReads reads = readForTaskNotification(task, triggeredBy);
+        String boardName = reads.boardName();
 
-        if ("ADMIN".equals(triggeredBy.getRole())) {
+        if (triggeredBy.isAdmin()) {
             // ADMIN restores task - notify assigned USER only (if task is assigned to someone else)
             if (task.getAssignedTo() != null &&
                     shouldNotifyUser(task.getAssignedTo(), triggeredBy.getUsername()) &&
@@ -248,7 +300,7 @@ public class NotificationService {
                         message, "TASK_RESTORED", task.getId(), task.getTitle(),
                         task.getBoardId(), boardName, task.getAssignedTo(), triggeredBy.getUsername()
                 );
-                safeSaveNotification(userNotification);
+                safeSaveNotification(task.getTenantId(), userNotification, reads.existing());
             }
         } else {
             // USER restores task - notify ADMIN only
@@ -257,13 +309,58 @@ public class NotificationService {
                     message, "TASK_RESTORED", task.getId(), task.getTitle(),
                     task.getBoardId(), boardName, "ADMIN", triggeredBy.getUsername()
             );
-            safeSaveNotification(adminNotification);
+            safeSaveNotification(task.getTenantId(), adminNotification, reads.existing());
+        }
+    }
+
+    // Board name and the target's notifications (for the duplicate check) are independent reads
+    private record TaskNotificationReads(String boardName, List<Notification> existing) {}
+
+    private TaskNotificationReads readForTaskNotification(Task task, User triggeredBy) {
+        String target = taskNotificationTarget(task, triggeredBy);
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<Optional<Board>> board = scope.fork(() -> boardRepository.findById(task.getBoardId()));
+            Supplier<List<Notification>> existing = target != null
+                    ? scope.fork(() -> notificationRepository.findByTenantIdAndTargetUserOrderByCreatedAtDesc(
+                            Tenants.orDefault(task.getTenantId()), target))
+                    : List::of;
+            scope.join();
+            return new TaskNotificationReads(board.get().map(Board::getName).orElse("Unknown Board"), existing.get());
+        }
+    }
+
+    // Who a task notification goes to: the assignee when an admin acts, the admin when a user acts
+    private String taskNotificationTarget(Task task, User triggeredBy) {
+        if (triggeredBy.isAdmin()) {
+            boolean notifyAssignee = task.getAssignedTo() != null &&
+                    shouldNotifyUser(task.getAssignedTo(), triggeredBy.getUsername()) &&
+                    !"ADMIN".equals(task.getAssignedTo());
+            return notifyAssignee ? task.getAssignedTo() : null;
         }
+        return "ADMIN";
     }
 
-    private void safeSaveNotification(Notification newNotification) {
-        List<Notification> existing = notificationRepository.findByTargetUserOrderByCreatedAtDesc(newNotification.getTargetUser());
+    // Notifications belong to the tenant of the board or task they are about
+    private void safeSaveNotification(String tenantId, Notification newNotification) {
+        safeSaveNotification(tenantId, newNotification, existingNotifications(tenantId, newNotification.getTargetUser()));
+    }
+
+    // Written with the notifications collection's write concern (kanban.mongo.write-concern.collections.notifications):
+    // losing one is harmless, so it needn't wait for the majority the way task and board writes do
+    private void safeSaveNotification(String tenantId, Notification newNotification, List<Notification> existing) {
+        if (isNewNotification(tenantId, newNotification, existing)) {
+            notificationRepository.save(newNotification);
+            collectionVersions.touch(CollectionVersionService.NOTIFICATIONS, newNotification.getTargetUser());
+        }
+    }
 
+    private List<Notification> existingNotifications(String tenantId, String targetUser) {
+        return notificationRepository.findByTenantIdAndTargetUserOrderByCreatedAtDesc(Tenants.orDefault(tenantId), targetUser);
+    }
+
+    // Puts the notification in the tenant; false when the target already has the same unread one
+    private boolean isNewNotification(String tenantId, Notification newNotification, List<Notification> existing) {
+        newNotification.setTenantId(Tenants.orDefault(tenantId));
         boolean duplicateExists = existing.stream().anyMatch(n ->
                 n.getType().equals(newNotification.getType()) &&
                         ((n.getTaskId() == null && newNotification.getTaskId() == null) ||
@@ -272,10 +369,9 @@ public class NotificationService {
                         n.getMessage().equals(newNotification.getMessage()) // even better
         );
 
-        if (!duplicateExists) {
-            notificationRepository.save(newNotification);
-        } else {
+        if (duplicateExists) {
             System.out.println("[SKIPPED] Duplicate notification for user: " + newNotification.getTargetUser() + " — " + newNotification.getMessage());
         }
+        return !duplicateExists;
     }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.BoardRole;
+import com.kanban.model.Task;
+import com.kanban.model.Tenants;
+import com.kanban.model.User;
+import com.kanban.repository.BoardRepository;
+import com.kanban.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single place for the board and task permission rules. Used both from SpEL
+ * ({@code @PreAuthorize("@permissions.canModifyBoard(#id, authentication.principal)")})
+ * and from the explicit checks in the service bodies.
+ *
+ * The boards and tasks a check loads are memoized for the rest of the current
+ * HTTP request, so the annotation, the method body and the controller's own
+ * check share one findById instead of each doing their own. Outside a request
+ * (schedulers, FanOut forks, plain unit tests) nothing is memoized. Boards are
+ * read through the {@link HotBoardCache} either way.
+ * Write paths that delete or replace an entity call {@link #evictBoard} /
+ * {@link #evictTask}; in-place updates mutate the memoized instance itself.
+ * Who may do what on a board comes from the user's board memberships, which
+ * {@link BoardMembershipService} caches per user across requests.
+ * Nothing crosses tenants, not even for admins: every check also matches the
+ * board's or task's tenant against the user's. Usernames are only unique
+ * within a tenant, so a membership alone doesn't prove the board is theirs.
+ */
+@Service("permissions")
+public class PermissionService {
+
+    private static final String MEMO_ATTRIBUTE = PermissionService.class.getName() + ".MEMO";
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    HotBoardCache hotBoardCache;
+
+    @Autowired
+    BoardMembershipService memberships;
+
+    // Per-request lookups; lookups counts the reads that went past the memo (to the hot cache or Mongo)
+    static class Memo {
+        final Map<String, Optional<Board>> boards = new HashMap<>();
+        final Map<String, Optional<Task>> tasks = new HashMap<>();
+        int lookups;
+    }
+
+    public boolean isAdmin(User user) {
+        return user.isAdmin();
+    }
+
+    // Board by id, read at most once per request
+    public Optional<Board> board(String boardId) {
+        Memo memo = memo();
+        if (memo == null) {
+            return hotBoardCache.getBoard(boardId, () -> boardRepository.findById(boardId));
+        }
+        Optional<Board> board = memo.boards.get(boardId);
+        if (board == null) {
+            board = hotBoardCache.getBoard(boardId, () -> boardRepository.findById(boardId));
+            memo.boards.put(boardId, board);
+            memo.lookups++;
+        }
+        return board;
+    }
+
+    // Task by id, read at most once per request
+    public Optional<Task> task(String taskId) {
+        Memo memo = memo();
+        if (memo == null) {
+            return taskRepository.findById(taskId);
+        }
+        Optional<Task> task = memo.tasks.get(taskId);
+        if (task == null) {
+            task = taskRepository.findById(taskId);
+            memo.tasks.put(taskId, task);
+            memo.lookups++;
+        }
+        return task;
+    }
+
+    public void evictBoard(String boardId) {
+        Memo memo = memo();
+        if (memo != null) {
+            memo.boards.remove(boardId);
+        }
+    }
+
+    public void evictTask(String taskId) {
+        Memo memo = memo();
+        if (memo != null) {
+            memo.tasks.remove(taskId);
+        }
+    }
+
+    // Number of board/task reads the permission checks made past the memo in the current request
+    public int lookupsInRequest() {
+        Memo memo = memo();
+        return memo == null ? 0 : memo.lookups;
+    }
+
+    // The user's role on the board, null if they aren't a member (one cached lookup for all their boards)
+    public BoardRole role(String boardId, User user) {
+        return memberships.role(boardId, user.getUsername());
+    }
+
+    public boolean sameTenant(Board board, User user) {
+        return Tenants.same(board.getTenantId(), user);
+    }
+
+    public boolean sameTenant(Task task, User user) {
+        return Tenants.same(task.getTenantId(), user);
+    }
+
+    // Admin, or any member of the board - of the user's tenant either way
+    public boolean canAccessBoard(Board board, User user) {
+        return sameTenant(board, user) && (isAdmin(user) || role(board.getId(), user) != null);
+    }
+
+    public boolean canAccessBoard(String boardId, User user) {
+        Optional<Board> board = board(boardId);
+        return board.isPresent() && canAccessBoard(board.get(), user);
+    }
+
+    // Update/delete and member management: admin or the board's owner. The board is only read for its
+    // tenant, once the role allows it
+    public boolean canModifyBoard(String boardId, User user) {
+        if (!isAdmin(user)) {
+            if (!user.canWrite()) {
+                return false;
+            }
+            BoardRole role = role(boardId, user);
+            if (role == null || !role.managesBoard()) {
+                return false;
+            }
+        }
+        Optional<Board> board = board(boardId);
+        return board.isPresent() && sameTenant(board.get(), user);
+    }
+
+    // The board has to exist; admin or a member may add tasks to it
+    public boolean canCreateTaskInBoard(String boardId, User user) {
+        Optional<Board> board = board(boardId);
+        return board.isPresent() && canAccessBoard(board.get(), user);
+    }
+
+    // Admin, or a member whose role covers every task of the board (others only see their own tasks there)
+    public boolean seesAllTasks(String boardId, User user) {
+        if (isAdmin(user)) {
+            return true;
+        }
+        BoardRole role = role(boardId, user);
+        return role != null && role.seesAllTasks();
+    }
+
+    // Admin, creator, assignee, or a member who sees all of the board's tasks; memberships are only read
+    // when the cheaper checks fail
+    public boolean canAccessTask(Task task, User user) {
+        if (!sameTenant(task, user)) {
+            return false;
+        }
+        if (isAdmin(user)
+                || user.getUsername().equals(task.getCreatedBy())
+                || user.getUsername().equals(task.getAssignedTo())) {
+            return true;
+        }
+        return seesAllTasks(task.getBoardId(), user);
+    }
+
+    // Assignees can modify their tasks, board owners and maintainers all tasks of the board; viewers nothing
+    public boolean canModifyTask(Task task, User user) {
+        if (!sameTenant(task, user)) {
+            return false;
+        }
+        if (isAdmin(user)) {
+            return true;
+        }
+        if (!user.canWrite()) {
+            return false;
+        }
+        if (user.getUsername().equals(task.getAssignedTo())) {
+            return true;
+        }
+        BoardRole role = role(task.getBoardId(), user);
+        return role != null && role.modifiesAllTasks();
+    }
+
+    public boolean canModifyTask(String taskId, User user) {
+        if (!isAdmin(user) && !user.canWrite()) {
+            return false;
+        }
+        Optional<Task> task = task(taskId);
+        return task.isPresent() && canModifyTask(task.get(), user);
+    }
+
+    private Memo memo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Memo memo = (Memo) attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new Memo();
+            attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+}
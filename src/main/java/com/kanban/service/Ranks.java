@@ -0,0 +1,89 @@
+package com.kanban.service;
+
+/**
+ * Lexicographic fractional indexing for the order of tasks within a column.
+ * Ranks are base-62 digit strings compared as plain strings (which is also how
+ * Mongo sorts them), never end in the lowest digit, and there is always a rank
+ * between any two distinct ones - so a task is moved by rewriting its own rank
+ * only. Repeated inserts at the same spot make ranks grow by about one digit
+ * per six moves; {@link #spread} hands out short, evenly spaced ones again.
+ */
+public final class Ranks {
+
+    static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    private Ranks() {}
+
+    // A rank strictly between the two; null stands for the start or the end of the column
+    public static String between(String before, String after) {
+        String low = before != null ? before : "";
+        if (after != null && low.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("Ranks out of order: " + before + " >= " + after);
+        }
+        return midpoint(low, after);
+    }
+
+    // count evenly spaced ranks in ascending order, all of the same (shortest possible) length
+    public static String[] spread(int count) {
+        int width = 1;
+        long slots = BASE;
+        while (slots <= count) {
+            width++;
+            slots *= BASE;
+        }
+        long step = slots / (count + 1);
+
+        String[] ranks = new String[count];
+        for (int i = 0; i < count; i++) {
+            ranks[i] = stripTrailingZeros(toDigits(step * (i + 1), width));
+        }
+        return ranks;
+    }
+
+    // low may be "", high == null means unbounded
+    private static String midpoint(String low, String high) {
+        if (high != null) {
+            // Skip the shared prefix (low padded with zeros)
+            int n = 0;
+            while (n < high.length() && digitAt(low, n) == high.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return high.substring(0, n) + midpoint(low.substring(Math.min(n, low.length())), high.substring(n));
+            }
+        }
+
+        int lowDigit = low.isEmpty() ? 0 : DIGITS.indexOf(low.charAt(0));
+        int highDigit = high != null ? DIGITS.indexOf(high.charAt(0)) : BASE;
+        if (highDigit - lowDigit > 1) {
+            return String.valueOf(DIGITS.charAt((lowDigit + highDigit) / 2));
+        }
+        // Adjacent digits: a longer high can be cut short, otherwise keep low's digit and go one deeper
+        if (high != null && high.length() > 1) {
+            return high.substring(0, 1);
+        }
+        return DIGITS.charAt(lowDigit) + midpoint(low.isEmpty() ? "" : low.substring(1), null);
+    }
+
+    private static char digitAt(String value, int index) {
+        return index < value.length() ? value.charAt(index) : DIGITS.charAt(0);
+    }
+
+    private static String toDigits(long value, int width) {
+        char[] digits = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        return new String(digits);
+    }
+
+    private static String stripTrailingZeros(String rank) {
+        int end = rank.length();
+        while (end > 1 && rank.charAt(end - 1) == DIGITS.charAt(0)) {
+            end--;
+        }
+        return rank.substring(0, end);
+    }
+}
@@ -0,0 +1,146 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.BoardRole;
+import com.kanban.model.Notification;
+import com.kanban.model.Task;
+import com.kanban.model.Tenants;
+import com.kanban.model.User;
+import com.kanban.repository.ReactiveArchivedTaskRepository;
+import com.kanban.repository.ReactiveBoardRepository;
+import com.kanban.repository.ReactiveNotificationRepository;
+import com.kanban.repository.ReactiveTaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+
+/**
+ * Read paths of TaskService, BoardService and NotificationService on the
+ * reactive repositories, with the same access rules. Used by the handlers of
+ * the reactive mode; writes stay on the blocking services.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReadService {
+
+    @Autowired
+    ReactiveTaskRepository taskRepository;
+
+    @Autowired
+    ReactiveArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    ReactiveBoardRepository boardRepository;
+
+    @Autowired
+    ReactiveNotificationRepository notificationRepository;
+
+    @Autowired
+    BoardMembershipService memberships;
+
+    // Tasks
+
+    public Flux<Task> getAllTasks(User user) {
+        if (isAdmin(user)) {
+            return taskRepository.findByTenantId(user.getTenantId());
+        }
+        return taskRepository.findByTenantIdAndAssignedTo(user.getTenantId(), user.getUsername());
+    }
+
+    // Errors with "Board not found or access denied" like TaskService.getTasksByBoard
+    public Flux<Task> getTasksByBoard(String boardId, User user) {
+        return boardRepository.findById(boardId)
+                .filter(board -> Tenants.same(board.getTenantId(), user))
+                .switchIfEmpty(Mono.error(new RuntimeException("Board not found or access denied")))
+                .flatMap(board -> seesAllTasks(boardId, user))
+                .flatMapMany(seesAll -> seesAll
+                        ? taskRepository.findByBoardIdOrderByStatusAscRankAsc(boardId)
+                        : taskRepository.findByBoardIdAndAssignedToOrderByStatusAscRankAsc(boardId, user.getUsername()));
+    }
+
+    public Mono<Task> getTaskById(String id, User user) {
+        return taskRepository.findById(id)
+                .filterWhen(task -> canAccessTask(task, user));
+    }
+
+    // Like TaskService.getArchivedTasks: the ones not moved to tasks_archive yet first
+    public Flux<Task> getArchivedTasks(User user) {
+        String tenantId = user.getTenantId();
+        if (isAdmin(user)) {
+            return Flux.concat(taskRepository.findByTenantIdAndIsArchived(tenantId, true),
+                    archivedTaskRepository.findByTenantIdOrderByArchivedAtDesc(tenantId));
+        }
+        return Flux.concat(taskRepository.findByTenantIdAndAssignedToAndIsArchived(tenantId, user.getUsername(), true),
+                archivedTaskRepository.findByTenantIdAndAssignedToOrderByArchivedAtDesc(tenantId, user.getUsername()));
+    }
+
+    // Same rules as TaskService.canAccessTask; memberships are only read when the cheaper checks fail
+    public Mono<Boolean> canAccessTask(Task task, User user) {
+        if (!Tenants.same(task.getTenantId(), user)) {
+            return Mono.just(false);
+        }
+        if (isAdmin(user)
+                || user.getUsername().equals(task.getCreatedBy())
+                || user.getUsername().equals(task.getAssignedTo())) {
+            return Mono.just(true);
+        }
+        return seesAllTasks(task.getBoardId(), user);
+    }
+
+    // Boards
+
+    // Boards the user is a member of, like TaskService.getAccessibleBoards
+    public Flux<Board> getAccessibleBoards(User user) {
+        if (isAdmin(user)) {
+            return boardRepository.findByTenantId(user.getTenantId());
+        }
+        return memberships(user).flatMapMany(boards -> boardRepository.findAllById(boards.keySet()))
+                .filter(board -> Tenants.same(board.getTenantId(), user));
+    }
+
+    // Same rules as BoardService.canAccessBoard
+    public Mono<Board> getBoardById(String id, User user) {
+        if (isAdmin(user)) {
+            return boardRepository.findById(id).filter(board -> Tenants.same(board.getTenantId(), user));
+        }
+        return memberships(user)
+                .filter(boards -> boards.containsKey(id))
+                .flatMap(boards -> boardRepository.findById(id))
+                .filter(board -> Tenants.same(board.getTenantId(), user));
+    }
+
+    // Notifications
+
+    public Flux<Notification> getNotifications(User user) {
+        if (isAdmin(user)) {
+            return notificationRepository.findByTenantIdOrderByCreatedAtDesc(user.getTenantId());
+        }
+        return notificationRepository.findByTenantIdAndTargetUserOrderByCreatedAtDesc(user.getTenantId(), user.getUsername());
+    }
+
+    public Mono<Long> getUnreadCount(User user) {
+        return notificationRepository.countByTenantIdAndTargetUserAndIsRead(user.getTenantId(), user.getUsername(), false);
+    }
+
+    private boolean isAdmin(User user) {
+        return user.isAdmin();
+    }
+
+    private Mono<Boolean> seesAllTasks(String boardId, User user) {
+        if (isAdmin(user)) {
+            return Mono.just(true);
+        }
+        return memberships(user).map(boards -> boards.get(boardId) != null && boards.get(boardId).seesAllTasks());
+    }
+
+    // Usually a cache hit; a miss is a blocking Mongo read, so it runs off the event loop
+    private Mono<Map<String, BoardRole>> memberships(User user) {
+        return Mono.fromCallable(() -> memberships.memberships(user.getUsername()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,75 @@
+package com.kanban.service;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoCollection;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Where the Mongo reads of the current thread go. Reads go to the primary
+ * unless ReadRoutingInterceptor let the request read from secondaries; the
+ * MongoTemplate applies the routing to every collection it hands out (see
+ * MongoConfig). FanOut forks inherit the routing of the thread that forked them.
+ * Loads into caches that outlive the request run through {@link #primary}: a
+ * secondary that hasn't caught up yet would put a version the primary already
+ * replaced back into the cache, where no invalidation would come for it.
+ */
+public final class ReadRouting {
+
+    // null = primary
+    private static final ThreadLocal<ReadPreference> CURRENT = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static ReadPreference current() {
+        return CURRENT.get();
+    }
+
+    public static void set(ReadPreference readPreference) {
+        if (readPreference == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(readPreference);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    // Run the reads on the primary, whatever the thread's routing is
+    public static <T> T primary(Supplier<T> read) {
+        ReadPreference previous = CURRENT.get();
+        CURRENT.remove();
+        try {
+            return read.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    // The read with the routing of the calling thread, for running it on another one
+    public static <T> Callable<T> inherit(Callable<T> read) {
+        ReadPreference routing = CURRENT.get();
+        return () -> {
+            ReadPreference previous = CURRENT.get();
+            set(routing);
+            try {
+                return read.call();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    // The collection as the current thread should read it
+    public static <T> MongoCollection<T> prepare(MongoCollection<T> collection) {
+        ReadPreference readPreference = CURRENT.get();
+        if (readPreference == null || readPreference.equals(collection.getReadPreference())) {
+            return collection;
+        }
+        return collection.withReadPreference(readPreference);
+    }
+}
@@ -0,0 +1,217 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.BoardRole;
+import com.kanban.model.Task;
+import com.kanban.model.TaskChanges;
+import com.kanban.model.TaskEvent;
+import com.kanban.model.Tenants;
+import com.kanban.model.User;
+import com.kanban.repository.BoardRepository;
+import com.kanban.repository.TaskEventRepository;
+import com.kanban.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Appends task and board writes to the task_events log and answers incremental
+ * sync requests from it. Events only carry ids; changes are served from the
+ * current documents, so a client catching up gets each entity once at its
+ * latest state, or as a tombstone if it was archived, deleted or is no longer
+ * visible to them.
+ */
+@Service
+public class TaskEventService {
+
+    @Autowired
+    TaskEventRepository taskEventRepository;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    @Autowired
+    BoardMembershipService memberships;
+
+    // Sequence numbers are allocated before the insert, so a concurrent writer can land a lower seq
+    // after a higher one is already visible. The cursor stops below the first seq that is missing or
+    // younger than this, so everything up to it is in the log.
+    @Value("${kanban.sync.settle-millis:1000}")
+    long settleMillis = 1000;
+
+    // A seq still missing once every later event is older than this is an insert that failed; the cursor
+    // moves past it instead of waiting for good
+    @Value("${kanban.sync.lost-after-millis:60000}")
+    long lostAfterMillis = 60000;
+
+    // Record a task write; the previous assignee is in the audience so they receive the tombstone
+    public void recordTask(Task task, String previousAssignee) {
+        String op = task.isArchived() ? TaskEvent.TOMBSTONE : TaskEvent.UPSERT;
+        List<String> audience = Stream.of(task.getAssignedTo(), previousAssignee, task.getCreatedBy())
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        TaskEvent event = new TaskEvent(TaskEvent.TASK, task.getId(), task.getBoardId(), op, audience);
+        event.setTenantId(Tenants.orDefault(task.getTenantId()));
+        taskEventRepository.append(event);
+    }
+
+    // Bulk variant of recordTask for writes that don't change assignees (board import, rank rebalancing)
+    public void recordTasks(List<Task> tasks) {
+        List<TaskEvent> events = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            List<String> audience = Stream.of(task.getAssignedTo(), task.getCreatedBy())
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .collect(Collectors.toList());
+            TaskEvent event = new TaskEvent(TaskEvent.TASK, task.getId(), task.getBoardId(),
+                    task.isArchived() ? TaskEvent.TOMBSTONE : TaskEvent.UPSERT, audience);
+            event.setTenantId(Tenants.orDefault(task.getTenantId()));
+            events.add(event);
+        }
+        taskEventRepository.appendAll(events);
+    }
+
+    // Record a board write. A deleted board's members have lost it from their memberships by the time they
+    // sync, so they have to be its audience to receive the tombstone
+    public void recordBoard(Board board, boolean deleted, List<String> members) {
+        String op = deleted ? TaskEvent.TOMBSTONE : TaskEvent.UPSERT;
+        TaskEvent event = new TaskEvent(TaskEvent.BOARD, board.getId(), board.getId(), op, deleted ? members : List.of());
+        event.setTenantId(Tenants.orDefault(board.getTenantId()));
+        taskEventRepository.append(event);
+    }
+
+    // Record a membership change: the board and its active tasks, for the member alone - no boardId, so the
+    // board's other members don't fetch them again. getChanges works out from the new role which of them the
+    // member still sees and sends tombstones for the rest
+    public void recordMembership(Board board, String username, boolean removed) {
+        String tenantId = Tenants.orDefault(board.getTenantId());
+        List<String> audience = List.of(username);
+        List<TaskEvent> events = new ArrayList<>();
+        TaskEvent boardEvent = new TaskEvent(TaskEvent.BOARD, board.getId(), null,
+                removed ? TaskEvent.TOMBSTONE : TaskEvent.UPSERT, audience);
+        boardEvent.setTenantId(tenantId);
+        events.add(boardEvent);
+
+        Query query = Query.query(Criteria.where("boardId").is(board.getId()).and("isArchived").ne(true));
+        for (Task task : taskRepository.findWithFields(query, List.of("boardId"))) {
+            // Re-checked either way: a removed member still sees the tasks they created or are assigned
+            TaskEvent event = new TaskEvent(TaskEvent.TASK, task.getId(), null, TaskEvent.UPSERT, audience);
+            event.setTenantId(tenantId);
+            events.add(event);
+        }
+        taskEventRepository.appendAll(events);
+    }
+
+    // Everything that changed in the user's view after the given cursor, at most limit events at a time
+    public TaskChanges getChanges(long since, int limit, User user) {
+        boolean admin = user.isAdmin();
+        String username = user.getUsername();
+        LocalDateTime now = LocalDateTime.now();
+        long through = completeThrough(since, now.minusNanos(settleMillis * 1_000_000),
+                now.minusNanos(Math.max(lostAfterMillis, settleMillis) * 1_000_000));
+
+        // Same visibility as the list endpoints: the boards the user is a member of, all of whose tasks
+        // they see unless they are only there for their assigned ones
+        Set<String> seenBoardIds = new HashSet<>();
+        Set<String> visibleBoardIds = null;
+        if (!admin) {
+            Map<String, BoardRole> boards = memberships.memberships(username);
+            boards.forEach((boardId, role) -> {
+                if (role.seesAllTasks()) {
+                    seenBoardIds.add(boardId);
+                }
+            });
+            visibleBoardIds = boards.keySet();
+        }
+
+        // Read one extra event to know whether the client has to come back for more
+        List<TaskEvent> events = through > since
+                ? taskEventRepository.findChanges(since, through, visibleBoardIds, username, limit + 1)
+                : List.of();
+        boolean hasMore = events.size() > limit;
+        if (hasMore) {
+            events = events.subList(0, limit);
+        }
+        long cursor = hasMore ? events.get(events.size() - 1).getSeq() : through;
+
+        // Collapse to the latest event per entity
+        Map<String, TaskEvent> taskEvents = new LinkedHashMap<>();
+        Map<String, TaskEvent> boardEvents = new LinkedHashMap<>();
+        for (TaskEvent event : events) {
+            // Admins get every tenant's events; tombstones of another tenant's entities aren't theirs
+            if (!Tenants.same(event.getTenantId(), user)) {
+                continue;
+            }
+            Map<String, TaskEvent> latest = TaskEvent.BOARD.equals(event.getEntityType()) ? boardEvents : taskEvents;
+            latest.remove(event.getEntityId());
+            latest.put(event.getEntityId(), event);
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        List<String> deletedTaskIds = new ArrayList<>(taskEvents.keySet());
+        for (Task task : taskRepository.findAllById(taskEvents.keySet())) {
+            // Another tenant's task is neither a change nor a tombstone to this user
+            if (!Tenants.same(task.getTenantId(), user)) {
+                deletedTaskIds.remove(task.getId());
+            } else if (!task.isArchived() && (admin || canSee(task, username, seenBoardIds))) {
+                tasks.add(task);
+                deletedTaskIds.remove(task.getId());
+            }
+        }
+
+        List<Board> boards = new ArrayList<>();
+        List<String> deletedBoardIds = new ArrayList<>(boardEvents.keySet());
+        for (Board board : boardRepository.findAllById(boardEvents.keySet())) {
+            if (!Tenants.same(board.getTenantId(), user)) {
+                deletedBoardIds.remove(board.getId());
+            } else if (admin || visibleBoardIds.contains(board.getId())) {
+                boards.add(board);
+                deletedBoardIds.remove(board.getId());
+            }
+        }
+
+        return new TaskChanges(cursor, hasMore, tasks, boards, deletedTaskIds, deletedBoardIds);
+    }
+
+    // Highest seq that every seq up to is in the log and settled, at least since. Only the events created
+    // after lostBefore are walked: a gap among older ones is an insert that failed
+    long completeThrough(long since, LocalDateTime settledBefore, LocalDateTime lostBefore) {
+        List<TaskEvent> recent = taskEventRepository.findCreatedSince(lostBefore);
+        if (recent.isEmpty()) {
+            return Math.max(since, taskEventRepository.findLatestSeqBelow(Long.MAX_VALUE));
+        }
+        long complete = taskEventRepository.findLatestSeqBelow(recent.get(0).getSeq());
+        for (TaskEvent event : recent) {
+            // The seqs in between were allocated before this one and may still be inserted
+            if (event.getSeq() != complete + 1 || !event.getAt().isBefore(settledBefore)) {
+                break;
+            }
+            complete = event.getSeq();
+        }
+        return Math.max(since, complete);
+    }
+
+    // canAccessTask with the user's memberships already at hand
+    private boolean canSee(Task task, String username, Set<String> seenBoardIds) {
+        return username.equals(task.getCreatedBy())
+                || username.equals(task.getAssignedTo())
+                || seenBoardIds.contains(task.getBoardId());
+    }
+}
@@ -1,18 +1,36 @@
 package com.kanban.service;
 
+import com.kanban.model.ArchivedTask;
 import com.kanban.model.Board;
 import com.kanban.model.Task;
+import com.kanban.model.TaskSearchResult;
+import com.kanban.model.Tenants;
 import com.kanban.model.User;
+import com.kanban.repository.ArchivedTaskRepository;
 import com.kanban.repository.BoardRepository;
 import com.kanban.repository.TaskRepository;
+import com.kanban.service.BoardCountsService.Counted;
+import com.kanban.web.FieldSelection;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TaskService {
@@ -29,21 +47,61 @@ public class TaskService {
     @Autowired
     NotificationService notificationService;
 
+    @Autowired
+    CollectionVersionService collectionVersions;
+
+    @Autowired
+    BoardMetricsService boardMetricsService;
+
+    @Autowired
+    TaskEventService taskEventService;
+
+    @Autowired
+    PermissionService permissions;
+
+    @Autowired
+    HotBoardCache hotBoardCache;
+
+    @Autowired
+    BoardCountsService boardCounts;
+
+    @Autowired
+    ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    BoardMembershipService memberships;
+
+    @Autowired
+    TenantService tenants;
+
+    @Autowired
+    FanOut fanOut;
+
+    // Columns with ranks longer than this are re-spread by the rebalancing job
+    @Value("${kanban.ranks.max-length:16}")
+    int maxRankLength = 16;
+
+    // Archived tasks moved to tasks_archive per round trip by the archiving job
+    @Value("${kanban.archive.batch-size:500}")
+    int archiveBatchSize = 500;
+
     public List<Task> getTasksByBoard(String boardId, User user) {
-        Optional<Board> board = boardRepository.findById(boardId);
+        Optional<Board> board = permissions.board(boardId).filter(found -> permissions.sameTenant(found, user));
         if (board.isPresent()) {
+            // Hot boards are served from the cache, which the task writes below keep current
+            List<Task> allTasksInBoard = hotBoardCache.getTasks(boardId, () -> taskRepository.findByBoardIdOrderByStatusAscRankAsc(boardId));
+
             // Admin can see all tasks in any board
-            if ("ADMIN".equals(user.getRole())) {
-                return taskRepository.findByBoardId(boardId);
+            if (user.isAdmin()) {
+                return allTasksInBoard;
             }
 
-            // Regular users can see tasks in boards they own OR tasks assigned to them
-            if (board.get().getCreatedBy().equals(user.getUsername())) {
-                return taskRepository.findByBoardId(boardId);
+            // Owners, maintainers and viewers of the board see all of its tasks
+            if (permissions.seesAllTasks(boardId, user)) {
+                return allTasksInBoard;
             }
 
-            // Or if they have tasks assigned to them in this board
-            List<Task> allTasksInBoard = taskRepository.findByBoardId(boardId);
+            // Everyone else only the tasks assigned to them
             return allTasksInBoard.stream()
                     .filter(task -> task.getAssignedTo() != null && task.getAssignedTo().equals(user.getUsername()))
                     .collect(Collectors.toList());
@@ -51,17 +109,83 @@ public class TaskService {
         throw new RuntimeException("Board not found or access denied");
     }
 
+    // Same as getTasksByBoard, but only reads the selected fields - access filtering happens in the query
+    public List<Task> getTasksByBoard(String boardId, User user, FieldSelection selection) {
+        Optional<Board> board = permissions.board(boardId).filter(found -> permissions.sameTenant(found, user));
+        if (board.isPresent()) {
+            Criteria criteria = Criteria.where("boardId").is(boardId);
+            if (!permissions.seesAllTasks(boardId, user)) {
+                criteria = criteria.and("assignedTo").is(user.getUsername());
+            }
+            Query query = new Query(criteria).with(Sort.by("status", "rank"));
+            return taskRepository.findWithFields(query, selection.getDocumentFields());
+        }
+        throw new RuntimeException("Board not found or access denied");
+    }
+
+    // Full-text search with facet counts, limited to the tasks canAccessTask would let the user see
+    public TaskSearchResult searchTasks(String text, String status, String priority, String assignedTo,
+                                        String boardId, int page, int size, User user) {
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("isArchived").ne(true));
+        if (status != null) filters.add(Criteria.where("status").is(status));
+        if (priority != null) filters.add(Criteria.where("priority").is(priority));
+        if (assignedTo != null) filters.add(Criteria.where("assignedTo").is(assignedTo));
+        if (boardId != null) filters.add(Criteria.where("boardId").is(boardId));
+
+        if (!user.isAdmin()) {
+            // Same rules as canAccessTask: created by, assigned to, or on a board whose tasks the user all sees
+            List<String> seenBoardIds = memberships.memberships(user.getUsername()).entrySet().stream()
+                    .filter(membership -> membership.getValue().seesAllTasks())
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("createdBy").is(user.getUsername()),
+                    Criteria.where("assignedTo").is(user.getUsername()),
+                    Criteria.where("boardId").in(seenBoardIds)));
+        }
+
+        return taskRepository.search(user.getTenantId(), text, new Criteria().andOperator(filters), page, size);
+    }
+
     public List<Task> getAllTasks(User user) {
-        if ("ADMIN".equals(user.getRole())) {
-            return taskRepository.findAll();
+        if (user.isAdmin()) {
+            return taskRepository.findByTenantId(user.getTenantId());
         }
 
         // For regular users, show only tasks assigned to them
-        return taskRepository.findByAssignedTo(user.getUsername());
+        return taskRepository.findByTenantIdAndAssignedTo(user.getTenantId(), user.getUsername());
+    }
+
+    // Same as getAllTasks, but only reads the selected fields
+    public List<Task> getAllTasks(User user, FieldSelection selection) {
+        return taskRepository.findWithFields(allTasksQuery(user), selection.getDocumentFields());
+    }
+
+    // Streaming variant of getAllTasks for large result sets - the caller closes the stream
+    public Stream<Task> streamAllTasks(User user) {
+        if (user.isAdmin()) {
+            return taskRepository.streamByTenantId(user.getTenantId());
+        }
+        return taskRepository.findByTenantIdAndAssignedTo(user.getTenantId(), user.getUsername()).stream();
+    }
+
+    // Streaming variant of getAllTasks(user, selection) - the caller closes the stream
+    public Stream<Task> streamAllTasks(User user, FieldSelection selection) {
+        if (user.isAdmin()) {
+            return taskRepository.streamWithFields(allTasksQuery(user), selection.getDocumentFields());
+        }
+        return getAllTasks(user, selection).stream();
+    }
+
+    // The tenant's tasks for admins, the user's assigned ones otherwise - both on the (tenantId, assignedTo) index
+    private Query allTasksQuery(User user) {
+        Criteria criteria = Criteria.where("tenantId").is(user.getTenantId());
+        return Query.query(user.isAdmin() ? criteria : criteria.and("assignedTo").is(user.getUsername()));
     }
 
     public Optional<Task> getTaskById(String id, User user) {
-        Optional<Task> task = taskRepository.findById(id);
+        Optional<Task> task = permissions.task(id);
         if (task.isPresent() && canAccessTask(task.get(), user)) {
             return task;
         }
@@ -70,17 +194,23 @@ public class TaskService {
 
     public Task createTask(Task task, User user) {
         // Only admin can create tasks
-        if (!"ADMIN".equals(user.getRole())) {
+        if (!user.isAdmin()) {
             throw new RuntimeException("Access denied - only admin can create tasks");
         }
 
-        Optional<Board> board = boardRepository.findById(task.getBoardId());
+        Optional<Board> board = permissions.board(task.getBoardId()).filter(found -> permissions.sameTenant(found, user));
         if (!board.isPresent()) {
             throw new RuntimeException("Board not found");
         }
 
+        task.setTenantId(board.get().getTenantId());
         task.setCreatedBy(user.getUsername());
-        Task createdTask = taskRepository.save(task);
+        task.setStatusChangedAt(LocalDateTime.now());
+        task.setRank(rankAtEnd(task.getBoardId(), task.getStatus()));
+        Task createdTask = countedWrite(board, null, Counted.of(task), () -> taskRepository.save(task));
+        memberships.ensureAssignee(createdTask.getBoardId(), createdTask.getAssignedTo());
+        boardMetricsService.recordTransition(createdTask, null, user.getUsername());
+        afterTaskWrite(createdTask, null);
 
         // Create notification
         notificationService.createTaskNotification(createdTask, user);
@@ -88,20 +218,34 @@ public class TaskService {
         return createdTask;
     }
 
-    @PreAuthorize("hasRole('ADMIN') or @taskService.canModifyTask(#id, authentication.principal)")
+    @PreAuthorize("@permissions.canModifyTask(#id, authentication.principal)")
     public Task updateTask(String id, Task updatedTask, User user) {
-        Optional<Task> existingTask = taskRepository.findById(id);
-        if (existingTask.isPresent() && canModifyTask(id, user)) {
+        // Already loaded by the @PreAuthorize check
+        Optional<Task> existingTask = permissions.task(id);
+        if (existingTask.isPresent() && canModifyTask(existingTask.get(), user)) {
             Task task = existingTask.get();
             String previousAssignee = task.getAssignedTo();
+            String previousStatus = task.getStatus();
+            Counted before = Counted.of(task);
 
             task.setTitle(updatedTask.getTitle());
             task.setDescription(updatedTask.getDescription());
             task.setStatus(updatedTask.getStatus());
             task.setPriority(updatedTask.getPriority());
             task.setAssignedTo(updatedTask.getAssignedTo());
+            boolean statusChanged = !Objects.equals(previousStatus, task.getStatus());
+            // A counted change (and the target column's WIP limit) needs the board up front
+            Counted after = Counted.of(task);
+            Optional<Board> countedBoard = readBeforeWrite(task, statusChanged, !before.equals(after));
 
-            Task savedTask = taskRepository.save(task);
+            Task savedTask = countedWrite(countedBoard, before, after, () -> taskRepository.save(task));
+            if (!Objects.equals(previousAssignee, savedTask.getAssignedTo())) {
+                memberships.ensureAssignee(savedTask.getBoardId(), savedTask.getAssignedTo());
+            }
+            if (statusChanged) {
+                boardMetricsService.recordTransition(savedTask, previousStatus, user.getUsername());
+            }
+            afterTaskWrite(savedTask, previousAssignee);
 
             // Create notifications
             notificationService.updateTaskNotification(savedTask, user);
@@ -116,20 +260,29 @@ public class TaskService {
 
     // New method for status-only updates (for regular users)
     public Task updateTaskStatusOnly(String id, String newStatus, User user) {
-        Optional<Task> existingTask = taskRepository.findById(id);
+        // The controller's canUpdateTaskStatus check already loaded it
+        Optional<Task> existingTask = permissions.task(id);
         if (!existingTask.isPresent()) {
             throw new RuntimeException("Task not found");
         }
 
         Task task = existingTask.get();
 
-        // Check if user can update this task status (only assigned user)
-        if (!task.getAssignedTo().equals(user.getUsername())) {
+        // Check if user can update this task status (assignee, or owner/maintainer of the board)
+        if (!canModifyTask(task, user)) {
             throw new RuntimeException("Access denied - you can only update tasks assigned to you");
         }
 
+        String previousStatus = task.getStatus();
+        Counted before = Counted.of(task);
+        boolean statusChanged = !Objects.equals(previousStatus, newStatus);
         task.setStatus(newStatus);
-        Task savedTask = taskRepository.save(task);
+        Optional<Board> board = readBeforeWrite(task, statusChanged, statusChanged);
+        Task savedTask = countedWrite(board, before, Counted.of(task), () -> taskRepository.save(task));
+        if (statusChanged) {
+            boardMetricsService.recordTransition(savedTask, previousStatus, user.getUsername());
+        }
+        afterTaskWrite(savedTask, null);
 
         // Create notification for status update
         notificationService.updateTaskNotification(savedTask, user);
@@ -137,20 +290,64 @@ public class TaskService {
         return savedTask;
     }
 
+    // Drag-and-drop: place the task between two neighbours in the target column (status null = its own column).
+    // afterTaskId null means the top of the column; with both null the task goes to the bottom.
+    // Only the moved task is written - its neighbours keep their ranks.
+    public Task moveTask(String id, String status, String afterTaskId, String beforeTaskId, User user) {
+        Optional<Task> existingTask = permissions.task(id);
+        if (!existingTask.isPresent() || !canModifyTask(existingTask.get(), user)) {
+            throw new RuntimeException("Task not found or access denied");
+        }
+
+        Task task = existingTask.get();
+        String targetStatus = status != null ? status : task.getStatus();
+        Optional<Board> board = permissions.board(task.getBoardId());
+        if (board.isPresent() && !board.get().getColumns().contains(targetStatus)) {
+            throw new RuntimeException("Unknown column: " + targetStatus);
+        }
+        if (id.equals(afterTaskId) || id.equals(beforeTaskId)) {
+            throw new RuntimeException("A task can't be its own neighbour");
+        }
+
+        String previousStatus = task.getStatus();
+        boolean statusChanged = !Objects.equals(previousStatus, targetStatus);
+        String rank = rankBetween(task.getBoardId(), targetStatus, afterTaskId, beforeTaskId);
+        Counted after = new Counted(targetStatus, task.getPriority(), task.isArchived());
+        Task savedTask = countedWrite(board, Counted.of(task), after,
+                () -> taskRepository.updatePosition(id, targetStatus, rank, statusChanged ? LocalDateTime.now() : null));
+        if (savedTask == null) {
+            throw new RuntimeException("Task not found");
+        }
+        if (statusChanged) {
+            boardMetricsService.recordTransition(savedTask, previousStatus, user.getUsername());
+        }
+        afterTaskWrite(savedTask, null);
+
+        // Reordering within a column isn't worth a notification, changing columns is
+        if (statusChanged) {
+            notificationService.updateTaskNotification(savedTask, user);
+        }
+
+        return savedTask;
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     public void deleteTask(String id, User user) {
         // Only admin can delete tasks
-        if (!"ADMIN".equals(user.getRole())) {
+        if (!user.isAdmin()) {
             throw new RuntimeException("Access denied - only admin can delete tasks");
         }
 
-        Optional<Task> taskToDelete = taskRepository.findById(id);
+        Optional<Task> taskToDelete = permissions.task(id).filter(task -> permissions.sameTenant(task, user));
         if (taskToDelete.isPresent()) {
             Task task = taskToDelete.get();
 
             // Instead of deleting, we'll archive the task
+            Counted before = Counted.of(task);
             task.setArchived(true);
-            taskRepository.save(task);
+            Optional<Board> board = permissions.board(task.getBoardId());
+            countedWrite(board, before, Counted.of(task), () -> taskRepository.save(task));
+            afterTaskWrite(task, null);
 
             // Create notification before archiving
             notificationService.deleteTaskNotification(task, user);
@@ -160,22 +357,43 @@ public class TaskService {
     }
 
     // Add new method to get archived tasks
+    // Recently archived tasks may not have been moved to tasks_archive yet - those come first
     public List<Task> getArchivedTasks(User user) {
-        if ("ADMIN".equals(user.getRole())) {
-            return taskRepository.findByIsArchived(true);
+        List<Task> archived = new ArrayList<>();
+        if (user.isAdmin()) {
+            archived.addAll(taskRepository.findByTenantIdAndIsArchived(user.getTenantId(), true));
+            archived.addAll(archivedTaskRepository.findByTenantIdOrderByArchivedAtDesc(user.getTenantId()));
+            return archived;
         }
         // Regular users can only see their own archived tasks
-        return taskRepository.findByAssignedToAndIsArchived(user.getUsername(), true);
+        archived.addAll(taskRepository.findByTenantIdAndAssignedToAndIsArchived(user.getTenantId(), user.getUsername(), true));
+        archived.addAll(archivedTaskRepository.findByTenantIdAndAssignedToOrderByArchivedAtDesc(user.getTenantId(), user.getUsername()));
+        return archived;
     }
 
     // Add new method to restore archived tasks
     // In TaskService.java
     public Task restoreTask(String id, User user) {
-        Optional<Task> taskOptional = taskRepository.findById(id);
+        Optional<Task> taskOptional = permissions.task(id);
+        // Not in tasks any more: it was moved to tasks_archive
+        boolean fromArchive = !taskOptional.isPresent();
+        if (fromArchive) {
+            taskOptional = archivedTaskRepository.findById(id).map(ArchivedTask::toTask);
+        }
+        taskOptional = taskOptional.filter(task -> permissions.sameTenant(task, user));
         if (taskOptional.isPresent()) {
             Task task = taskOptional.get();
+            Counted before = Counted.of(task);
             task.setArchived(false);
-            Task restoredTask = taskRepository.save(task);
+            // Its old place in the column may have been taken in the meantime
+            task.setRank(rankAtEnd(task.getBoardId(), task.getStatus()));
+            // Back in its column, so it counts against the WIP limit again
+            Optional<Board> board = permissions.board(task.getBoardId());
+            Task restoredTask = countedWrite(board, before, Counted.of(task), () -> taskRepository.save(task));
+            if (fromArchive) {
+                archivedTaskRepository.deleteById(id);
+            }
+            afterTaskWrite(restoredTask, null);
 
             // Add notification for task restoration
             notificationService.restoreTaskNotification(restoredTask, user);
@@ -185,82 +403,191 @@ public class TaskService {
         throw new RuntimeException("Task not found");
     }
 
-    // Enhanced access control for tasks
-    public boolean canAccessTask(Task task, User user) {
-        if ("ADMIN".equals(user.getRole())) {
-            return true;
+    // Cascade for deleted boards (run by ClusterJobs on one instance): archive the tasks they left behind
+    public int archiveTasksOfDeletedBoards() {
+        List<String> boardIds = taskRepository.findActiveBoardIds();
+        Set<String> existing = boardRepository.findWithFields(Query.query(Criteria.where("id").in(boardIds)), List.of("id"))
+                .stream()
+                .map(Board::getId)
+                .collect(Collectors.toSet());
+
+        int archived = 0;
+        for (String boardId : boardIds) {
+            if (existing.contains(boardId)) {
+                continue;
+            }
+            int archivedOfBoard = 0;
+            String tenantId = null;
+            for (Task task : taskRepository.findByBoardId(boardId)) {
+                if (!task.isArchived()) {
+                    task.setArchived(true);
+                    taskRepository.save(task);
+                    afterTaskWrite(task, null);
+                    tenantId = Tenants.orDefault(task.getTenantId());
+                    archivedOfBoard++;
+                }
+            }
+            // They left the tenant's task quota along with their board
+            if (archivedOfBoard > 0) {
+                tenants.releaseTasks(tenantId, archivedOfBoard);
+            }
+            archived += archivedOfBoard;
         }
+        return archived;
+    }
 
-        // User can access if they created the task (admin only creates)
-        if (task.getCreatedBy().equals(user.getUsername())) {
-            return true;
+    // Background job (run by ClusterJobs on one instance): move archived tasks from tasks to tasks_archive
+    // in batches, keeping the active working set (board reads, caches, indexes) down to live tasks
+    public int moveArchivedTasks() {
+        int moved = 0;
+        Set<String> boardIds = new HashSet<>();
+        List<Task> batch;
+        do {
+            batch = taskRepository.findArchived(archiveBatchSize);
+            moved += taskRepository.moveToArchive(batch);
+            batch.forEach(task -> boardIds.add(task.getBoardId()));
+        } while (batch.size() == archiveBatchSize);
+
+        // Board task lists no longer include them
+        if (moved > 0) {
+            boardIds.forEach(hotBoardCache::evictTasks);
+            collectionVersions.touchAll(CollectionVersionService.TASKS);
         }
+        return moved;
+    }
 
-        // User can access if task is assigned to them
-        if (task.getAssignedTo() != null && task.getAssignedTo().equals(user.getUsername())) {
-            return true;
+    // Background job (run by ClusterJobs on one instance): re-spread the ranks of columns that have
+    // unranked tasks (created before ranks existed, or imported without) or ranks grown too long
+    public int rebalanceRanks() {
+        int rebalancedColumns = 0;
+        for (Map.Entry<String, Set<String>> board : taskRepository.findColumnsToRebalance(maxRankLength).entrySet()) {
+            List<Task> rebalanced = new ArrayList<>();
+            for (String status : board.getValue()) {
+                List<Task> tasks = new ArrayList<>(
+                        taskRepository.findByBoardIdAndStatusAndIsArchivedOrderByRankAsc(board.getKey(), status, false));
+                // Unranked tasks go below the ranked ones, oldest first
+                tasks.sort(Comparator.comparing(Task::getRank, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                        .thenComparing(Task::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder())));
+
+                // A task moved while this runs keeps the rank from its move
+                String[] ranks = Ranks.spread(tasks.size());
+                taskRepository.updateRanks(tasks, ranks);
+                for (int i = 0; i < tasks.size(); i++) {
+                    tasks.get(i).setRank(ranks[i]);
+                }
+                rebalanced.addAll(tasks);
+                rebalancedColumns++;
+            }
+            hotBoardCache.evictTasks(board.getKey());
+            taskEventService.recordTasks(rebalanced);
         }
+        if (rebalancedColumns > 0) {
+            collectionVersions.touchAll(CollectionVersionService.TASKS);
+        }
+        return rebalancedColumns;
+    }
+
+    // Runs the write with the board's counts following the task (null = no task);
+    // entering a column at its WIP limit fails with WipLimitExceededException before anything is written
+    private <T> T countedWrite(Optional<Board> board, Counted before, Counted after, Supplier<T> write) {
+        return board.isPresent() ? boardCounts.countedWrite(board.get(), before, after, write) : write.get();
+    }
 
-        // User can access if they own the board where this task exists (admin only owns boards)
-        Optional<Board> board = boardRepository.findById(task.getBoardId());
-        if (board.isPresent() && board.get().getCreatedBy().equals(user.getUsername())) {
-            return true;
+    // The reads a task update needs before its save: the rank at the end of a new column, and the board of a
+    // counted change. They are independent, so the rank is read alongside; the board stays on the request
+    // thread, where PermissionService memoizes it (the @PreAuthorize check usually loaded it already)
+    private Optional<Board> readBeforeWrite(Task task, boolean statusChanged, boolean counted) {
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<String> rank = statusChanged ? scope.fork(() -> rankAtEnd(task.getBoardId(), task.getStatus())) : null;
+            Optional<Board> board = counted ? permissions.board(task.getBoardId()) : Optional.empty();
+            scope.join();
+            if (statusChanged) {
+                task.setStatusChangedAt(LocalDateTime.now());
+                task.setRank(rank.get());
+            }
+            return board;
         }
+    }
 
-        return false;
+    private String rankAtEnd(String boardId, String status) {
+        return Ranks.between(taskRepository.findLastRank(boardId, status), null);
     }
 
-    public boolean canModifyTask(String taskId, User user) {
-        if ("ADMIN".equals(user.getRole())) {
-            return true; // Admin can modify any task
+    private String rankBetween(String boardId, String status, String afterTaskId, String beforeTaskId) {
+        if (afterTaskId == null && beforeTaskId == null) {
+            return rankAtEnd(boardId, status);
+        }
+        Optional<String> after = afterTaskId != null ? neighbourRank(afterTaskId, boardId, status) : Optional.empty();
+        Optional<String> before = beforeTaskId != null ? neighbourRank(beforeTaskId, boardId, status) : Optional.empty();
+        if ((afterTaskId != null && after.isEmpty()) || (beforeTaskId != null && before.isEmpty())) {
+            // An unranked neighbour gives nothing to place against; the rebalancing job will rank the column
+            return rankAtEnd(boardId, status);
         }
 
-        Optional<Task> task = taskRepository.findById(taskId);
-        if (!task.isPresent()) {
-            return false;
+        String lower = after.orElse(null);
+        String upper = before.orElse(null);
+        if (upper == null || (lower != null && lower.compareTo(upper) >= 0)) {
+            // Bottom of the column, a stale client view or two tied ranks: go right below the lower neighbour
+            upper = taskRepository.findNextRank(boardId, status, lower);
         }
+        return Ranks.between(lower, upper);
+    }
 
-        // Regular users can only modify (update status) tasks assigned to them
-        return task.get().getAssignedTo() != null && task.get().getAssignedTo().equals(user.getUsername());
+    private Optional<String> neighbourRank(String taskId, String boardId, String status) {
+        Task neighbour = permissions.task(taskId)
+                .filter(task -> boardId.equals(task.getBoardId()) && status.equals(task.getStatus()) && !task.isArchived())
+                .orElseThrow(() -> new RuntimeException("Neighbour task not in the target column"));
+        return Optional.ofNullable(neighbour.getRank());
+    }
+
+    // Keep state derived from tasks (conditional GET versions, board metrics, hot cache, change log) in step with a write
+    private void afterTaskWrite(Task task, String previousAssignee) {
+        // Bump the task versions of everyone whose view includes this task
+        List<String> audience = new ArrayList<>(memberships.seeingAllTasks(task.getBoardId()));
+        audience.add(task.getAssignedTo());
+        audience.add(previousAssignee);
+        audience.add(task.getCreatedBy());
+        collectionVersions.touch(CollectionVersionService.TASKS, audience.toArray(new String[0]));
+        boardMetricsService.invalidate(task.getBoardId());
+        hotBoardCache.putTask(task);
+        taskEventService.recordTask(task, previousAssignee);
+    }
+
+    // Access rules live in PermissionService; these delegates keep the service API stable
+    public boolean canAccessTask(Task task, User user) {
+        return permissions.canAccessTask(task, user);
+    }
+
+    public boolean canModifyTask(String taskId, User user) {
+        return permissions.canModifyTask(taskId, user);
+    }
+
+    public boolean canModifyTask(Task task, User user) {
+        return permissions.canModifyTask(task, user);
     }
 
     // Check if user can create tasks in a specific board
     public boolean canCreateTaskInBoard(String boardId, User user) {
         // Only admin can create tasks
-        return "ADMIN".equals(user.getRole());
+        return user.isAdmin();
     }
 
-    // Get all boards that are accessible to the user (including those with assigned tasks)
+    // Get all boards that are accessible to the user (owned, shared with them, or with tasks assigned to them)
     public List<Board> getAccessibleBoards(User user) {
-        if ("ADMIN".equals(user.getRole())) {
-            return boardRepository.findAll();
-        }
-
-        // Get boards where user has assigned tasks
-        List<Task> assignedTasks = taskRepository.findByAssignedTo(user.getUsername());
-        List<String> boardIdsWithAssignedTasks = assignedTasks.stream()
-                .map(Task::getBoardId)
-                .distinct()
-                .collect(Collectors.toList());
-
-        // Return boards where user has assigned tasks
-        return boardRepository.findAllById(boardIdsWithAssignedTasks);
+        // For non-admins the user's memberships name the boards - no need to go through their tasks
+        return boardRepository.findWithCounts(boardService.accessible(user), List.of());
     }
 
+    // Same as getAccessibleBoards, but only reads the selected board fields
+    public List<Board> getAccessibleBoards(User user, FieldSelection selection) {
+        Criteria accessible = boardService.accessible(user);
+        return selection.getDocumentFields().contains("counts")
+                ? boardRepository.findWithCounts(accessible, selection.getDocumentFields())
+                : boardRepository.findWithFields(Query.query(accessible), selection.getDocumentFields());
+    }
 
-
-    // Check if user can update task status (for drag and drop)
+    // Check if user can update task status (for drag and drop) - same rule as canModifyTask
     public boolean canUpdateTaskStatus(String taskId, User user) {
-        if ("ADMIN".equals(user.getRole())) {
-            return true;
-        }
-
-        Optional<Task> task = taskRepository.findById(taskId);
-        if (!task.isPresent()) {
-            return false;
-        }
-
-        // Regular users can update status only for tasks assigned to them
-        return task.get().getAssignedTo() != null && task.get().getAssignedTo().equals(user.getUsername());
+        return permissions.canModifyTask(taskId, user);
     }
-}
\ No newline at end of file
+}
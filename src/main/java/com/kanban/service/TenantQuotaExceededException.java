@@ -0,0 +1,22 @@
+package com.kanban.service;
+
+// A tenant can't go past its quota of boards or active tasks
+public class TenantQuotaExceededException extends RuntimeException {
+
+    private final String tenantId;
+    private final String quota;
+    private final long limit;
+
+    public TenantQuotaExceededException(String tenantId, String quota, long limit) {
+        super("Tenant " + tenantId + " has reached its quota of " + limit + " " + quota);
+        this.tenantId = tenantId;
+        this.quota = quota;
+        this.limit = limit;
+    }
+
+    public String getTenantId() { return tenantId; }
+
+    public String getQuota() { return quota; }
+
+    public long getLimit() { return limit; }
+}
@@ -0,0 +1,164 @@
+package com.kanban.service;
+
+import com.kanban.model.TenantCounts;
+import com.kanban.model.Tenants;
+import com.kanban.repository.TenantCountsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-tenant quotas and meters. Quotas default to kanban.tenant.max-boards,
+ * max-tasks and requests-per-second (0 = unlimited), and can be set per tenant
+ * under kanban.tenant.quotas.&lt;tenant&gt;.*. Boards and active tasks are
+ * counted in tenant_counts: a write that adds one reserves it first with a
+ * conditional $inc, so concurrent writes can't both take the last slot, and
+ * gives it back if the write fails. The request rate is enforced by
+ * RateLimitInterceptor with a bucket per tenant.
+ *
+ * Meters are tagged with the tenant: kanban.tenant.requests (timer, also
+ * tagged with the outcome), kanban.tenant.throttled,
+ * kanban.tenant.quota.rejected and the kanban.tenant.boards / tasks gauges.
+ */
+@Service
+public class TenantService {
+
+    @Autowired
+    TenantCountsRepository tenantCountsRepository;
+
+    @Autowired
+    Environment environment;
+
+    // Absent in plain unit tests
+    @Autowired(required = false)
+    MeterRegistry meterRegistry;
+
+    @Value("${kanban.tenant.max-boards:0}")
+    long maxBoards = 0;
+
+    @Value("${kanban.tenant.max-tasks:0}")
+    long maxTasks = 0;
+
+    @Value("${kanban.tenant.requests-per-second:0}")
+    double requestsPerSecond = 0;
+
+    public record Quota(long maxBoards, long maxTasks, double requestsPerSecond) {}
+
+    private final Map<String, Quota> quotas = new ConcurrentHashMap<>();
+    // Last known counts, read by the gauges
+    private final Map<String, AtomicLong[]> counts = new ConcurrentHashMap<>();
+
+    public Quota quota(String tenantId) {
+        return quotas.computeIfAbsent(tenantId, tenant -> {
+            String prefix = "kanban.tenant.quotas." + tenant + ".";
+            return new Quota(
+                    environment.getProperty(prefix + "max-boards", Long.class, maxBoards),
+                    environment.getProperty(prefix + "max-tasks", Long.class, maxTasks),
+                    environment.getProperty(prefix + "requests-per-second", Double.class, requestsPerSecond));
+        });
+    }
+
+    // Take a board out of the tenant's quota; TenantQuotaExceededException when it is used up
+    public void reserveBoard(String tenantId) {
+        reserve(tenantId, TenantCounts.BOARDS_FIELD, 1, quota(tenantId).maxBoards());
+    }
+
+    public void releaseBoard(String tenantId) {
+        reserve(tenantId, TenantCounts.BOARDS_FIELD, -1, 0);
+    }
+
+    // Take active tasks out of the tenant's quota; TenantQuotaExceededException when they don't fit
+    public void reserveTasks(String tenantId, long count) {
+        reserve(tenantId, TenantCounts.TASKS_FIELD, count, quota(tenantId).maxTasks());
+    }
+
+    public void releaseTasks(String tenantId, long count) {
+        reserve(tenantId, TenantCounts.TASKS_FIELD, -count, 0);
+    }
+
+    public void requestCompleted(String tenantId, long nanos, int status) {
+        if (meterRegistry != null) {
+            Timer.builder("kanban.tenant.requests")
+                    .tag("tenant", tenantId)
+                    .tag("outcome", status >= 500 ? "error" : status >= 400 ? "rejected" : "ok")
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void requestThrottled(String tenantId) {
+        if (meterRegistry != null) {
+            Counter.builder("kanban.tenant.throttled").tag("tenant", tenantId).register(meterRegistry).increment();
+        }
+    }
+
+    // Background job (run by ClusterJobs on one instance): put documents from before tenants existed into the
+    // default tenant, then recount every tenant and fix the counts that drifted. Returns the number fixed.
+    public int reconcile() {
+        long assigned = tenantCountsRepository.assignMissingTenant(Tenants.DEFAULT);
+        if (assigned > 0) {
+            System.out.println("Assigned " + assigned + " documents to the default tenant");
+        }
+
+        Map<String, TenantCounts> actual = tenantCountsRepository.countAllTenants();
+        int fixed = 0;
+        for (TenantCounts stored : tenantCountsRepository.findAll()) {
+            TenantCounts recounted = actual.remove(stored.getId());
+            if (recounted == null) {
+                recounted = new TenantCounts(stored.getId(), 0, 0);
+            }
+            if (recounted.getBoards() != stored.getBoards() || recounted.getTasks() != stored.getTasks()) {
+                tenantCountsRepository.save(recounted);
+                fixed++;
+            }
+            updateGauges(recounted);
+        }
+        // Tenants with boards or tasks but no counts yet
+        for (TenantCounts recounted : actual.values()) {
+            tenantCountsRepository.save(recounted);
+            updateGauges(recounted);
+            fixed++;
+        }
+        return fixed;
+    }
+
+    // Releases (delta < 0) are never limited
+    private void reserve(String tenantId, String field, long delta, long limit) {
+        if (delta == 0) {
+            return;
+        }
+        TenantCounts counts = tenantCountsRepository.increment(tenantId, field, delta,
+                delta > 0 && limit > 0 ? limit : null);
+        if (counts == null) {
+            if (meterRegistry != null) {
+                Counter.builder("kanban.tenant.quota.rejected").tag("tenant", tenantId).tag("quota", field)
+                        .register(meterRegistry).increment();
+            }
+            throw new TenantQuotaExceededException(tenantId, field, limit);
+        }
+        updateGauges(counts);
+    }
+
+    private void updateGauges(TenantCounts tenant) {
+        AtomicLong[] gauges = counts.computeIfAbsent(tenant.getId(), tenantId -> {
+            AtomicLong[] values = {new AtomicLong(), new AtomicLong()};
+            if (meterRegistry != null) {
+                Gauge.builder("kanban.tenant.boards", values[0], AtomicLong::get).tag("tenant", tenantId).register(meterRegistry);
+                Gauge.builder("kanban.tenant.tasks", values[1], AtomicLong::get).tag("tenant", tenantId).register(meterRegistry);
+            }
+            return values;
+        });
+        gauges[0].set(tenant.getBoards());
+        gauges[1].set(tenant.getTasks());
+    }
+}
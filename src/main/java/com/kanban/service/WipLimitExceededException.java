@@ -0,0 +1,18 @@
+package com.kanban.service;
+
+// A task can't enter a column that already holds its WIP limit of active tasks
+public class WipLimitExceededException extends RuntimeException {
+
+    private final String column;
+    private final int limit;
+
+    public WipLimitExceededException(String column, int limit) {
+        super("WIP limit of " + limit + " reached in column " + column);
+        this.column = column;
+        this.limit = limit;
+    }
+
+    public String getColumn() { return column; }
+
+    public int getLimit() { return limit; }
+}
@@ -0,0 +1,19 @@
+package com.kanban.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET handler whose response only depends on the caller's view of the
+ * listed collections, so {@link ConditionalGetInterceptor} can answer
+ * If-None-Match / If-Modified-Since before the handler runs.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+
+    // Collection names from CollectionVersionService
+    String[] value();
+}
@@ -0,0 +1,50 @@
+package com.kanban.web;
+
+import com.kanban.model.User;
+import com.kanban.service.CollectionVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    // Clients may reuse a response but must revalidate it first; never shared between users
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    @Autowired
+    private CollectionVersionService collectionVersions;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+
+        ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        User user = CurrentUser.of(request);
+        if (conditionalGet == null || user == null) {
+            return true;
+        }
+
+        // Validators are taken before the handler reads, so a concurrent write can only make them stale-early
+        String[] collections = conditionalGet.value();
+        String variant = request.getRequestURI() + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        String etag = collectionVersions.etag(user, variant, collections);
+        long lastModified = collectionVersions.lastModified(user, collections);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+
+        // Sets ETag/Last-Modified and, when the client's copy is current, a 304 with no body
+        return !new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+    }
+}
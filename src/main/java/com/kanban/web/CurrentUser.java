@@ -0,0 +1,25 @@
+package com.kanban.web;
+
+import com.kanban.model.User;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+// The authenticated caller as the interceptors see it: from the security context, or from the request's
+// principal when there is none (outside the security filter chain)
+final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    static User of(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null && request.getUserPrincipal() instanceof Authentication principal) {
+            authentication = principal;
+        }
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        return null;
+    }
+}
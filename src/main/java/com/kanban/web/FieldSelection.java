@@ -0,0 +1,110 @@
+package com.kanban.web;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed {@code ?fields=} parameter. The same selection drives the Mongo
+ * projection (document field names) and the Jackson filter (JSON property
+ * names), so a field that isn't read is never written either.
+ */
+public final class FieldSelection {
+
+    // Filter id applied to the models through a mixin - see JacksonConfig
+    public static final String FILTER_ID = "fieldSelection";
+
+    private static final FieldSelection ALL = new FieldSelection(Set.of(), Set.of(), Set.of());
+
+    // JSON property name -> document field name, per model class
+    private static final Map<Class<?>, Map<String, String>> PROPERTIES = new ConcurrentHashMap<>();
+
+    private final Set<String> jsonNames;
+    private final Set<String> documentFields;
+    private final Set<String> unknown;
+
+    private FieldSelection(Set<String> jsonNames, Set<String> documentFields, Set<String> unknown) {
+        this.jsonNames = jsonNames;
+        this.documentFields = documentFields;
+        this.unknown = unknown;
+    }
+
+    public static FieldSelection all() {
+        return ALL;
+    }
+
+    public static FieldSelection parse(String fields, Class<?> type) {
+        if (!StringUtils.hasText(fields)) {
+            return ALL;
+        }
+
+        Map<String, String> properties = PROPERTIES.computeIfAbsent(type, FieldSelection::propertiesOf);
+        Set<String> jsonNames = new LinkedHashSet<>(List.of("id"));
+        Set<String> documentFields = new LinkedHashSet<>(List.of("id"));
+        Set<String> unknown = new LinkedHashSet<>();
+
+        for (String name : StringUtils.commaDelimitedListToSet(fields)) {
+            String trimmed = name.trim();
+            String documentField = properties.get(trimmed);
+            if (documentField == null) {
+                unknown.add(trimmed);
+            } else {
+                jsonNames.add(trimmed);
+                documentFields.add(documentField);
+            }
+        }
+        return new FieldSelection(jsonNames, documentFields, unknown);
+    }
+
+    public boolean isAll() {
+        return documentFields.isEmpty();
+    }
+
+    public boolean isValid() {
+        return unknown.isEmpty();
+    }
+
+    // Property names for the Mongo projection
+    public Set<String> getDocumentFields() {
+        return documentFields;
+    }
+
+    public FilterProvider filters() {
+        SimpleBeanPropertyFilter filter = isAll()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(jsonNames);
+        return new SimpleFilterProvider().addFilter(FILTER_ID, filter);
+    }
+
+    // Wrap a response body so the message converter applies the selection
+    public MappingJacksonValue wrap(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(filters());
+        return value;
+    }
+
+    // Boolean "isX" fields are exposed by Jackson as "x" through their isX() getter
+    private static Map<String, String> propertiesOf(Class<?> type) {
+        Map<String, String> properties = new HashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            String name = field.getName();
+            if (field.getType() == boolean.class && name.length() > 2 && name.startsWith("is")
+                    && Character.isUpperCase(name.charAt(2))) {
+                properties.put(Character.toLowerCase(name.charAt(2)) + name.substring(3), name);
+            } else {
+                properties.put(name, name);
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,60 @@
+package com.kanban.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes large result sets as a JSON array (or NDJSON) straight from a Mongo
+ * cursor, one element at a time, so heap use per request does not grow with
+ * the result.
+ */
+@Component
+public class JsonStreams {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Writes the items to the response and closes the stream (and its cursor) however the write ends
+    public <T> void writeArray(HttpServletResponse response, Stream<T> items, FieldSelection selection) throws IOException {
+        // Let the generator's buffer decide when to flush instead of flushing per element
+        ObjectWriter writer = objectMapper.writer(selection.filters()).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (items; JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            Iterator<T> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    // Same, one JSON document per line (application/x-ndjson)
+    public <T> void writeLines(HttpServletResponse response, Stream<T> items) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (items; JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are terminated explicitly instead of separated by the default root value space
+            generator.setRootValueSeparator(null);
+            Iterator<T> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
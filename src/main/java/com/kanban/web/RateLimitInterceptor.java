@@ -0,0 +1,106 @@
+package com.kanban.web;
+
+import com.kanban.model.User;
+import com.kanban.service.TenantService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+// Rejects a caller over its bucket for the route, or whose tenant is over its requests-per-second quota,
+// with 429 and Retry-After before the handler touches Mongo. Also times every request into the per-tenant meters.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".STARTED";
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private TenantService tenants;
+
+    @Value("${kanban.rate-limit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${kanban.rate-limit.default-capacity:120}")
+    private int defaultCapacity = 120;
+
+    @Value("${kanban.rate-limit.default-refill-per-second:20}")
+    private double defaultRefillPerSecond = 20;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        User user = CurrentUser.of(request);
+        if (user == null) {
+            return true;
+        }
+        long startedAt = System.nanoTime();
+        if (!enabled) {
+            request.setAttribute(STARTED_ATTRIBUTE, startedAt);
+            return true;
+        }
+
+        // Keyed by the route pattern, so /tasks/1 and /tasks/2 share a bucket; usernames are only unique per tenant
+        String tenantId = user.getTenantId();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String key = tenantId + "/" + user.getUsername() + " " + request.getMethod() + " "
+                + (pattern != null ? pattern : request.getRequestURI());
+
+        // The caller's own bucket first: a client stuck over its limit must not use up its tenant's budget
+        // with requests that only get a 429
+        RateLimited limit = handlerMethod.getMethodAnnotation(RateLimited.class);
+        long waitNanos = limit != null
+                ? rateLimiter.tryAcquire(key, limit.capacity(), limit.refillPerSecond())
+                : rateLimiter.tryAcquire(key, defaultCapacity, defaultRefillPerSecond);
+        if (waitNanos != 0) {
+            return reject(response, waitNanos, tenantId, startedAt);
+        }
+
+        // Then the tenant's, so a noisy tenant is held back however many of its users it spreads over
+        double tenantRate = tenants.quota(tenantId).requestsPerSecond();
+        if (tenantRate > 0) {
+            waitNanos = rateLimiter.tryAcquire("tenant:" + tenantId, (int) Math.ceil(tenantRate), tenantRate);
+            if (waitNanos != 0) {
+                // Not the caller's doing, so their own token is given back
+                rateLimiter.release(key);
+                tenants.requestThrottled(tenantId);
+                return reject(response, waitNanos, tenantId, startedAt);
+            }
+        }
+
+        request.setAttribute(STARTED_ATTRIBUTE, startedAt);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(STARTED_ATTRIBUTE) instanceof Long startedAt) {
+            User user = CurrentUser.of(request);
+            if (user != null) {
+                tenants.requestCompleted(user.getTenantId(), System.nanoTime() - startedAt, response.getStatus());
+            }
+        }
+    }
+
+    private boolean reject(HttpServletResponse response, long waitNanos, String tenantId, long startedAt) {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        tenants.requestCompleted(tenantId, System.nanoTime() - startedAt, response.getStatus());
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package com.kanban.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Per-route token bucket for a handler, applied per user by
+ * {@link RateLimitInterceptor}: a caller may burst up to capacity requests,
+ * after which requests are admitted at refillPerSecond. Handlers without it
+ * get the kanban.rate-limit.default-* bucket.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    int capacity();
+
+    double refillPerSecond();
+}
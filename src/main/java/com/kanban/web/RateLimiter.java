@@ -0,0 +1,156 @@
+package com.kanban.web;
+
+import com.kanban.cluster.ClusterBus;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets keyed by caller and route. Each bucket is a single AtomicLong
+ * holding the time at which it will be full again (the GCRA form of a token
+ * bucket), so admitting a request is one compare-and-set with no locks.
+ *
+ * In distributed mode (kanban.rate-limit.distributed, needs the cluster bus)
+ * every instance broadcasts how many tokens each key consumed since the last
+ * sync, and the other instances take the same number out of their own bucket.
+ * Buckets therefore converge to the cluster-wide rate, lagging by at most one
+ * sync interval.
+ */
+@Component
+public class RateLimiter {
+
+    private static final String TOPIC = "ratelimit";
+
+    @Value("${kanban.rate-limit.distributed:false}")
+    boolean distributed;
+
+    @Autowired(required = false)
+    ClusterBus clusterBus;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    // Tokens taken locally since the last broadcast
+    private final Map<String, LongAdder> unsynced = new ConcurrentHashMap<>();
+
+    static final class Bucket {
+        final int capacity;
+        final long intervalNanos; // time to refill one token
+        final AtomicLong fullAt;
+
+        Bucket(int capacity, double refillPerSecond, long now) {
+            this.capacity = capacity;
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.fullAt = new AtomicLong(now);
+        }
+
+        // 0 when a token was taken, otherwise the nanos until one is available
+        long tryTake(long now) {
+            long burst = capacity * intervalNanos;
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                if (next - now > burst) {
+                    return next - now - burst;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        // A token taken by tryTake goes back; never past full
+        void giveBack(long now) {
+            fullAt.accumulateAndGet(intervalNanos, (current, interval) -> Math.max(current - interval, now));
+        }
+
+        // Tokens taken on another instance; never refused, at worst the bucket runs one burst into debt
+        void drain(long tokens, long now) {
+            long max = now + 2 * capacity * intervalNanos;
+            fullAt.accumulateAndGet(tokens * intervalNanos,
+                    (current, added) -> Math.min(Math.max(current, now) + added, max));
+        }
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (distributed && clusterBus != null) {
+            clusterBus.subscribe(TOPIC, this::applyRemote);
+        }
+    }
+
+    // 0 when the request may proceed, otherwise the nanos the caller has to wait
+    public long tryAcquire(String key, int capacity, double refillPerSecond) {
+        long now = System.nanoTime();
+        long wait = buckets.computeIfAbsent(key, k -> new Bucket(capacity, refillPerSecond, now)).tryTake(now);
+        if (wait == 0 && distributed) {
+            unsynced.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+        return wait;
+    }
+
+    // Returns the token tryAcquire took for a request that was then turned away for another reason
+    public void release(String key) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        bucket.giveBack(System.nanoTime());
+        if (distributed) {
+            // Already broadcast if this goes negative; the sync only sends positive counts
+            unsynced.computeIfAbsent(key, k -> new LongAdder()).decrement();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${kanban.rate-limit.sync-millis:1000}")
+    public void sync() {
+        if (!distributed || clusterBus == null || unsynced.isEmpty()) {
+            return;
+        }
+        // One line per key: key, tokens, capacity, refill interval - receivers may not have the bucket yet
+        StringBuilder payload = new StringBuilder();
+        for (Map.Entry<String, LongAdder> entry : unsynced.entrySet()) {
+            long tokens = entry.getValue().sumThenReset();
+            Bucket bucket = buckets.get(entry.getKey());
+            if (tokens > 0 && bucket != null) {
+                payload.append(entry.getKey()).append('\t').append(tokens).append('\t')
+                        .append(bucket.capacity).append('\t').append(bucket.intervalNanos).append('\n');
+            }
+        }
+        unsynced.values().removeIf(adder -> adder.sum() == 0);
+        if (payload.length() > 0) {
+            clusterBus.publish(TOPIC, payload.toString());
+        }
+    }
+
+    // Full buckets hold no information, drop them so the map only tracks active callers
+    @Scheduled(fixedDelayString = "${kanban.rate-limit.cleanup-millis:60000}")
+    public void removeFullBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.fullAt.get() - now <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    void applyRemote(String payload) {
+        long now = System.nanoTime();
+        for (String line : payload.split("\n")) {
+            String[] fields = line.split("\t");
+            if (fields.length != 4) {
+                continue;
+            }
+            int capacity = Integer.parseInt(fields[2]);
+            double refillPerSecond = TimeUnit.SECONDS.toNanos(1) / (double) Long.parseLong(fields[3]);
+            buckets.computeIfAbsent(fields[0], k -> new Bucket(capacity, refillPerSecond, now))
+                    .drain(Long.parseLong(fields[1]), now);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.kanban.web;
+
+import com.kanban.model.User;
+import com.kanban.service.CollectionVersionService;
+import com.kanban.service.ReadRouting;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets the GET handlers marked {@link SecondaryReads} read from secondaries
+ * (see {@link ReadRouting}), unless the caller could see their own writes
+ * missing there. A caller stays on the primary for read-your-writes-millis when
+ * - the request carries a recent-write mark. Every write request that reaches a
+ *   handler gets one back, both as the X-Recent-Write-Until header (when the
+ *   window ends, in epoch millis) and as a cookie with the same value. A client
+ *   that keeps cookies needs to do nothing; a bearer-token client that drops
+ *   them should send the header's last value back on its reads. The mark
+ *   travels with the client, so this holds whichever instance the next read
+ *   lands on. It is set before the handler runs, while the response can still
+ *   take headers, so a write that then fails marks the caller too - which only
+ *   keeps their reads on the primary for the window;
+ * - their view of the handler's {@link ConditionalGet} collections changed in
+ *   that window, which covers writes by others that they were told about, and
+ *   their own writes for a client that sends no mark. It also keeps a fresh
+ *   ETag off a body read from a secondary that is behind it.
+ * The window has to exceed the replication lag; secondaries further behind than
+ * max-staleness-seconds aren't read at all.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReadRoutingInterceptor implements AsyncHandlerInterceptor {
+
+    static final String RECENT_WRITE_COOKIE = "kanban_recent_write";
+    static final String RECENT_WRITE_HEADER = "X-Recent-Write-Until";
+
+    @Autowired
+    private CollectionVersionService collectionVersions;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${kanban.mongo.secondary-reads.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${kanban.mongo.secondary-reads.read-your-writes-millis:10000}")
+    private long readYourWritesMillis = 10000;
+
+    // 0 = no limit, otherwise at least 90 (the driver's minimum)
+    @Value("${kanban.mongo.secondary-reads.max-staleness-seconds:90}")
+    private long maxStalenessSeconds = 90;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Pooled threads may still hold the preference of a request whose completion callbacks never ran
+        ReadRouting.clear();
+        if (!enabled || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method)) {
+            // Set before the write runs, while the response can still take headers
+            markRecentWrite(request, response);
+            return true;
+        }
+        if (!handlerMethod.hasMethodAnnotation(SecondaryReads.class)) {
+            return true;
+        }
+
+        boolean secondary = !recentlyWritten(request, handlerMethod);
+        if (secondary) {
+            ReadRouting.set(maxStalenessSeconds > 0
+                    ? ReadPreference.secondaryPreferred(maxStalenessSeconds, TimeUnit.SECONDS)
+                    : ReadPreference.secondaryPreferred());
+        }
+        if (meterRegistry != null) {
+            meterRegistry.counter("kanban.reads.routed", "to", secondary ? "secondary" : "primary").increment();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadRouting.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadRouting.clear();
+    }
+
+    private boolean recentlyWritten(HttpServletRequest request, HandlerMethod handlerMethod) {
+        long now = System.currentTimeMillis();
+        // The mark's value is when the window ends; checked for the cookie too, in case a client ignores Max-Age
+        if (until(request.getHeader(RECENT_WRITE_HEADER)) > now) {
+            return true;
+        }
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (RECENT_WRITE_COOKIE.equals(cookie.getName()) && until(cookie.getValue()) > now) {
+                    return true;
+                }
+            }
+        }
+        ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        User user = CurrentUser.of(request);
+        return conditionalGet != null && user != null
+                && collectionVersions.lastModified(user, conditionalGet.value()) > now - readYourWritesMillis;
+    }
+
+    private void markRecentWrite(HttpServletRequest request, HttpServletResponse response) {
+        String until = Long.toString(System.currentTimeMillis() + readYourWritesMillis);
+        response.setHeader(RECENT_WRITE_HEADER, until);
+        Cookie cookie = new Cookie(RECENT_WRITE_COOKIE, until);
+        cookie.setMaxAge((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(readYourWritesMillis + 999)));
+        cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+        cookie.setHttpOnly(true);
+        response.addCookie(cookie);
+    }
+
+    private static long until(String mark) {
+        if (mark == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(mark.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
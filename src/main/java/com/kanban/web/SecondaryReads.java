@@ -0,0 +1,17 @@
+package com.kanban.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET handler that may read from a secondary (secondaryPreferred)
+ * instead of the primary. {@link ReadRoutingInterceptor} keeps a caller on the
+ * primary for a while after they, or a write they can see, changed the data,
+ * so nobody reads their own writes stale.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SecondaryReads {
+}
@@ -0,0 +1,142 @@
+package com.kanban.cluster;
+
+import com.kanban.model.ClusterLease;
+import com.kanban.model.ClusterMember;
+import com.kanban.model.ClusterMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Several "instances" (separate membership/election/bus objects) sharing one local Mongo
+@DataMongoTest
+public class ClusterCoordinationTests {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final List<ClusterBus> buses = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        mongoTemplate.dropCollection(ClusterMember.class);
+        mongoTemplate.dropCollection(ClusterLease.class);
+        mongoTemplate.dropCollection(ClusterMessage.class);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        buses.forEach(ClusterBus::stop);
+        mongoTemplate.dropCollection(ClusterMember.class);
+        mongoTemplate.dropCollection(ClusterLease.class);
+        mongoTemplate.dropCollection(ClusterMessage.class);
+    }
+
+    @Test
+    public void testMembersSeeEachOtherUntilTheyLeave() {
+        ClusterMembership first = member("node-1");
+        ClusterMembership second = member("node-2");
+
+        assertEquals(2, first.liveMembers().size());
+
+        second.leave();
+        assertEquals(List.of("node-1"), first.liveMembers().stream().map(ClusterMember::getId).toList());
+    }
+
+    @Test
+    public void testOnlyOneInstanceHoldsALease() {
+        List<LeaderElection> instances = List.of(election("node-1"), election("node-2"), election("node-3"));
+
+        long leaders = instances.stream().filter(e -> e.tryAcquire("job", Duration.ofMinutes(1))).count();
+
+        assertEquals(1, leaders);
+        // The holder renews, the others keep failing
+        assertTrue(instances.get(0).tryAcquire("job", Duration.ofMinutes(1)));
+        assertTrue(instances.get(0).isLeader("job"));
+        assertFalse(instances.get(1).tryAcquire("job", Duration.ofMinutes(1)));
+    }
+
+    @Test
+    public void testLeaseMovesOnWhenReleasedOrExpired() throws Exception {
+        LeaderElection first = election("node-1");
+        LeaderElection second = election("node-2");
+
+        assertTrue(first.tryAcquire("job", Duration.ofMinutes(1)));
+        first.release("job");
+        assertTrue(second.tryAcquire("job", Duration.ofMillis(50)));
+
+        // The second leader "dies": its lease runs out without a renewal
+        Thread.sleep(100);
+        assertTrue(first.tryAcquire("job", Duration.ofMinutes(1)));
+        assertFalse(second.isLeader("job"));
+    }
+
+    @Test
+    public void testHeldLeasesAreRenewedUntilReleased() throws Exception {
+        LeaderElection first = election("node-1");
+        LeaderElection second = election("node-2");
+
+        assertTrue(first.tryAcquire("job", Duration.ofMillis(200)));
+        Thread.sleep(150);
+        first.renewHeld();
+        // Past the first TTL, but the renewal moved it on
+        Thread.sleep(150);
+        assertFalse(second.tryAcquire("job", Duration.ofMinutes(1)));
+
+        first.release("job");
+        first.renewHeld();
+        assertTrue(second.tryAcquire("job", Duration.ofMinutes(1)));
+        assertFalse(first.isLeader("job"));
+    }
+
+    @Test
+    public void testBusDeliversToOtherInstancesOnly() throws Exception {
+        ClusterBus first = bus("node-1");
+        ClusterBus second = bus("node-2");
+        BlockingQueue<String> receivedByFirst = new LinkedBlockingQueue<>();
+        BlockingQueue<String> receivedBySecond = new LinkedBlockingQueue<>();
+        first.subscribe("test", receivedByFirst::add);
+        second.subscribe("test", receivedBySecond::add);
+
+        first.publish("test", "hello");
+
+        assertEquals("hello", receivedBySecond.poll(5, TimeUnit.SECONDS));
+        assertNull(receivedByFirst.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    private ClusterMembership member(String instanceId) {
+        ClusterMembership membership = new ClusterMembership();
+        membership.mongoTemplate = mongoTemplate;
+        membership.instanceId = instanceId;
+        membership.join();
+        return membership;
+    }
+
+    private LeaderElection election(String instanceId) {
+        LeaderElection election = new LeaderElection();
+        election.mongoTemplate = mongoTemplate;
+        election.membership = member(instanceId);
+        return election;
+    }
+
+    private ClusterBus bus(String instanceId) {
+        ClusterBus bus = new ClusterBus();
+        bus.mongoTemplate = mongoTemplate;
+        bus.membership = member(instanceId);
+        bus.busSizeBytes = 1024 * 1024;
+        bus.start();
+        buses.add(bus);
+        return bus;
+    }
+}
@@ -0,0 +1,111 @@
+package com.kanban.config;
+
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadConcern;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoAction;
+import org.springframework.data.mongodb.core.MongoActionOperation;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MongoConfigTest {
+
+    @Test
+    public void testCompressorsKeepTheirOrder() {
+        List<MongoCompressor> compressors = MongoConfig.compressors("zstd, snappy");
+
+        assertEquals(List.of("zstd", "snappy"), compressors.stream().map(MongoCompressor::getName).toList());
+        assertTrue(MongoConfig.compressors("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> MongoConfig.compressors("lz4"));
+    }
+
+    @Test
+    public void testConcernsByName() {
+        assertEquals(WriteConcern.MAJORITY, MongoConfig.writeConcern("majority"));
+        assertEquals(WriteConcern.UNACKNOWLEDGED, MongoConfig.writeConcern("unacknowledged"));
+        assertEquals(ReadConcern.LOCAL, MongoConfig.readConcern("local"));
+        assertThrows(IllegalArgumentException.class, () -> MongoConfig.writeConcern("quorum"));
+    }
+
+    @Test
+    public void testWriteConcernsPerOperation() {
+        MongoConfig config = new MongoConfig();
+        config.environment = new MockEnvironment()
+                .withProperty("kanban.mongo.write-concern.insert-list", "w1")
+                .withProperty("kanban.mongo.write-concern.remove", "majority");
+
+        Map<MongoActionOperation, WriteConcern> writeConcerns = config.operationWriteConcerns();
+
+        assertEquals(Map.of(MongoActionOperation.INSERT_LIST, WriteConcern.W1, MongoActionOperation.REMOVE, WriteConcern.MAJORITY),
+                writeConcerns);
+        assertEquals(WriteConcern.W1, MongoConfig.resolve(Map.of(), writeConcerns, action("tasks", MongoActionOperation.INSERT_LIST)));
+        // Operations without one of their own keep the default
+        assertEquals(WriteConcern.ACKNOWLEDGED, MongoConfig.resolve(Map.of(), writeConcerns, action("tasks", MongoActionOperation.UPDATE)));
+    }
+
+    @Test
+    public void testCollectionWriteConcernsComeFirst() {
+        MongoConfig config = new MongoConfig();
+        config.environment = new MockEnvironment()
+                .withProperty("kanban.mongo.write-concern.collections.notifications", "w1")
+                .withProperty("kanban.mongo.write-concern.collections.tasks", "majority")
+                .withProperty("kanban.mongo.write-concern.remove", "unacknowledged");
+
+        Map<String, WriteConcern> collections = config.collectionWriteConcerns(List.of("notifications", "tasks", "boards"));
+        Map<MongoActionOperation, WriteConcern> operations = config.operationWriteConcerns();
+
+        assertEquals(Map.of("notifications", WriteConcern.W1, "tasks", WriteConcern.MAJORITY), collections);
+        assertEquals(WriteConcern.MAJORITY, MongoConfig.resolve(collections, operations, action("tasks", MongoActionOperation.REMOVE)));
+        assertEquals(WriteConcern.W1, MongoConfig.resolve(collections, operations, action("notifications", MongoActionOperation.INSERT_LIST)));
+        assertEquals(WriteConcern.UNACKNOWLEDGED, MongoConfig.resolve(collections, operations, action("boards", MongoActionOperation.REMOVE)));
+        assertEquals(WriteConcern.ACKNOWLEDGED, MongoConfig.resolve(collections, operations, action("boards", MongoActionOperation.SAVE)));
+    }
+
+    @Test
+    public void testCheckoutsAreTimedByOutcome() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MongoPoolMetrics metrics = new MongoPoolMetrics(registry);
+        ServerId serverId = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+        ConnectionCheckedOutEvent checkedOut = mock(ConnectionCheckedOutEvent.class);
+        when(checkedOut.getConnectionId()).thenReturn(new ConnectionId(serverId));
+        ConnectionCheckOutFailedEvent failed = mock(ConnectionCheckOutFailedEvent.class);
+        when(failed.getServerId()).thenReturn(serverId);
+        when(failed.getReason()).thenReturn(ConnectionCheckOutFailedEvent.Reason.TIMEOUT);
+
+        metrics.connectionCheckOutStarted(mock(ConnectionCheckOutStartedEvent.class));
+        metrics.connectionCheckedOut(checkedOut);
+        metrics.connectionCheckOutStarted(mock(ConnectionCheckOutStartedEvent.class));
+        metrics.connectionCheckOutFailed(failed);
+        // Completed without a start on this thread: not timed
+        metrics.connectionCheckedOut(checkedOut);
+
+        Timer ok = registry.find("kanban.mongo.pool.checkout").tag("outcome", "ok").timer();
+        Timer timeout = registry.find("kanban.mongo.pool.checkout").tag("outcome", "timeout").timer();
+        assertEquals(1, ok.count());
+        assertEquals(1, timeout.count());
+        assertEquals("localhost:27017", ok.getId().getTag("server.address"));
+    }
+
+    private static MongoAction action(String collection, MongoActionOperation operation) {
+        MongoAction action = mock(MongoAction.class);
+        when(action.getCollectionName()).thenReturn(collection);
+        when(action.getMongoActionOperation()).thenReturn(operation);
+        when(action.getDefaultWriteConcern()).thenReturn(WriteConcern.ACKNOWLEDGED);
+        return action;
+    }
+}
@@ -1,18 +1,24 @@
 package com.kanban.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kanban.model.Board;
+import com.kanban.model.BoardRole;
 import com.kanban.model.User;
 import com.kanban.service.BoardService;
+import com.kanban.service.BoardTransferService;
 import com.kanban.service.NotificationService;
 import com.kanban.service.TaskService;
+import com.kanban.web.JsonStreams;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -20,9 +26,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,9 +50,15 @@ class BoardControllerTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private BoardTransferService boardTransferService;
+
     @Mock
     private Authentication authentication;
 
+    @Spy
+    private JsonStreams jsonStreams = new JsonStreams();
+
     @InjectMocks
     private BoardController boardController;
 
@@ -52,6 +67,7 @@ class BoardControllerTest {
     @BeforeEach
     void setUp() {
         // Initialize MockMvc with the standalone controller
+        ReflectionTestUtils.setField(jsonStreams, "objectMapper", new ObjectMapper());
         mockMvc = MockMvcBuilders.standaloneSetup(boardController).build();
 
         testUser = new User("testUser", "test@example.com", "USER");
@@ -60,7 +76,7 @@ class BoardControllerTest {
     @Test
     void getAllBoards_ShouldReturnBoards() throws Exception {
         Board board = new Board("Test Board", "Description", "testUser", Arrays.asList("To Do", "Done"));
-        when(boardService.getAllBoards(any(User.class))).thenReturn(Collections.singletonList(board));
+        when(taskService.getAccessibleBoards(any(User.class))).thenReturn(Collections.singletonList(board));
         when(authentication.getPrincipal()).thenReturn(testUser);
 
         mockMvc.perform(get("/boards")
@@ -69,6 +85,21 @@ class BoardControllerTest {
                 .andExpect(jsonPath("$[0].name").value("Test Board"));
     }
 
+    @Test
+    void getAllBoards_ForAdmin_ShouldStreamBoards() throws Exception {
+        User adminUser = new User("admin", "admin@example.com", "ADMIN");
+        Board first = new Board("First Board", "Description", "admin", Arrays.asList("To Do", "Done"));
+        Board second = new Board("Second Board", "Description", "testUser", Arrays.asList("To Do", "Done"));
+        when(boardService.streamAllBoards(any(User.class))).thenReturn(Stream.of(first, second));
+        when(authentication.getPrincipal()).thenReturn(adminUser);
+
+        mockMvc.perform(get("/boards")
+                        .principal(authentication))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].name").value("Second Board"));
+    }
+
     @Test
     void getBoardById_WhenExists_ShouldReturnBoard() throws Exception {
         Board board = new Board("Test Board", "Description", "testUser", Arrays.asList("To Do", "Done"));
@@ -177,4 +208,58 @@ class BoardControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.columns.length()").value(3));
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportBoard_ByAnAssignee_ShouldReturnForbidden() throws Exception {
+        Board board = new Board("Test Board", "Description", "owner", Arrays.asList("To Do", "Done"));
+        when(boardService.getBoardById("123", testUser)).thenReturn(Optional.of(board));
+        when(boardService.seesAllTasks("123", testUser)).thenReturn(false);
+        when(authentication.getPrincipal()).thenReturn(testUser);
+
+        mockMvc.perform(get("/boards/123/export")
+                        .principal(authentication))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(boardTransferService);
+    }
+
+    @Test
+    void exportBoard_ByAViewer_ShouldStreamTheBoard() throws Exception {
+        Board board = new Board("Test Board", "Description", "owner", Arrays.asList("To Do", "Done"));
+        board.setId("123");
+        when(boardService.getBoardById("123", testUser)).thenReturn(Optional.of(board));
+        when(boardService.seesAllTasks("123", testUser)).thenReturn(true);
+        when(boardTransferService.exportBoard(board)).thenReturn(Stream.empty());
+        when(authentication.getPrincipal()).thenReturn(testUser);
+
+        mockMvc.perform(get("/boards/123/export")
+                        .principal(authentication))
+                .andExpect(status().isOk());
+
+        verify(boardTransferService).exportBoard(board);
+    }
+
+    @Test
+    void setMemberRole_ShouldShareTheBoard() throws Exception {
+        when(authentication.getPrincipal()).thenReturn(testUser);
+
+        mockMvc.perform(put("/boards/123/members/alice")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"viewer\"}")
+                        .principal(authentication))
+                .andExpect(status().isOk());
+
+        verify(boardService).setMemberRole("123", "alice", BoardRole.VIEWER, testUser);
+    }
+
+    @Test
+    void setMemberRole_WithUnknownRole_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(put("/boards/123/members/alice")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"superuser\"}")
+                        .principal(authentication))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(boardService);
+    }
+}
@@ -3,14 +3,24 @@ package com.kanban.repository;
 import com.kanban.model.Board;
 import com.kanban.model.Notification;
 import com.kanban.model.Task;
+import com.kanban.model.TaskCompletion;
+import com.kanban.model.TaskTransition;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,11 +36,18 @@ public class RepositoryLayerTests {
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private TaskTransitionRepository taskTransitionRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @AfterEach
     public void cleanup() {
         boardRepository.deleteAll();
         taskRepository.deleteAll();
         notificationRepository.deleteAll();
+        taskTransitionRepository.deleteAll();
     }
 
     // BoardRepository Tests
@@ -39,15 +56,17 @@ public class RepositoryLayerTests {
         // Create test data
         Board board = new Board("Test Board", "Description", "user1",
                 Arrays.asList("To Do", "In Progress", "Done"));
+        board.setTenantId("acme");
 
         // Save and verify
         Board savedBoard = boardRepository.save(board);
         assertNotNull(savedBoard.getId());
 
-        // Find by createdBy
-        List<Board> boards = boardRepository.findByCreatedBy("user1");
+        // Find by createdBy, within the tenant
+        List<Board> boards = boardRepository.findByTenantIdAndCreatedBy("acme", "user1");
         assertEquals(1, boards.size());
         assertEquals("Test Board", boards.get(0).getName());
+        assertTrue(boardRepository.findByTenantIdAndCreatedBy("other", "user1").isEmpty());
     }
 
     // TaskRepository Tests
@@ -56,6 +75,7 @@ public class RepositoryLayerTests {
         // Create test data
         Task task = new Task("Task 1", "Description", "To Do", "Medium",
                 "user1", "admin", "board1");
+        task.setTenantId("acme");
 
         // Save and verify
         Task savedTask = taskRepository.save(task);
@@ -67,8 +87,9 @@ public class RepositoryLayerTests {
         assertEquals("Task 1", tasks.get(0).getTitle());
 
         // Find by assignedTo
-        tasks = taskRepository.findByAssignedTo("user1");
+        tasks = taskRepository.findByTenantIdAndAssignedTo("acme", "user1");
         assertEquals(1, tasks.size());
+        assertTrue(taskRepository.findByTenantIdAndAssignedTo("other", "user1").isEmpty());
     }
 
     // NotificationRepository Tests
@@ -79,18 +100,112 @@ public class RepositoryLayerTests {
                 "Test message", "TASK_CREATED", "task1", "Task 1",
                 "board1", "Test Board", "user1", "admin"
         );
+        notification.setTenantId("acme");
 
         // Save and verify
         Notification savedNotification = notificationRepository.save(notification);
         assertNotNull(savedNotification.getId());
 
         // Find by targetUser
-        List<Notification> notifications = notificationRepository.findByTargetUserOrderByCreatedAtDesc("user1");
+        List<Notification> notifications = notificationRepository.findByTenantIdAndTargetUserOrderByCreatedAtDesc("acme", "user1");
         assertEquals(1, notifications.size());
         assertEquals("Test message", notifications.get(0).getMessage());
 
         // Count unread
-        long count = notificationRepository.countByTargetUserAndIsRead("user1", false);
+        long count = notificationRepository.countByTenantIdAndTargetUserAndIsRead("acme", "user1", false);
         assertEquals(1, count);
+        assertEquals(0, notificationRepository.countByTenantIdAndTargetUserAndIsRead("other", "user1", false));
+    }
+
+    // TaskTransitionRepository Tests
+    @Test
+    public void testCompletionsOnlyCoverTasksThatMovedInTheWindow() {
+        LocalDateTime since = LocalDateTime.now().minusDays(7);
+        // Created long before the window, done inside it
+        transition("old-start", null, "To Do", since.minusDays(60));
+        transition("old-start", "To Do", "In Progress", since.minusDays(50));
+        transition("old-start", "In Progress", "Done", since.plusDays(1));
+        // Done before the window
+        transition("done-before", null, "To Do", since.minusDays(20));
+        transition("done-before", "To Do", "Done", since.minusDays(10));
+        // Moved in the window, not done
+        transition("in-progress", null, "To Do", since.plusDays(2));
+        transition("in-progress", "To Do", "In Progress", since.plusDays(3));
+
+        List<TaskCompletion> completions = taskTransitionRepository.findCompletions("board1", "To Do", "Done", since);
+
+        assertEquals(1, completions.size());
+        // Start times come from the task's whole history
+        assertEquals(since.minusDays(60).toLocalDate(), completions.get(0).getCreatedAt().toLocalDate());
+        assertEquals(since.minusDays(50).toLocalDate(), completions.get(0).getStartedAt().toLocalDate());
+    }
+
+    @Test
+    public void testDailyArrivalsAreBucketedInLocalDays() {
+        // Just after local midnight - a different UTC day anywhere east of UTC
+        LocalDateTime justAfterMidnight = LocalDateTime.now().toLocalDate().atStartOfDay().plusMinutes(30);
+        transition("task1", null, "To Do", justAfterMidnight);
+
+        Map<String, Map<String, Long>> arrivals = taskTransitionRepository.countDailyArrivals("board1",
+                justAfterMidnight.toLocalDate().atStartOfDay());
+
+        assertEquals(Map.of(justAfterMidnight.toLocalDate().toString(), Map.of("To Do", 1L)), arrivals);
+    }
+
+    private void transition(String taskId, String fromStatus, String toStatus, LocalDateTime changedAt) {
+        taskTransitionRepository.save(new TaskTransition(taskId, "board1", fromStatus, toStatus, "user1", changedAt));
+    }
+
+    // Notification inserts, one at a time and as one insertMany, per write concern. Against a standalone server
+    // majority costs about what w1 does; the gap shows against a replica set (see spring.data.mongodb.uri).
+    // Not part of the normal run, see the benchmarks profile; MongoConfigTest covers the concerns in use
+    @Test
+    @Tag("benchmark")
+    public void benchmarkNotificationInsertsByWriteConcern() {
+        int count = 500;
+        MongoCollection<Document> collection = mongoTemplate.getCollection("notifications");
+        Map<String, WriteConcern> writeConcerns = new LinkedHashMap<>();
+        writeConcerns.put("majority", WriteConcern.MAJORITY);
+        writeConcerns.put("w1", WriteConcern.W1);
+        writeConcerns.put("unacknowledged", WriteConcern.UNACKNOWLEDGED);
+
+        writeConcerns.forEach((name, writeConcern) -> {
+            MongoCollection<Document> writer = collection.withWriteConcern(writeConcern);
+            // Own tenant per run: unacknowledged inserts may still land after the count below
+            String tenantId = "bench-" + name;
+
+            long started = System.nanoTime();
+            for (Document document : notifications(tenantId, "single", count)) {
+                writer.insertOne(document);
+            }
+            long singleNanos = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            writer.insertMany(notifications(tenantId, "batch", count));
+            long batchNanos = System.nanoTime() - started;
+
+            System.out.printf("%d notification inserts with %s: one by one %.1f us each, insertMany %.1f us each%n",
+                    count, name, singleNanos / 1000.0 / count, batchNanos / 1000.0 / count);
+
+            if (writeConcern.isAcknowledged()) {
+                assertEquals(count, notificationRepository.countByTenantIdAndTargetUserAndIsRead(tenantId, "single", false));
+                assertEquals(count, notificationRepository.countByTenantIdAndTargetUserAndIsRead(tenantId, "batch", false));
+            }
+        });
+    }
+
+    private List<Document> notifications(String tenantId, String targetUser, int count) {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Notification notification = new Notification(
+                    "Task " + i + " has been assigned to you", "TASK_ASSIGNED", "task" + i, "Task " + i,
+                    "board1", "Test Board", targetUser, "admin"
+            );
+            notification.setTenantId(tenantId);
+            Document document = new Document();
+            mongoTemplate.getConverter().write(notification, document);
+            documents.add(document);
+        }
+        return documents;
     }
-}
\ No newline at end of file
+}
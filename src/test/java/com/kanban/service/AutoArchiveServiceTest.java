@@ -0,0 +1,117 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.Task;
+import com.kanban.repository.BoardRepository;
+import com.kanban.repository.TaskRepository;
+import com.kanban.web.RateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AutoArchiveServiceTest {
+
+    private AutoArchiveService autoArchiveService;
+    private TaskRepository taskRepository;
+    private BoardRepository boardRepository;
+
+    @BeforeEach
+    public void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        boardRepository = mock(BoardRepository.class);
+        when(taskRepository.archiveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        autoArchiveService = new AutoArchiveService();
+        autoArchiveService.taskRepository = taskRepository;
+        autoArchiveService.boardRepository = boardRepository;
+        autoArchiveService.boardCounts = mock(BoardCountsService.class);
+        autoArchiveService.taskEventService = mock(TaskEventService.class);
+        autoArchiveService.hotBoardCache = mock(HotBoardCache.class);
+        autoArchiveService.collectionVersions = mock(CollectionVersionService.class);
+        autoArchiveService.notificationService = mock(NotificationService.class);
+        autoArchiveService.rateLimiter = new RateLimiter();
+        autoArchiveService.batchSize = 2;
+        autoArchiveService.batchesPerSecond = 1000;
+    }
+
+    @Test
+    public void testStaleTasksAreArchivedInBatchesWithOneNotificationPerBoard() throws Exception {
+        Board first = board("board1");
+        Board second = board("board2");
+        when(taskRepository.findStaleInColumns(eq(List.of("Done")), any(), eq(2)))
+                .thenReturn(List.of(task("a", "board1"), task("b", "board1")), List.of(task("c", "board2")));
+        when(boardRepository.findAllById(anyIterable())).thenReturn(List.of(first, second));
+
+        assertEquals(3, autoArchiveService.archiveStaleTasks());
+
+        verify(taskRepository, times(2)).archiveAll(anyList());
+        verify(autoArchiveService.boardCounts).tasksArchived(eq("board1"), argThat(tasks -> tasks.size() == 2));
+        // One change event write per batch
+        verify(autoArchiveService.taskEventService).recordTasks(argThat(tasks -> ids(tasks).equals(List.of("a", "b"))
+                && tasks.stream().allMatch(Task::isArchived)));
+        verify(autoArchiveService.taskEventService).recordTasks(argThat(tasks -> ids(tasks).equals(List.of("c"))
+                && tasks.stream().allMatch(Task::isArchived)));
+        verify(autoArchiveService.notificationService).autoArchiveNotification(first, 2L, 30);
+        verify(autoArchiveService.notificationService).autoArchiveNotification(second, 1L, 30);
+        verify(autoArchiveService.notificationService, never()).deleteTaskNotification(any(), any());
+        verify(autoArchiveService.collectionVersions).touchAll(CollectionVersionService.TASKS);
+    }
+
+    @Test
+    public void testTasksMovedInTheMeantimeAreNotCounted() throws Exception {
+        Task kept = task("a", "board1");
+        Task moved = task("b", "board1");
+        when(taskRepository.findStaleInColumns(anyCollection(), any(), anyInt())).thenReturn(List.of(kept, moved), List.of());
+        when(taskRepository.archiveAll(anyList())).thenReturn(List.of(kept), List.of());
+        when(boardRepository.findAllById(anyIterable())).thenReturn(List.of(board("board1")));
+
+        assertEquals(1, autoArchiveService.archiveStaleTasks());
+
+        assertFalse(moved.isArchived());
+        verify(autoArchiveService.boardCounts).tasksArchived("board1", List.of(kept));
+    }
+
+    @Test
+    public void testARunStopsAtItsCap() throws Exception {
+        autoArchiveService.maxPerRun = 3;
+        when(taskRepository.findStaleInColumns(anyCollection(), any(), eq(2)))
+                .thenReturn(List.of(task("a", "board1"), task("b", "board1")));
+        when(taskRepository.findStaleInColumns(anyCollection(), any(), eq(1))).thenReturn(List.of(task("c", "board1")));
+        when(boardRepository.findAllById(anyIterable())).thenReturn(List.of(board("board1")));
+
+        assertEquals(3, autoArchiveService.archiveStaleTasks());
+
+        verify(taskRepository).findStaleInColumns(anyCollection(), any(), eq(1));
+    }
+
+    @Test
+    public void testZeroDaysTurnsItOff() throws Exception {
+        autoArchiveService.afterDays = 0;
+
+        assertEquals(0, autoArchiveService.archiveStaleTasks());
+
+        verifyNoInteractions(taskRepository);
+    }
+
+    private static Board board(String id) {
+        Board board = new Board("Board " + id, "Description", "owner", Arrays.asList("To Do", "Done"));
+        board.setId(id);
+        return board;
+    }
+
+    private static Task task(String id, String boardId) {
+        Task task = new Task("Task " + id, "Description", "Done", "Medium", "alice", "admin", boardId);
+        task.setId(id);
+        return task;
+    }
+
+    private static List<String> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
@@ -0,0 +1,170 @@
+package com.kanban.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kanban.model.ArchivedTask;
+import com.kanban.model.Board;
+import com.kanban.model.BoardTransferLine;
+import com.kanban.model.ImportResult;
+import com.kanban.model.Task;
+import com.kanban.model.User;
+import com.kanban.repository.ArchivedTaskRepository;
+import com.kanban.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BoardTransferServiceTest {
+
+    private BoardTransferService transferService;
+    private TaskRepository taskRepository;
+    private ArchivedTaskRepository archivedTaskRepository;
+    private BoardService boardService;
+    private NotificationService notificationService;
+    private ObjectMapper objectMapper;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        archivedTaskRepository = mock(ArchivedTaskRepository.class);
+        boardService = mock(BoardService.class);
+        notificationService = mock(NotificationService.class);
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        user = new User("user", "user@test.com", "USER");
+
+        when(boardService.createBoard(any(Board.class), eq(user))).thenAnswer(invocation -> {
+            Board board = invocation.getArgument(0);
+            board.setId("imported");
+            return board;
+        });
+        when(taskRepository.insert(anyList())).thenAnswer(invocation -> List.copyOf(invocation.<List<Task>>getArgument(0)));
+
+        transferService = new BoardTransferService();
+        transferService.taskRepository = taskRepository;
+        transferService.archivedTaskRepository = archivedTaskRepository;
+        transferService.boardService = boardService;
+        transferService.notificationService = notificationService;
+        transferService.collectionVersions = mock(CollectionVersionService.class);
+        transferService.taskEventService = mock(TaskEventService.class);
+        transferService.boardCounts = mock(BoardCountsService.class);
+        transferService.memberships = mock(BoardMembershipService.class);
+        transferService.tenants = mock(TenantService.class);
+        transferService.objectMapper = objectMapper;
+        transferService.chunkSize = 2;
+    }
+
+    @Test
+    public void testExportIsTheBoardLineFollowedByItsTasks() {
+        Board board = new Board("Board", "Description", "admin", Arrays.asList("To Do", "Done"));
+        board.setId("board1");
+        when(taskRepository.streamByBoardId("board1")).thenReturn(Stream.of(task("One", "To Do", "alice"), task("Two", "Done", "bob")));
+        Task archived = task("Three", "Done", "bob");
+        archived.setArchived(true);
+        when(archivedTaskRepository.streamByBoardId("board1")).thenReturn(Stream.of(ArchivedTask.of(archived)));
+
+        List<BoardTransferLine> lines = transferService.exportBoard(board).toList();
+
+        assertEquals(4, lines.size());
+        assertSame(board, lines.get(0).getBoard());
+        assertEquals("Two", lines.get(2).getTask().getTitle());
+        // Tasks from tasks_archive are exported as plain archived tasks
+        assertEquals(Task.class, lines.get(3).getTask().getClass());
+        assertTrue(lines.get(3).getTask().isArchived());
+    }
+
+    @Test
+    public void testImportWritesChunksAndCoalescesNotifications() throws Exception {
+        String ndjson = lines(
+                BoardTransferLine.of(new Board("Board", "Description", "admin", Arrays.asList("To Do", "Done"))),
+                BoardTransferLine.of(task("One", "To Do", "alice")),
+                BoardTransferLine.of(task("Two", "Done", "alice")),
+                BoardTransferLine.of(task("Three", "To Do", "bob")));
+
+        ImportResult result = transferService.importBoard(reader(ndjson), user);
+
+        assertEquals("imported", result.getBoardId());
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getFailed());
+        // chunk size 2: one full chunk and the remainder
+        verify(taskRepository, times(2)).insert(anyList());
+        verify(notificationService).importNotifications(any(Board.class), eq(Map.of("alice", 2L, "bob", 1L)), eq(user));
+        verify(notificationService, never()).createTaskNotification(any(), any());
+        verify(transferService.boardCounts).addTasks(eq("imported"), argThat(tasks -> tasks.size() == 2));
+        verify(transferService.boardCounts).addTasks(eq("imported"), argThat(tasks -> tasks.size() == 1));
+        verify(transferService.memberships).ensureAssignees("imported", Set.of("alice", "bob"));
+    }
+
+    @Test
+    public void testBadLinesAreReportedAndSkipped() throws Exception {
+        String ndjson = lines(
+                BoardTransferLine.of(task("Too early", "To Do", "alice")),
+                BoardTransferLine.of(new Board("Board", "Description", "admin", Arrays.asList("To Do", "Done"))),
+                BoardTransferLine.of(task("Unknown column", "Blocked", "alice")),
+                BoardTransferLine.of(task("", "To Do", "alice")),
+                BoardTransferLine.of(task("Good", "To Do", "alice"))) + "{not json\n\n";
+
+        ImportResult result = transferService.importBoard(reader(ndjson), user);
+
+        assertEquals(1, result.getImported());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(1L, 3L, 4L, 6L), result.getErrors().stream().map(ImportResult.LineError::getLine).toList());
+    }
+
+    @Test
+    public void testFailedChunkReportsEveryLineInIt() throws Exception {
+        when(taskRepository.insert(anyList())).thenThrow(new DuplicateKeyException("duplicate"));
+        String ndjson = lines(
+                BoardTransferLine.of(new Board("Board", "Description", "admin", Arrays.asList("To Do", "Done"))),
+                BoardTransferLine.of(task("One", "To Do", "alice")),
+                BoardTransferLine.of(task("Two", "To Do", "alice")));
+
+        ImportResult result = transferService.importBoard(reader(ndjson), user);
+
+        assertEquals(0, result.getImported());
+        assertEquals(List.of(2L, 3L), result.getErrors().stream().map(ImportResult.LineError::getLine).toList());
+        verify(notificationService, never()).importNotifications(any(), any(), any());
+    }
+
+    @Test
+    public void testImportWithoutABoardLineCreatesNothing() throws Exception {
+        ImportResult result = transferService.importBoard(reader(lines(BoardTransferLine.of(task("One", "To Do", "alice")))), user);
+
+        assertNull(result.getBoardId());
+        verifyNoInteractions(boardService);
+        verify(taskRepository, never()).insert(anyList());
+    }
+
+    private Task task(String title, String status, String assignedTo) {
+        Task task = new Task(title, "Description", status, "Medium", assignedTo, "admin", "board1");
+        task.setId(title);
+        return task;
+    }
+
+    private String lines(BoardTransferLine... lines) {
+        return Arrays.stream(lines).map(line -> {
+            try {
+                return objectMapper.writeValueAsString(line) + "\n";
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }).collect(Collectors.joining());
+    }
+
+    private static BufferedReader reader(String content) {
+        return new BufferedReader(new StringReader(content));
+    }
+}
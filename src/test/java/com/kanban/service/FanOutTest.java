@@ -0,0 +1,121 @@
+package com.kanban.service;
+
+import com.mongodb.ReadPreference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FanOutTest {
+
+    private ExecutorService executor;
+    private FanOut fanOut;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        fanOut = new FanOut();
+        fanOut.executor = executor;
+        fanOut.timeoutMillis = 2000;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testForksRunConcurrently() {
+        // Each fork waits for the other to start - only possible if they run at the same time
+        CountDownLatch started = new CountDownLatch(2);
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<String> first = scope.fork(() -> awaitBoth(started, "first"));
+            Supplier<String> second = scope.fork(() -> awaitBoth(started, "second"));
+            scope.join();
+
+            assertEquals("first", first.get());
+            assertEquals("second", second.get());
+        }
+    }
+
+    @Test
+    public void testForksReadWhereTheCallerReads() {
+        ReadRouting.set(ReadPreference.secondaryPreferred());
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<ReadPreference> routing = scope.fork(ReadRouting::current);
+            scope.join();
+
+            assertEquals(ReadPreference.secondaryPreferred(), routing.get());
+        } finally {
+            ReadRouting.clear();
+        }
+    }
+
+    @Test
+    public void testFirstFailureCancelsTheOtherForks() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        RuntimeException failure = new RuntimeException("Board not found");
+
+        try (FanOut.Scope scope = fanOut.open()) {
+            scope.fork(() -> sleepUntilInterrupted(interrupted));
+            scope.fork(() -> { throw failure; });
+
+            assertSame(failure, assertThrows(RuntimeException.class, scope::join));
+        }
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testJoinTimesOutAndCancels() throws Exception {
+        fanOut.timeoutMillis = 50;
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<Object> slow = scope.fork(() -> sleepUntilInterrupted(interrupted));
+
+            RuntimeException e = assertThrows(RuntimeException.class, scope::join);
+            assertTrue(e.getMessage().contains("timed out"));
+            assertThrows(IllegalStateException.class, slow::get);
+        }
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testForksSeeTheCallersSecurityContext() {
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", null);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<Authentication> seen = scope.fork(() -> SecurityContextHolder.getContext().getAuthentication());
+            scope.join();
+
+            assertSame(authentication, seen.get());
+        }
+    }
+
+    private static String awaitBoth(CountDownLatch started, String result) throws InterruptedException {
+        started.countDown();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        return result;
+    }
+
+    private static Object sleepUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return null;
+    }
+}
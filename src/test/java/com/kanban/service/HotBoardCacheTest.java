@@ -0,0 +1,129 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.Task;
+import com.mongodb.ReadPreference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotBoardCacheTest {
+
+    private HotBoardCache cache;
+    private Board board;
+    private Task task;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new HotBoardCache();
+        board = new Board("Test Board", "Description", "admin", Arrays.asList("To Do", "Done"));
+        board.setId("board1");
+        task = task("task1", "To Do");
+    }
+
+    @Test
+    public void testRepeatedReadsHitTheCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            cache.getTasks(board.getId(), () -> {
+                loads.incrementAndGet();
+                return List.of(task);
+            });
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(0.75, cache.getHitRatio());
+        assertTrue(cache.getWeightBytes() > 0);
+    }
+
+    @Test
+    public void testLoadsReadFromThePrimaryEvenInSecondaryReads() {
+        ReadRouting.set(ReadPreference.secondaryPreferred());
+        try {
+            cache.getBoard(board.getId(), () -> {
+                assertNull(ReadRouting.current());
+                return Optional.of(board);
+            });
+            // The request's own reads are routed as before
+            assertEquals(ReadPreference.secondaryPreferred(), ReadRouting.current());
+        } finally {
+            ReadRouting.clear();
+        }
+    }
+
+    @Test
+    public void testBoardsAreHandedOutAsCopies() {
+        cache.getBoard(board.getId(), () -> Optional.of(board)).orElseThrow().setName("Changed");
+
+        assertEquals("Test Board", cache.getBoard(board.getId(), Optional::empty).orElseThrow().getName());
+    }
+
+    @Test
+    public void testCopiesKeepTheBoardsTenant() {
+        board.setTenantId("acme");
+
+        assertEquals("acme", cache.getBoard(board.getId(), () -> Optional.of(board)).orElseThrow().getTenantId());
+        assertEquals("acme", cache.getBoard(board.getId(), Optional::empty).orElseThrow().getTenantId());
+
+        // Copied on the way through even when nothing is cached
+        cache.maxWeightBytes = 0;
+        assertEquals("acme", cache.getBoard("board2", () -> Optional.of(board)).orElseThrow().getTenantId());
+    }
+
+    @Test
+    public void testTaskWritesGoThroughToTheCachedList() {
+        cache.getTasks(board.getId(), () -> List.of(task));
+
+        cache.putTask(task("task1", "Done"));
+        cache.putTask(task("task2", "To Do"));
+
+        List<Task> tasks = cache.getTasks(board.getId(), () -> fail("should be cached"));
+        assertEquals(2, tasks.size());
+        assertEquals("Done", tasks.get(0).getStatus());
+        assertEquals("task2", tasks.get(1).getId());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreDroppedOverTheWeightLimit() {
+        cache.getBoard("board1", () -> Optional.of(board));
+        cache.maxWeightBytes = cache.getWeightBytes() * 2 + 1;
+        Board other = new Board("Other", "Description", "admin", Arrays.asList("To Do", "Done"));
+        other.setId("board2");
+        Board third = new Board("Third", "Description", "admin", Arrays.asList("To Do", "Done"));
+        third.setId("board3");
+
+        cache.getBoard("board2", () -> Optional.of(other));
+        cache.getBoard("board1", Optional::empty); // board1 is now the most recently used
+        cache.getBoard("board3", () -> Optional.of(third));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.getBoard("board1", Optional::empty).isPresent());
+        assertFalse(cache.getBoard("board2", Optional::empty).isPresent());
+        assertTrue(cache.getWeightBytes() <= cache.maxWeightBytes);
+    }
+
+    @Test
+    public void testLoadThatRacedWithAWriteIsNotCached() {
+        // A write lands while the list is being read from Mongo - the read may predate it
+        cache.getTasks(board.getId(), () -> {
+            cache.putTask(task("task1", "Done"));
+            return new ArrayList<>(List.of(task));
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    private Task task(String id, String status) {
+        Task task = new Task("Task", "Description", status, "Medium", "user", "admin", board.getId());
+        task.setId(id);
+        return task;
+    }
+}
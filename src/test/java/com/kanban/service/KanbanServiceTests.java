@@ -1,21 +1,50 @@
 package com.kanban.service;
 
 import com.kanban.model.Board;
+import com.kanban.model.ArchivedTask;
+import com.kanban.model.BoardCounts;
+import com.kanban.model.BoardMember;
+import com.kanban.model.BoardMetrics;
+import com.kanban.model.BoardRole;
 import com.kanban.model.Notification;
 import com.kanban.model.Task;
+import com.kanban.model.TaskChanges;
+import com.kanban.model.TaskCompletion;
+import com.kanban.model.TaskEvent;
+import com.kanban.model.TaskSearchResult;
+import com.kanban.model.TaskTransition;
+import com.kanban.model.Role;
+import com.kanban.model.Tenants;
 import com.kanban.model.User;
+import com.kanban.repository.ArchivedTaskRepository;
+import com.kanban.repository.BoardCountsRepository;
+import com.kanban.repository.BoardMemberRepository;
 import com.kanban.repository.BoardRepository;
 import com.kanban.repository.NotificationRepository;
+import com.kanban.repository.TaskEventRepository;
 import com.kanban.repository.TaskRepository;
+import com.kanban.repository.TaskTransitionRepository;
+import com.kanban.web.FieldSelection;
+import com.mongodb.ReadPreference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,6 +63,12 @@ public class KanbanServiceTests {
     @Mock private BoardRepository boardRepository;
     @Mock private NotificationRepository notificationRepository;
     @Mock private TaskRepository taskRepository;
+    @Mock private TaskTransitionRepository taskTransitionRepository;
+    @Mock private TaskEventRepository taskEventRepository;
+    @Mock private BoardCountsRepository boardCountsRepository;
+    @Mock private ArchivedTaskRepository archivedTaskRepository;
+    @Mock private BoardMemberRepository boardMemberRepository;
+    @Mock private TenantService tenants;
 
     // Services under test
     private BoardService boardService;
@@ -60,29 +95,85 @@ public class KanbanServiceTests {
         notification.setId("notif1");
 
         // Initialize services with mocked dependencies
+        CollectionVersionService collectionVersions = new CollectionVersionService();
+
+        FanOut fanOut = new FanOut();
+        fanOut.executor = Runnable::run;
+
+        BoardMembershipService memberships = new BoardMembershipService();
+        memberships.boardMemberRepository = boardMemberRepository;
+        memberships.boardRepository = boardRepository;
+        memberships.taskRepository = taskRepository;
+
+        TaskEventService taskEventService = new TaskEventService();
+        taskEventService.taskEventRepository = taskEventRepository;
+        taskEventService.taskRepository = taskRepository;
+        taskEventService.boardRepository = boardRepository;
+        taskEventService.memberships = memberships;
+
+        HotBoardCache hotBoardCache = new HotBoardCache();
+
+        PermissionService permissions = new PermissionService();
+        permissions.boardRepository = boardRepository;
+        permissions.taskRepository = taskRepository;
+        permissions.hotBoardCache = hotBoardCache;
+        permissions.memberships = memberships;
+
+        BoardCountsService boardCounts = new BoardCountsService();
+        boardCounts.boardCountsRepository = boardCountsRepository;
+        boardCounts.taskRepository = taskRepository;
+        boardCounts.tenants = tenants;
+        // Columns have room unless a test says otherwise
+        lenient().when(boardCountsRepository.increment(any(), any(), any(), any())).thenReturn(true);
+
         boardService = new BoardService();
         boardService.boardRepository = boardRepository;
+        boardService.collectionVersions = collectionVersions;
+        boardService.taskEventService = taskEventService;
+        boardService.permissions = permissions;
+        boardService.hotBoardCache = hotBoardCache;
+        boardService.boardCounts = boardCounts;
+        boardService.memberships = memberships;
+        boardService.tenants = tenants;
 
         notificationService = new NotificationService();
         notificationService.notificationRepository = notificationRepository;
         notificationService.boardRepository = boardRepository;
+        notificationService.collectionVersions = collectionVersions;
+        notificationService.fanOut = fanOut;
+
+        BoardMetricsService boardMetricsService = new BoardMetricsService();
+        boardMetricsService.taskRepository = taskRepository;
+        boardMetricsService.taskTransitionRepository = taskTransitionRepository;
+        boardMetricsService.hotBoardCache = hotBoardCache;
+        boardMetricsService.subscribe();
 
         taskService = new TaskService();
         taskService.taskRepository = taskRepository;
         taskService.boardRepository = boardRepository;
         taskService.boardService = boardService;
         taskService.notificationService = notificationService;
+        taskService.collectionVersions = collectionVersions;
+        taskService.boardMetricsService = boardMetricsService;
+        taskService.taskEventService = taskEventService;
+        taskService.permissions = permissions;
+        taskService.hotBoardCache = hotBoardCache;
+        taskService.boardCounts = boardCounts;
+        taskService.archivedTaskRepository = archivedTaskRepository;
+        taskService.memberships = memberships;
+        taskService.fanOut = fanOut;
+        taskService.tenants = tenants;
     }
 
     // BoardService Tests
     @Test
     public void testGetAllBoardsForAdmin() {
-        when(boardRepository.findAll()).thenReturn(List.of(board));
+        when(boardRepository.findByTenantId(Tenants.DEFAULT)).thenReturn(List.of(board));
 
         List<Board> result = boardService.getAllBoards(adminUser);
 
         assertEquals(1, result.size());
-        verify(boardRepository).findAll();
+        verify(boardRepository).findByTenantId(Tenants.DEFAULT);
     }
 
     @Test
@@ -93,17 +184,163 @@ public class KanbanServiceTests {
 
         assertEquals(board.getId(), result.getId());
         verify(boardRepository).save(board);
+        verify(boardMemberRepository).setRole(board.getId(), regularUser.getUsername(), BoardRole.OWNER);
+        // The board goes into the creator's tenant and counts against its quota
+        assertEquals(Tenants.DEFAULT, board.getTenantId());
+        verify(tenants).reserveBoard(Tenants.DEFAULT);
+    }
+
+    @Test
+    public void testBoardOverTheTenantsQuotaIsNotCreated() {
+        doThrow(new TenantQuotaExceededException(Tenants.DEFAULT, "boards", 1)).when(tenants).reserveBoard(Tenants.DEFAULT);
+
+        assertThrows(TenantQuotaExceededException.class, () -> boardService.createBoard(board, regularUser));
+
+        verify(boardRepository, never()).save(any(Board.class));
+        verifyNoInteractions(boardMemberRepository);
+    }
+
+    @Test
+    public void testAdminOfAnotherTenantSeesNothingOfThisOne() {
+        User otherAdmin = new User("admin", "admin@other.com", Role.ADMIN, "other");
+        lenient().when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        lenient().when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+
+        assertFalse(taskService.getTaskById(task.getId(), otherAdmin).isPresent());
+        assertThrows(RuntimeException.class, () -> taskService.getTasksByBoard(board.getId(), otherAdmin));
+        assertFalse(boardService.canModifyBoard(board.getId(), otherAdmin));
+        assertFalse(taskService.canModifyTask(task.getId(), otherAdmin));
+        boardService.getAllBoards(otherAdmin);
+        verify(boardRepository).findByTenantId("other");
+    }
+
+    @Test
+    public void testDeletingABoardDropsItsMemberships() {
+        member(regularUser, BoardRole.OWNER);
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(boardMemberRepository.findByBoardIdOrderByUsernameAsc(board.getId()))
+                .thenReturn(List.of(new BoardMember(board.getId(), regularUser.getUsername(), BoardRole.OWNER)));
+
+        boardService.deleteBoard(board.getId(), regularUser);
+
+        verify(boardRepository).deleteById(board.getId());
+        verify(boardMemberRepository).deleteByBoardId(board.getId());
+        // The owner's cached memberships were dropped, the next check reads them again
+        boardService.memberships.role(board.getId(), regularUser.getUsername());
+        verify(boardMemberRepository, times(2)).findByUsername(regularUser.getUsername());
+        verify(tenants).releaseBoard(Tenants.DEFAULT);
+        // Its members receive the tombstone although it's gone from their memberships
+        ArgumentCaptor<TaskEvent> tombstone = ArgumentCaptor.forClass(TaskEvent.class);
+        verify(taskEventRepository).append(tombstone.capture());
+        assertEquals(TaskEvent.TOMBSTONE, tombstone.getValue().getOp());
+        assertEquals(List.of(regularUser.getUsername()), tombstone.getValue().getAudience());
+    }
+
+    @Test
+    public void testBoardTombstonesStayInTheirTenant() {
+        TaskEvent ours = new TaskEvent(TaskEvent.BOARD, "gone1", "gone1", TaskEvent.TOMBSTONE, List.of(regularUser.getUsername()));
+        ours.setTenantId(Tenants.DEFAULT);
+        ours.setSeq(5);
+        TaskEvent theirs = new TaskEvent(TaskEvent.BOARD, "gone2", "gone2", TaskEvent.TOMBSTONE, List.of("someone"));
+        theirs.setTenantId("other");
+        theirs.setSeq(6);
+        when(taskEventRepository.findLatestSeqBelow(Long.MAX_VALUE)).thenReturn(6L);
+        when(taskEventRepository.findChanges(eq(0L), eq(6L), isNull(), eq(adminUser.getUsername()), eq(11)))
+                .thenReturn(List.of(ours, theirs));
+        when(taskEventRepository.findChanges(eq(0L), eq(6L), eq(Set.of()), eq(regularUser.getUsername()), eq(11)))
+                .thenReturn(List.of(ours));
+
+        assertEquals(List.of("gone1"), taskService.taskEventService.getChanges(0, 10, adminUser).getDeletedBoardIds());
+        assertEquals(List.of("gone1"), taskService.taskEventService.getChanges(0, 10, regularUser).getDeletedBoardIds());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSharingABoardLogsItAndItsTasksForTheNewMember() {
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.findWithFields(any(Query.class), anyCollection())).thenReturn(List.of(task));
+
+        boardService.setMemberRole(board.getId(), "alice", BoardRole.VIEWER, regularUser);
+
+        ArgumentCaptor<List<TaskEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(taskEventRepository).appendAll(events.capture());
+        assertEquals(List.of(board.getId(), task.getId()),
+                events.getValue().stream().map(TaskEvent::getEntityId).collect(Collectors.toList()));
+        for (TaskEvent event : events.getValue()) {
+            assertEquals(TaskEvent.UPSERT, event.getOp());
+            assertEquals(List.of("alice"), event.getAudience());
+            // Only for alice - the other members already have them
+            assertNull(event.getBoardId());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRemovedMemberReceivesTombstonesForTheBoardAndItsTasks() {
+        User alice = new User("alice", "alice@test.com", "USER");
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(boardMemberRepository.deleteByBoardIdAndUsername(board.getId(), alice.getUsername())).thenReturn(1L);
+        when(taskRepository.findWithFields(any(Query.class), anyCollection())).thenReturn(List.of(task));
+
+        assertTrue(boardService.removeMember(board.getId(), alice.getUsername(), regularUser));
+
+        ArgumentCaptor<List<TaskEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(taskEventRepository).appendAll(events.capture());
+        assertEquals(TaskEvent.TOMBSTONE, events.getValue().get(0).getOp());
+
+        when(taskEventRepository.findLatestSeqBelow(Long.MAX_VALUE)).thenReturn(2L);
+        when(taskEventRepository.findChanges(eq(0L), eq(2L), eq(Set.of()), eq(alice.getUsername()), eq(11)))
+                .thenReturn(events.getValue());
+        when(boardRepository.findAllById(anyIterable())).thenReturn(List.of(board));
+        when(taskRepository.findAllById(anyIterable())).thenReturn(List.of(task));
+
+        TaskChanges changes = taskService.taskEventService.getChanges(0, 10, alice);
+        assertEquals(List.of(board.getId()), changes.getDeletedBoardIds());
+        assertEquals(List.of(task.getId()), changes.getDeletedTaskIds());
+    }
+
+    @Test
+    public void testSharedBoardsAreListedWithoutReadingTasks() {
+        User maintainer = new User("maintainer", "maintainer@test.com", "USER");
+        member(maintainer, BoardRole.MAINTAINER);
+        when(boardRepository.findWithCounts(any(Criteria.class), anyCollection())).thenReturn(List.of(board));
+
+        assertEquals(List.of(board), taskService.getAccessibleBoards(maintainer));
+
+        ArgumentCaptor<Criteria> criteria = ArgumentCaptor.forClass(Criteria.class);
+        verify(boardRepository).findWithCounts(criteria.capture(), anyCollection());
+        assertTrue(criteria.getValue().getCriteriaObject().toJson().contains("\"board1\""));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    public void testBackfillMakesCreatorsOwnersAndAssigneesMembers() {
+        Board other = new Board("Other", "Description", "admin", Arrays.asList("To Do", "Done"));
+        other.setId("board2");
+        when(boardRepository.findWithFields(any(Query.class), anyCollection())).thenReturn(List.of(board, other));
+        // Tasks left on a deleted board don't make anyone a member
+        when(taskRepository.findAssigneesByBoard())
+                .thenReturn(Map.of(board.getId(), Set.of("alice"), "deletedBoard", Set.of("bob")));
+        when(boardMemberRepository.addAll(anyList(), anyBoolean())).thenReturn(1);
+
+        assertEquals(2, boardService.memberships.backfill());
+
+        verify(boardMemberRepository).addAll(argThat(owners -> owners.size() == 2
+                && owners.stream().allMatch(member -> member.getRole() == BoardRole.OWNER)), eq(true));
+        verify(boardMemberRepository).addAll(argThat(assignees -> assignees.size() == 1
+                && assignees.get(0).getUsername().equals("alice")
+                && assignees.get(0).getRole() == BoardRole.ASSIGNEE), eq(false));
     }
 
     // NotificationService Tests
     @Test
     public void testGetNotificationsForAdmin() {
-        when(notificationRepository.findAll()).thenReturn(List.of(notification));
+        when(notificationRepository.findByTenantIdOrderByCreatedAtDesc(Tenants.DEFAULT)).thenReturn(List.of(notification));
 
         List<Notification> result = notificationService.getNotifications(adminUser);
 
         assertEquals(1, result.size());
-        verify(notificationRepository).findAll();
+        verify(notificationRepository, never()).findAll();
     }
 
     @Test
@@ -116,27 +353,97 @@ public class KanbanServiceTests {
         verify(notificationRepository).save(notification);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportNotificationsAreInsertedTogether() {
+        Notification unread = new Notification(
+                String.format("%d tasks have been assigned to you in imported board '%s'", 1, board.getName()), "TASK_ASSIGNED",
+                null, null, board.getId(), board.getName(), "bob", adminUser.getUsername());
+        when(notificationRepository.findByTenantIdAndTargetUserOrderByCreatedAtDesc(Tenants.DEFAULT, "alice")).thenReturn(List.of());
+        when(notificationRepository.findByTenantIdAndTargetUserOrderByCreatedAtDesc(Tenants.DEFAULT, "bob")).thenReturn(List.of(unread));
+        when(notificationRepository.findByTenantIdAndTargetUserOrderByCreatedAtDesc(Tenants.DEFAULT, "carol")).thenReturn(List.of());
+
+        notificationService.importNotifications(board, Map.of("alice", 2L, "bob", 1L, "carol", 3L, adminUser.getUsername(), 1L), adminUser);
+
+        // One insertMany for alice and carol; bob already has it unread and the importer isn't told about their own tasks
+        ArgumentCaptor<List<Notification>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).insert(inserted.capture());
+        assertEquals(Set.of("alice", "carol"), inserted.getValue().stream().map(Notification::getTargetUser).collect(Collectors.toSet()));
+        verify(notificationRepository, never()).save(any(Notification.class));
+    }
+
     // TaskService Tests
     @Test
     public void testGetTasksByBoardForAdmin() {
         when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
-        when(taskRepository.findByBoardId(board.getId())).thenReturn(List.of(task));
+        when(taskRepository.findByBoardIdOrderByStatusAscRankAsc(board.getId())).thenReturn(List.of(task));
 
         List<Task> result = taskService.getTasksByBoard(board.getId(), adminUser);
 
         assertEquals(1, result.size());
-        verify(taskRepository).findByBoardId(board.getId());
+        verify(taskRepository).findByBoardIdOrderByStatusAscRankAsc(board.getId());
+    }
+
+    @Test
+    public void testBoardViewersSeeAllTasksAndAssigneesOnlyTheirOwn() {
+        User boardViewer = new User("viewer", "viewer@test.com", "USER");
+        User assignee = new User("assignee", "assignee@test.com", "USER");
+        member(boardViewer, BoardRole.VIEWER);
+        member(assignee, BoardRole.ASSIGNEE);
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.findByBoardIdOrderByStatusAscRankAsc(board.getId())).thenReturn(List.of(task));
+
+        assertEquals(List.of(task), taskService.getTasksByBoard(board.getId(), boardViewer));
+        assertEquals(List.of(), taskService.getTasksByBoard(board.getId(), assignee));
+    }
+
+    @Test
+    public void testGetTasksByBoardWithFieldsFiltersAssignedTasksInQuery() {
+        User otherUser = new User("other", "other@test.com", "USER");
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.findWithFields(any(Query.class), anyCollection())).thenReturn(List.of(task));
+
+        taskService.getTasksByBoard(board.getId(), otherUser, FieldSelection.parse("title,status", Task.class));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(taskRepository).findWithFields(query.capture(), eq(Set.of("id", "title", "status")));
+        assertEquals("other", query.getValue().getQueryObject().get("assignedTo"));
+        assertEquals(List.of("status", "rank"), List.copyOf(query.getValue().getSortObject().keySet()));
+        verify(taskRepository, never()).findByBoardIdOrderByStatusAscRankAsc(anyString());
+    }
+
+    @Test
+    public void testSearchTasksAppliesAccessRulesForRegularUsers() {
+        member(regularUser, BoardRole.OWNER);
+        when(taskRepository.search(eq(Tenants.DEFAULT), eq("bug"), any(Criteria.class), eq(0), eq(20)))
+                .thenReturn(new TaskSearchResult(List.of(task), 1, 0, 20, Map.of()));
+
+        TaskSearchResult result = taskService.searchTasks("bug", "To Do", null, null, null, 0, 20, regularUser);
+
+        assertEquals(1, result.getTotal());
+        ArgumentCaptor<Criteria> filter = ArgumentCaptor.forClass(Criteria.class);
+        verify(taskRepository).search(eq(Tenants.DEFAULT), eq("bug"), filter.capture(), eq(0), eq(20));
+        String criteria = filter.getValue().getCriteriaObject().toJson();
+        assertTrue(criteria.contains("\"status\": \"To Do\""));
+        assertTrue(criteria.contains("\"$or\""));
+        assertTrue(criteria.contains("\"board1\""));
     }
 
     @Test
     public void testCreateTaskByAdmin() {
         when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.findLastRank(board.getId(), "To Do")).thenReturn("V");
         when(taskRepository.save(any(Task.class))).thenReturn(task);
 
         Task result = taskService.createTask(task, adminUser);
 
         assertEquals(task.getId(), result.getId());
         verify(taskRepository).save(task);
+        // The assignee becomes a member of the board
+        verify(boardMemberRepository).addIfAbsent(board.getId(), regularUser.getUsername(), BoardRole.ASSIGNEE);
+        // Goes to the bottom of its column
+        assertTrue(task.getRank().compareTo("V") > 0);
+        verify(tenants).reserveTasks(Tenants.DEFAULT, 1);
     }
 
     @Test
@@ -149,4 +456,487 @@ public class KanbanServiceTests {
         assertEquals("In Progress", result.getStatus());
         verify(taskRepository).save(task);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUpdateTaskStatusOnlyRecordsTransition() {
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(taskRepository.save(any(Task.class))).thenReturn(task);
+
+        taskService.updateTaskStatusOnly(task.getId(), "In Progress", regularUser);
+
+        ArgumentCaptor<TaskTransition> transition = ArgumentCaptor.forClass(TaskTransition.class);
+        verify(taskTransitionRepository).save(transition.capture());
+        assertEquals("To Do", transition.getValue().getFromStatus());
+        assertEquals("In Progress", transition.getValue().getToStatus());
+        assertNotNull(task.getStatusChangedAt());
+    }
+
+    @Test
+    public void testTasksOfDeletedBoardsAreArchived() {
+        Task orphan = new Task("Task 2", "Description", "To Do", "Medium",
+                regularUser.getUsername(), adminUser.getUsername(), "deletedBoard");
+        orphan.setId("task2");
+        when(taskRepository.findActiveBoardIds()).thenReturn(List.of(board.getId(), "deletedBoard"));
+        when(boardRepository.findWithFields(any(Query.class), anyCollection())).thenReturn(List.of(board));
+        when(taskRepository.findByBoardId("deletedBoard")).thenReturn(List.of(orphan));
+
+        assertEquals(1, taskService.archiveTasksOfDeletedBoards());
+
+        assertTrue(orphan.isArchived());
+        verify(taskRepository).save(orphan);
+        verify(taskRepository, never()).findByBoardId(board.getId());
+        verify(tenants).releaseTasks(Tenants.DEFAULT, 1);
+        ArgumentCaptor<TaskEvent> event = ArgumentCaptor.forClass(TaskEvent.class);
+        verify(taskEventRepository).append(event.capture());
+        assertEquals(TaskEvent.TOMBSTONE, event.getValue().getOp());
+    }
+
+    @Test
+    public void testStatusChangeIntoAFullColumnIsRejected() {
+        board.setWipLimits(Map.of("In Progress", 2));
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(boardCountsRepository.increment(eq(board.getId()), any(), eq(BoardCounts.statusField("In Progress")), eq(2)))
+                .thenReturn(false);
+
+        WipLimitExceededException e = assertThrows(WipLimitExceededException.class,
+                () -> taskService.updateTaskStatusOnly(task.getId(), "In Progress", regularUser));
+
+        assertEquals("In Progress", e.getColumn());
+        verify(taskRepository, never()).save(any(Task.class));
+    }
+
+    @Test
+    public void testFailedWriteGivesTheColumnSlotBack() {
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.save(any(Task.class))).thenThrow(new RuntimeException("write failed"));
+
+        assertThrows(RuntimeException.class, () -> taskService.updateTaskStatusOnly(task.getId(), "Done", regularUser));
+
+        // The priority didn't change, so only the columns are counted
+        verify(boardCountsRepository).increment(board.getId(),
+                Map.of(BoardCounts.statusField("To Do"), -1L, BoardCounts.statusField("Done"), 1L), null, null);
+        verify(boardCountsRepository).increment(board.getId(),
+                Map.of(BoardCounts.statusField("To Do"), 1L, BoardCounts.statusField("Done"), -1L), null, null);
+    }
+
+    @Test
+    public void testArchivingAndRestoringMoveTheTaskBetweenItsColumnAndTheArchivedCount() {
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        taskService.deleteTask(task.getId(), adminUser);
+        taskService.restoreTask(task.getId(), adminUser);
+
+        verify(boardCountsRepository).increment(board.getId(), Map.of(BoardCounts.statusField("To Do"), -1L,
+                BoardCounts.priorityField("Medium"), -1L, BoardCounts.ARCHIVED_FIELD, 1L), null, null);
+        verify(boardCountsRepository).increment(board.getId(), Map.of(BoardCounts.statusField("To Do"), 1L,
+                BoardCounts.priorityField("Medium"), 1L, BoardCounts.ARCHIVED_FIELD, -1L), null, null);
+        // Out of the tenant's active tasks and back in
+        verify(tenants).releaseTasks(Tenants.DEFAULT, 1);
+        verify(tenants).reserveTasks(Tenants.DEFAULT, 1);
+    }
+
+    @Test
+    public void testFullColumnGivesTheTenantQuotaBack() {
+        task.setArchived(true);
+        board.setWipLimits(Map.of("To Do", 1));
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(boardCountsRepository.increment(eq(board.getId()), any(), eq(BoardCounts.statusField("To Do")), eq(1)))
+                .thenReturn(false);
+
+        assertThrows(WipLimitExceededException.class, () -> taskService.restoreTask(task.getId(), adminUser));
+
+        verify(tenants).reserveTasks(Tenants.DEFAULT, 1);
+        verify(tenants).releaseTasks(Tenants.DEFAULT, 1);
+        verify(taskRepository, never()).save(any(Task.class));
+    }
+
+    @Test
+    public void testRestoreBringsBackATaskMovedToTheArchive() {
+        task.setArchived(true);
+        when(archivedTaskRepository.findById(task.getId())).thenReturn(Optional.of(ArchivedTask.of(task)));
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Task restored = taskService.restoreTask(task.getId(), adminUser);
+
+        assertFalse(restored.isArchived());
+        assertFalse(restored instanceof ArchivedTask);
+        verify(taskRepository).save(restored);
+        verify(archivedTaskRepository).deleteById(task.getId());
+    }
+
+    @Test
+    public void testArchivedTasksAreMovedInBatches() {
+        taskService.archiveBatchSize = 2;
+        Task first = rankedTask("task2", "Done", "A");
+        Task second = rankedTask("task3", "Done", "B");
+        Task third = rankedTask("task4", "Done", "C");
+        when(taskRepository.findArchived(2)).thenReturn(List.of(first, second), List.of(third));
+        when(taskRepository.moveToArchive(anyList())).thenAnswer(invocation -> invocation.<List<Task>>getArgument(0).size());
+
+        assertEquals(3, taskService.moveArchivedTasks());
+
+        verify(taskRepository, times(2)).findArchived(2);
+    }
+
+    @Test
+    public void testReconciliationOnlyRewritesDriftedCounts() {
+        BoardCounts accurate = counts("board1", Map.of("To Do", 2L), Map.of("High", 2L), 0);
+        BoardCounts drifted = counts("board2", Map.of("v1.2", 5L), Map.of("Low", 5L), 1);
+        BoardCounts emptied = counts("board3", Map.of("Done", 1L), Map.of("Low", 1L), 0);
+        // A counter that went back to zero is the same as no counter
+        BoardCounts zeroed = counts("board1", Map.of("To Do", 2L, "Done", 0L), Map.of("High", 2L), 0);
+        BoardCounts recounted = counts("board2", Map.of("v1.2", 4L), Map.of("Low", 4L), 1);
+        BoardCounts uncounted = counts("board4", Map.of(), Map.of(), 3);
+        when(taskRepository.countAllBoards()).thenReturn(List.of(accurate, recounted, uncounted));
+        when(boardCountsRepository.findAll()).thenReturn(List.of(zeroed, drifted, emptied));
+
+        assertEquals(3, taskService.boardCounts.reconcile());
+
+        verify(boardCountsRepository).save(recounted);
+        verify(boardCountsRepository).save(uncounted);
+        verify(boardCountsRepository).save(argThat((BoardCounts counts) ->
+                counts.getId().equals("board3") && counts.getStatus().isEmpty()));
+        verify(boardCountsRepository, never()).save(argThat((BoardCounts counts) -> counts.getId().equals("board1")));
+    }
+
+    @Test
+    public void testPriorityChangeIsCountedWithoutTouchingTheColumns() {
+        Task edit = new Task("Task 1", "Description", "To Do", "High", "user", "admin", board.getId());
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        taskService.updateTask(task.getId(), edit, adminUser);
+
+        verify(boardCountsRepository).increment(board.getId(),
+                Map.of(BoardCounts.priorityField("Medium"), -1L, BoardCounts.priorityField("High"), 1L), null, null);
+    }
+
+    @Test
+    public void testStatusChangeForksOnlyTheRankRead() {
+        Task edit = new Task("Task 1", "Description", "Done", "Medium", "user", "admin", board.getId());
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.findLastRank(board.getId(), "Done")).thenReturn("m");
+        List<Thread> forks = new CopyOnWriteArrayList<>();
+        List<Integer> forksBeforeSave = new CopyOnWriteArrayList<>();
+        Thread caller = Thread.currentThread();
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> {
+            assertSame(caller, Thread.currentThread());
+            forksBeforeSave.add(forks.size());
+            return invocation.getArgument(0);
+        });
+        taskService.fanOut.executor = command -> {
+            Thread fork = new Thread(command);
+            forks.add(fork);
+            fork.start();
+        };
+
+        Task saved = taskService.updateTask(task.getId(), edit, adminUser);
+
+        // The save runs on the request thread; before it only the rank was read on a fork
+        assertEquals(List.of(1), forksBeforeSave);
+        assertTrue(saved.getRank().compareTo("m") > 0);
+        verify(taskRepository).save(task);
+    }
+
+    @Test
+    public void testMoveWithinAColumnOnlyRewritesTheMovedTask() {
+        Task above = rankedTask("task2", "To Do", "A");
+        Task below = rankedTask("task3", "To Do", "B");
+        task.setRank("z");
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(taskRepository.findById(above.getId())).thenReturn(Optional.of(above));
+        when(taskRepository.findById(below.getId())).thenReturn(Optional.of(below));
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.updatePosition(eq(task.getId()), eq("To Do"), anyString(), isNull()))
+                .thenAnswer(invocation -> rankedTask(task.getId(), "To Do", invocation.getArgument(2)));
+
+        Task moved = taskService.moveTask(task.getId(), null, above.getId(), below.getId(), regularUser);
+
+        assertTrue(moved.getRank().compareTo("A") > 0 && moved.getRank().compareTo("B") < 0);
+        verify(taskRepository, never()).save(any(Task.class));
+        verifyNoInteractions(taskTransitionRepository, notificationRepository);
+    }
+
+    @Test
+    public void testMoveToAnotherColumnRecordsTheTransition() {
+        Task above = rankedTask("task2", "Done", "k");
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(taskRepository.findById(above.getId())).thenReturn(Optional.of(above));
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+        when(taskRepository.findNextRank(board.getId(), "Done", "k")).thenReturn(null);
+        when(taskRepository.updatePosition(eq(task.getId()), eq("Done"), anyString(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> rankedTask(task.getId(), "Done", invocation.getArgument(2)));
+
+        Task moved = taskService.moveTask(task.getId(), "Done", above.getId(), null, regularUser);
+
+        assertTrue(moved.getRank().compareTo("k") > 0);
+        ArgumentCaptor<TaskTransition> transition = ArgumentCaptor.forClass(TaskTransition.class);
+        verify(taskTransitionRepository).save(transition.capture());
+        assertEquals("Done", transition.getValue().getToStatus());
+    }
+
+    @Test
+    public void testMoveNextToATaskOfAnotherColumnIsRejected() {
+        Task elsewhere = rankedTask("task2", "Done", "k");
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(taskRepository.findById(elsewhere.getId())).thenReturn(Optional.of(elsewhere));
+        when(boardRepository.findById(board.getId())).thenReturn(Optional.of(board));
+
+        assertThrows(RuntimeException.class,
+                () -> taskService.moveTask(task.getId(), "To Do", elsewhere.getId(), null, regularUser));
+        verify(taskRepository, never()).updatePosition(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testRebalancingRespreadsLongAndMissingRanks() {
+        Task unranked = rankedTask("task2", "To Do", null);
+        Task longRank = rankedTask("task3", "To Do", "V0000000000000001");
+        task.setRank("V");
+        when(taskRepository.findColumnsToRebalance(16)).thenReturn(Map.of(board.getId(), Set.of("To Do")));
+        when(taskRepository.findByBoardIdAndStatusAndIsArchivedOrderByRankAsc(board.getId(), "To Do", false))
+                .thenReturn(List.of(unranked, task, longRank));
+
+        assertEquals(1, taskService.rebalanceRanks());
+
+        // Same order as before, unranked last, with short evenly spaced ranks
+        ArgumentCaptor<String[]> ranks = ArgumentCaptor.forClass(String[].class);
+        verify(taskRepository).updateRanks(eq(List.of(task, longRank, unranked)), ranks.capture());
+        assertEquals(List.of("F", "U", "j"), List.of(ranks.getValue()));
+        assertEquals("j", unranked.getRank());
+        verify(taskEventRepository).appendAll(anyList());
+    }
+
+    private void member(User user, BoardRole role) {
+        lenient().when(boardMemberRepository.findByUsername(user.getUsername()))
+                .thenReturn(List.of(new BoardMember(board.getId(), user.getUsername(), role)));
+    }
+
+    private Task rankedTask(String id, String status, String rank) {
+        Task ranked = new Task("Task", "Description", status, "Medium",
+                regularUser.getUsername(), adminUser.getUsername(), board.getId());
+        ranked.setId(id);
+        ranked.setRank(rank);
+        return ranked;
+    }
+
+    // BoardMetricsService Tests
+    @Test
+    public void testBoardMetricsAreCachedUntilATaskInTheBoardChanges() {
+        BoardMetricsService boardMetricsService = taskService.boardMetricsService;
+        LocalDateTime now = LocalDateTime.now();
+        when(taskRepository.countActiveByStatus(board.getId())).thenReturn(Map.of("In Progress", 2L));
+        when(taskTransitionRepository.findCompletions(eq(board.getId()), eq("To Do"), eq("Done"), any()))
+                .thenReturn(List.of(completion(now.minusHours(10), now.minusHours(4), now),
+                        completion(now.minusHours(30), now.minusHours(20), now)));
+
+        BoardMetrics metrics = boardMetricsService.getMetrics(board, 7);
+
+        assertEquals(Map.of("To Do", 0L, "In Progress", 2L, "Done", 0L), metrics.getWip());
+        assertEquals(2, metrics.getThroughput());
+        assertEquals(10.0, metrics.getLeadTimeHours().get("p50"));
+        assertEquals(30.0, metrics.getLeadTimeHours().get("p95"));
+        assertEquals(4.0, metrics.getCycleTimeHours().get("p50"));
+        assertEquals(7, metrics.getCumulativeFlow().size());
+
+        assertSame(metrics, boardMetricsService.getMetrics(board, 7));
+        verify(taskRepository, times(1)).countActiveByStatus(board.getId());
+
+        boardMetricsService.invalidate(board.getId());
+        assertNotSame(metrics, boardMetricsService.getMetrics(board, 7));
+    }
+
+    @Test
+    public void testBoardMetricsFollowWritesTheHotBoardCacheSees() {
+        BoardMetricsService boardMetricsService = taskService.boardMetricsService;
+        BoardMetrics metrics = boardMetricsService.getMetrics(board, 7);
+
+        // A column change, here or on another instance
+        taskService.hotBoardCache.refreshBoard(board);
+        BoardMetrics afterUpdate = boardMetricsService.getMetrics(board, 7);
+        assertNotSame(metrics, afterUpdate);
+
+        // The board was deleted
+        taskService.hotBoardCache.invalidateBoard(board.getId());
+        assertNotSame(afterUpdate, boardMetricsService.getMetrics(board, 7));
+        verify(taskRepository, times(3)).countActiveByStatus(board.getId());
+    }
+
+    @Test
+    public void testBoardMetricsComputedDuringAWriteAreNotCached() {
+        BoardMetricsService boardMetricsService = taskService.boardMetricsService;
+        // The task moves while the first compute is reading
+        when(taskRepository.countActiveByStatus(board.getId()))
+                .thenAnswer(invocation -> {
+                    boardMetricsService.invalidate(board.getId());
+                    return Map.of();
+                })
+                .thenReturn(Map.of("Done", 1L));
+
+        boardMetricsService.getMetrics(board, 7);
+        BoardMetrics metrics = boardMetricsService.getMetrics(board, 7);
+
+        assertEquals(1L, metrics.getWip().get("Done"));
+        assertSame(metrics, boardMetricsService.getMetrics(board, 7));
+        verify(taskRepository, times(2)).countActiveByStatus(board.getId());
+    }
+
+    @Test
+    public void testBoardMetricsAreComputedOnThePrimary() {
+        List<ReadPreference> readWith = new ArrayList<>();
+        when(taskRepository.countActiveByStatus(board.getId())).thenAnswer(invocation -> {
+            readWith.add(ReadRouting.current());
+            return Map.of();
+        });
+
+        // A @SecondaryReads request
+        ReadRouting.set(ReadPreference.secondaryPreferred());
+        try {
+            taskService.boardMetricsService.getMetrics(board, 7);
+        } finally {
+            ReadRouting.clear();
+        }
+
+        assertEquals(Collections.singletonList(null), readWith);
+    }
+
+    @Test
+    public void testBoardMetricsCacheKeepsTheMostRecentlyUsedWindows() {
+        BoardMetricsService boardMetricsService = taskService.boardMetricsService;
+        boardMetricsService.cacheMaxEntries = 2;
+
+        BoardMetrics week = boardMetricsService.getMetrics(board, 7);
+        BoardMetrics month = boardMetricsService.getMetrics(board, 30);
+        boardMetricsService.getMetrics(board, 7);
+        boardMetricsService.getMetrics(board, 90);
+
+        // The month was least recently used
+        assertSame(week, boardMetricsService.getMetrics(board, 7));
+        assertNotSame(month, boardMetricsService.getMetrics(board, 30));
+    }
+
+    private static BoardCounts counts(String boardId, Map<String, Long> status, Map<String, Long> priority, long archived) {
+        BoardCounts counts = new BoardCounts(boardId);
+        counts.setStatus(status);
+        counts.setPriority(priority);
+        counts.setArchived(archived);
+        return counts;
+    }
+
+    private TaskCompletion completion(LocalDateTime createdAt, LocalDateTime startedAt, LocalDateTime doneAt) {
+        TaskCompletion completion = new TaskCompletion();
+        completion.setCreatedAt(createdAt);
+        completion.setStartedAt(startedAt);
+        completion.setDoneAt(doneAt);
+        return completion;
+    }
+
+    // TaskEventService Tests
+    @Test
+    public void testReassignedTaskIsLoggedForThePreviousAssignee() {
+        Task updatedTask = new Task("Task 1", "Description", "To Do", "Medium",
+                "other", adminUser.getUsername(), board.getId());
+        when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        taskService.updateTask(task.getId(), updatedTask, adminUser);
+
+        ArgumentCaptor<TaskEvent> captor = ArgumentCaptor.forClass(TaskEvent.class);
+        verify(taskEventRepository).append(captor.capture());
+        assertEquals(TaskEvent.UPSERT, captor.getValue().getOp());
+        assertEquals(board.getId(), captor.getValue().getBoardId());
+        assertTrue(captor.getValue().getAudience().containsAll(List.of("other", regularUser.getUsername())));
+    }
+
+    @Test
+    public void testChangesHydrateVisibleTasksAndTombstoneTheRest() {
+        User assignee = new User("assignee", "assignee@test.com", "USER");
+        Task hiddenTask = new Task("Task 2", "Description", "To Do", "Medium",
+                "someone-else", adminUser.getUsername(), "board2");
+        hiddenTask.setId("task2");
+        task.setAssignedTo(assignee.getUsername());
+
+        TaskEvent first = new TaskEvent(TaskEvent.TASK, task.getId(), board.getId(), TaskEvent.UPSERT, List.of());
+        first.setSeq(5);
+        TaskEvent second = new TaskEvent(TaskEvent.TASK, hiddenTask.getId(), "board2", TaskEvent.UPSERT, List.of(assignee.getUsername()));
+        second.setSeq(6);
+        TaskEvent third = new TaskEvent(TaskEvent.TASK, "task3", board.getId(), TaskEvent.TOMBSTONE, List.of());
+        third.setSeq(7);
+
+        member(assignee, BoardRole.ASSIGNEE);
+        when(taskEventRepository.findLatestSeqBelow(Long.MAX_VALUE)).thenReturn(7L);
+        when(taskEventRepository.findChanges(eq(4L), eq(7L), eq(Set.of(board.getId())),
+                eq(assignee.getUsername()), eq(3))).thenReturn(List.of(first, second, third));
+        when(taskRepository.findAllById(anyIterable())).thenReturn(List.of(task, hiddenTask));
+
+        TaskChanges changes = taskService.taskEventService.getChanges(4, 2, assignee);
+
+        // Only two of the three events fit, so the cursor stops at the second one
+        assertTrue(changes.isHasMore());
+        assertEquals(6, changes.getCursor());
+        assertEquals(List.of(task), changes.getTasks());
+        assertEquals(List.of(hiddenTask.getId()), changes.getDeletedTaskIds());
+    }
+
+    @Test
+    public void testCursorWaitsForSeqsCommittedOutOfOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        TaskEventService taskEventService = taskService.taskEventService;
+        // 6 was allocated before 7, but 7 was inserted first
+        when(taskEventRepository.findLatestSeqBelow(5L)).thenReturn(4L);
+        when(taskEventRepository.findCreatedSince(any(LocalDateTime.class)))
+                .thenReturn(List.of(created(5, now.minusSeconds(5)), created(7, now.minusSeconds(3))));
+        when(taskEventRepository.findChanges(eq(4L), eq(5L), isNull(), eq(adminUser.getUsername()), eq(11)))
+                .thenReturn(List.of(taskEvent(5)));
+
+        assertEquals(5, taskEventService.getChanges(4, 10, adminUser).getCursor());
+
+        // 6 is in, stamped after 7: held back until it has settled too
+        when(taskEventRepository.findCreatedSince(any(LocalDateTime.class)))
+                .thenReturn(List.of(created(5, now.minusSeconds(5)), created(6, now), created(7, now.minusSeconds(3))));
+
+        assertEquals(5, taskEventService.getChanges(5, 10, adminUser).getCursor());
+
+        when(taskEventRepository.findCreatedSince(any(LocalDateTime.class)))
+                .thenReturn(List.of(created(5, now.minusSeconds(5)), created(6, now.minusSeconds(2)), created(7, now.minusSeconds(3))));
+        when(taskEventRepository.findChanges(eq(5L), eq(7L), isNull(), eq(adminUser.getUsername()), eq(11)))
+                .thenReturn(List.of(taskEvent(6), taskEvent(7)));
+
+        TaskChanges changes = taskEventService.getChanges(5, 10, adminUser);
+        assertEquals(7, changes.getCursor());
+        assertEquals(List.of("task6", "task7"), changes.getDeletedTaskIds());
+        // 7 was never read on its own, ahead of 6
+        verify(taskEventRepository, never()).findChanges(eq(4L), eq(7L), any(), any(), anyInt());
+    }
+
+    @Test
+    public void testCursorMovesPastAnInsertThatFailedLongAgo() {
+        // 6 never landed; nothing was created within the lost window
+        when(taskEventRepository.findLatestSeqBelow(Long.MAX_VALUE)).thenReturn(7L);
+        when(taskEventRepository.findChanges(eq(5L), eq(7L), isNull(), eq(adminUser.getUsername()), eq(11)))
+                .thenReturn(List.of(taskEvent(7)));
+
+        assertEquals(7, taskService.taskEventService.getChanges(5, 10, adminUser).getCursor());
+    }
+
+    private static TaskEvent created(long seq, LocalDateTime at) {
+        TaskEvent event = new TaskEvent();
+        event.setSeq(seq);
+        event.setAt(at);
+        return event;
+    }
+
+    private TaskEvent taskEvent(long seq) {
+        TaskEvent event = new TaskEvent(TaskEvent.TASK, "task" + seq, board.getId(), TaskEvent.UPSERT, List.of());
+        event.setTenantId(Tenants.DEFAULT);
+        event.setSeq(seq);
+        return event;
+    }
+}
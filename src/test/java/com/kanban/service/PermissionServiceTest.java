@@ -0,0 +1,271 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.BoardMember;
+import com.kanban.model.BoardRole;
+import com.kanban.model.Role;
+import com.kanban.model.Task;
+import com.kanban.model.User;
+import com.kanban.repository.BoardMemberRepository;
+import com.kanban.repository.BoardRepository;
+import com.kanban.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class PermissionServiceTest {
+
+    private final AtomicInteger mongoCalls = new AtomicInteger();
+    private final AtomicInteger membershipCalls = new AtomicInteger();
+    // username -> board id -> role, served by the stubbed board_members repository
+    private final Map<String, Map<String, BoardRole>> members = new HashMap<>();
+
+    private PermissionService permissions;
+    private User regularUser;
+    private Board board;
+    private Task task;
+
+    @BeforeEach
+    public void setUp() {
+        regularUser = new User("user", "user@test.com", "USER");
+        board = new Board("Test Board", "Description", regularUser.getUsername(), Arrays.asList("To Do", "Done"));
+        board.setId("board1");
+        task = new Task("Task 1", "Description", "To Do", "Medium", regularUser.getUsername(), "admin", board.getId());
+        task.setId("task1");
+
+        // Stub-only mocks don't record invocations, so they stay cheap enough for the benchmark loop
+        BoardRepository boardRepository = mock(BoardRepository.class, withSettings().stubOnly());
+        TaskRepository taskRepository = mock(TaskRepository.class, withSettings().stubOnly());
+        when(boardRepository.findById(anyString())).thenAnswer(invocation -> {
+            mongoCalls.incrementAndGet();
+            return board.getId().equals(invocation.getArgument(0)) ? Optional.of(board) : Optional.empty();
+        });
+        when(taskRepository.findById(anyString())).thenAnswer(invocation -> {
+            mongoCalls.incrementAndGet();
+            return task.getId().equals(invocation.getArgument(0)) ? Optional.of(task) : Optional.empty();
+        });
+
+        // The board's creator is its owner
+        members.put(regularUser.getUsername(), Map.of(board.getId(), BoardRole.OWNER));
+        BoardMemberRepository boardMemberRepository = mock(BoardMemberRepository.class, withSettings().stubOnly());
+        when(boardMemberRepository.findByUsername(anyString())).thenAnswer(invocation -> {
+            membershipCalls.incrementAndGet();
+            String username = invocation.getArgument(0);
+            return members.getOrDefault(username, Map.of()).entrySet().stream()
+                    .map(membership -> new BoardMember(membership.getKey(), username, membership.getValue()))
+                    .toList();
+        });
+
+        permissions = new PermissionService();
+        permissions.boardRepository = boardRepository;
+        permissions.taskRepository = taskRepository;
+        // Cache disabled so the counts measure the per-request memo alone
+        permissions.hotBoardCache = new HotBoardCache();
+        permissions.hotBoardCache.maxWeightBytes = 0;
+        permissions.memberships = new BoardMembershipService();
+        permissions.memberships.boardMemberRepository = boardMemberRepository;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testViewersCanReadButNotModify() {
+        User viewer = new User("user", "user@test.com", Role.VIEWER);
+
+        assertTrue(permissions.canAccessTask(task, viewer));
+        assertFalse(permissions.canModifyTask(task, viewer));
+        assertFalse(permissions.canModifyTask(task.getId(), viewer));
+        assertFalse(permissions.canModifyBoard(board.getId(), viewer));
+        assertEquals(0, mongoCalls.get());
+    }
+
+    @Test
+    public void testBoardRolesDecideAccessToOtherUsersTasks() {
+        task.setAssignedTo("someone-else");
+        User maintainer = new User("maintainer", "maintainer@test.com", "USER");
+        User boardViewer = new User("viewer", "viewer@test.com", "USER");
+        User assignee = new User("assignee", "assignee@test.com", "USER");
+        User outsider = new User("outsider", "outsider@test.com", "USER");
+        members.put(maintainer.getUsername(), Map.of(board.getId(), BoardRole.MAINTAINER));
+        members.put(boardViewer.getUsername(), Map.of(board.getId(), BoardRole.VIEWER));
+        members.put(assignee.getUsername(), Map.of(board.getId(), BoardRole.ASSIGNEE));
+
+        assertTrue(permissions.canAccessTask(task, maintainer));
+        assertTrue(permissions.canModifyTask(task, maintainer));
+        assertFalse(permissions.canModifyBoard(board.getId(), maintainer));
+
+        assertTrue(permissions.canAccessTask(task, boardViewer));
+        assertFalse(permissions.canModifyTask(task, boardViewer));
+
+        // Assignees see the board but only their own tasks on it
+        assertTrue(permissions.canAccessBoard(board, assignee));
+        assertFalse(permissions.canAccessTask(task, assignee));
+        assertFalse(permissions.canModifyTask(task, assignee));
+
+        assertFalse(permissions.canAccessBoard(board, outsider));
+        assertFalse(permissions.canAccessTask(task, outsider));
+
+        assertTrue(permissions.canModifyBoard(board.getId(), regularUser));
+        // The board itself was only read for its tenant, once the owner role allowed the change
+        assertEquals(1, mongoCalls.get());
+    }
+
+    @Test
+    public void testMembershipsAreReadOncePerUserUntilTheyChange() {
+        inRequest(() -> assertTrue(permissions.canModifyBoard(board.getId(), regularUser)));
+        inRequest(() -> assertTrue(permissions.canModifyBoard(board.getId(), regularUser)));
+        assertEquals(1, membershipCalls.get());
+
+        permissions.memberships.setRole("board2", regularUser.getUsername(), BoardRole.VIEWER);
+        inRequest(() -> assertTrue(permissions.canModifyBoard(board.getId(), regularUser)));
+        assertEquals(2, membershipCalls.get());
+    }
+
+    @Test
+    public void testRolesResolveOnceToSharedAuthorities() {
+        User admin = new User("admin2", "admin2@test.com", "admin");
+
+        assertSame(Role.ADMIN, admin.getRole());
+        assertSame(Role.ADMIN.getAuthorities(), admin.getAuthorities());
+        // Stronger roles carry the weaker ones, so hasRole('USER') admits admins
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_USER", "ROLE_VIEWER"),
+                admin.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        // Board-level roles are not global roles
+        assertNull(Role.of("maintainer"));
+        assertNull(Role.of("superuser"));
+    }
+
+    @Test
+    public void testPreAuthorizeAndMethodBodyShareOneLookupPerRequest() {
+        inRequest(() -> {
+            // @PreAuthorize("... @permissions.canModifyTask(#id, authentication.principal)") followed by the body
+            assertTrue(permissions.canModifyTask(task.getId(), regularUser));
+            assertSame(task, permissions.task(task.getId()).orElseThrow());
+            assertTrue(permissions.canAccessTask(task, regularUser));
+            assertEquals(1, permissions.lookupsInRequest());
+        });
+        assertEquals(1, mongoCalls.get());
+
+        // The next request starts with an empty memo
+        inRequest(() -> assertTrue(permissions.canModifyTask(task.getId(), regularUser)));
+        assertEquals(2, mongoCalls.get());
+    }
+
+    @Test
+    public void testMissingEntitiesAreMemoizedToo() {
+        inRequest(() -> {
+            assertFalse(permissions.canModifyBoard("missing", regularUser));
+            assertFalse(permissions.canAccessBoard("missing", regularUser));
+        });
+        assertEquals(1, mongoCalls.get());
+    }
+
+    @Test
+    public void testEvictedBoardIsReadAgain() {
+        inRequest(() -> {
+            assertTrue(permissions.canAccessBoard(board.getId(), regularUser));
+            permissions.evictBoard(board.getId());
+            assertTrue(permissions.board(board.getId()).isPresent());
+        });
+        assertEquals(2, mongoCalls.get());
+    }
+
+    @Test
+    public void testWithoutARequestEveryCheckReadsMongo() {
+        assertTrue(permissions.canModifyTask(task.getId(), regularUser));
+        assertTrue(permissions.task(task.getId()).isPresent());
+        assertEquals(2, mongoCalls.get());
+        assertEquals(0, permissions.lookupsInRequest());
+    }
+
+    @Test
+    public void testAdminChecksNeverReadMemberships() {
+        User adminUser = new User("admin", "admin@test.com", "ADMIN");
+        inRequest(() -> {
+            assertTrue(permissions.canModifyBoard(board.getId(), adminUser));
+            assertTrue(permissions.canModifyTask(task.getId(), adminUser));
+        });
+        // Only the board and task themselves, for their tenant
+        assertEquals(2, mongoCalls.get());
+        assertEquals(0, membershipCalls.get());
+    }
+
+    @Test
+    public void testNothingCrossesTenants() {
+        board.setTenantId("acme");
+        task.setTenantId("acme");
+        User acmeUser = new User(regularUser.getUsername(), "user@acme.com", Role.USER, "acme");
+        User otherAdmin = new User("admin", "admin@other.com", Role.ADMIN, "other");
+        // Same username as the owner, but in another tenant
+        User otherUser = new User(regularUser.getUsername(), "user@other.com", Role.USER, "other");
+
+        assertTrue(permissions.canAccessBoard(board, acmeUser));
+        assertTrue(permissions.canModifyBoard(board.getId(), acmeUser));
+        assertTrue(permissions.canModifyTask(task.getId(), acmeUser));
+
+        for (User user : List.of(otherAdmin, otherUser)) {
+            assertFalse(permissions.canAccessBoard(board, user));
+            assertFalse(permissions.canModifyBoard(board.getId(), user));
+            assertFalse(permissions.canCreateTaskInBoard(board.getId(), user));
+            assertFalse(permissions.canAccessTask(task, user));
+            assertFalse(permissions.canModifyTask(task.getId(), user));
+        }
+    }
+
+    // A non-admin task update authorizes twice, in @PreAuthorize and in the body; inside a request the
+    // second check is answered by the memo
+    @Test
+    public void testRequestMemoHalvesTheAuthorizationLookups() {
+        authorizeUpdate(false);
+        assertEquals(2, mongoCalls.getAndSet(0));
+
+        authorizeUpdate(true);
+        assertEquals(1, mongoCalls.getAndSet(0));
+
+        // The memo ends with its request
+        authorizeUpdate(true);
+        assertEquals(1, mongoCalls.get());
+    }
+
+    private void authorizeUpdate(boolean withRequestContext) {
+        Runnable check = () -> {
+            assertTrue(permissions.canModifyTask(task.getId(), regularUser));
+            Task loaded = permissions.task(task.getId()).orElseThrow();
+            assertTrue(permissions.canModifyTask(loaded, regularUser));
+        };
+        if (withRequestContext) {
+            inRequest(check);
+        } else {
+            check.run();
+        }
+    }
+
+    private static void inRequest(Runnable body) {
+        ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+        try {
+            body.run();
+        } finally {
+            attributes.requestCompleted();
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.kanban.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RanksTest {
+
+    @Test
+    public void testRandomInsertsStayOrdered() {
+        Random random = new Random(42);
+        List<String> column = new ArrayList<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            int position = random.nextInt(column.size() + 1);
+            String before = position == 0 ? null : column.get(position - 1);
+            String after = position == column.size() ? null : column.get(position);
+            String rank = Ranks.between(before, after);
+
+            assertTrue(before == null || before.compareTo(rank) < 0, before + " < " + rank);
+            assertTrue(after == null || rank.compareTo(after) < 0, rank + " < " + after);
+            assertFalse(rank.endsWith("0"), rank);
+            column.add(position, rank);
+        }
+    }
+
+    @Test
+    public void testRepeatedMovesToTheTopGrowSlowly() {
+        String top = Ranks.between(null, null);
+        for (int i = 0; i < 100; i++) {
+            top = Ranks.between(null, top);
+        }
+        assertTrue(top.length() <= 25, top);
+    }
+
+    @Test
+    public void testOutOfOrderNeighboursAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Ranks.between("b", "a"));
+        assertThrows(IllegalArgumentException.class, () -> Ranks.between("a", "a"));
+    }
+
+    @Test
+    public void testSpreadIsAscendingAndShort() {
+        for (int count : new int[]{1, 61, 62, 3000}) {
+            String[] ranks = Ranks.spread(count);
+            assertEquals(count, ranks.length);
+            for (int i = 1; i < ranks.length; i++) {
+                assertTrue(ranks[i - 1].compareTo(ranks[i]) < 0);
+            }
+            assertTrue(ranks[count - 1].length() <= 2);
+        }
+    }
+}
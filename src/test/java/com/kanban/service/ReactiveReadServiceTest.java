@@ -0,0 +1,98 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.BoardMember;
+import com.kanban.model.BoardRole;
+import com.kanban.model.Task;
+import com.kanban.model.User;
+import com.kanban.repository.BoardMemberRepository;
+import com.kanban.repository.ReactiveBoardRepository;
+import com.kanban.repository.ReactiveNotificationRepository;
+import com.kanban.repository.ReactiveTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveReadServiceTest {
+
+    @Mock private ReactiveTaskRepository taskRepository;
+    @Mock private ReactiveBoardRepository boardRepository;
+    @Mock private ReactiveNotificationRepository notificationRepository;
+    @Mock private BoardMemberRepository boardMemberRepository;
+
+    private ReactiveReadService readService;
+    private User regularUser;
+    private Board board;
+    private Task task;
+
+    @BeforeEach
+    public void setUp() {
+        regularUser = new User("user", "user@test.com", "USER");
+        board = new Board("Test Board", "Description", "admin", Arrays.asList("To Do", "Done"));
+        board.setId("board1");
+        task = new Task("Task 1", "Description", "To Do", "Medium", "someone-else", "admin", board.getId());
+        task.setId("task1");
+
+        readService = new ReactiveReadService();
+        readService.taskRepository = taskRepository;
+        readService.boardRepository = boardRepository;
+        readService.notificationRepository = notificationRepository;
+        readService.memberships = new BoardMembershipService();
+        readService.memberships.boardMemberRepository = boardMemberRepository;
+    }
+
+    @Test
+    public void testTasksByBoardOnlyReadsAssignedTasksForNonOwners() {
+        when(boardRepository.findById(board.getId())).thenReturn(Mono.just(board));
+        when(taskRepository.findByBoardIdAndAssignedToOrderByStatusAscRankAsc(board.getId(), regularUser.getUsername())).thenReturn(Flux.empty());
+
+        List<Task> tasks = readService.getTasksByBoard(board.getId(), regularUser).collectList().block();
+
+        assertTrue(tasks.isEmpty());
+        verify(taskRepository, never()).findByBoardIdOrderByStatusAscRankAsc(anyString());
+    }
+
+    @Test
+    public void testTasksByMissingBoardErrors() {
+        when(boardRepository.findById("missing")).thenReturn(Mono.empty());
+
+        assertThrows(RuntimeException.class,
+                () -> readService.getTasksByBoard("missing", regularUser).collectList().block());
+    }
+
+    @Test
+    public void testGetTaskByIdHidesTasksOnOtherUsersBoards() {
+        when(taskRepository.findById(task.getId())).thenReturn(Mono.just(task));
+
+        assertNull(readService.getTaskById(task.getId(), regularUser).block());
+        // Decided by the user's memberships, the board isn't read
+        verify(boardRepository, never()).findById(anyString());
+    }
+
+    @Test
+    public void testBoardViewersSeeEveryTaskOfTheBoard() {
+        when(taskRepository.findById(task.getId())).thenReturn(Mono.just(task));
+        when(boardMemberRepository.findByUsername(regularUser.getUsername()))
+                .thenReturn(List.of(new BoardMember(board.getId(), regularUser.getUsername(), BoardRole.VIEWER)));
+
+        assertSame(task, readService.getTaskById(task.getId(), regularUser).block());
+    }
+
+    @Test
+    public void testUnreadCount() {
+        when(notificationRepository.countByTenantIdAndTargetUserAndIsRead("default", regularUser.getUsername(), false)).thenReturn(Mono.just(3L));
+
+        assertEquals(3L, readService.getUnreadCount(regularUser).block());
+    }
+}
@@ -0,0 +1,207 @@
+package com.kanban.service;
+
+import com.kanban.model.Board;
+import com.kanban.model.BoardRole;
+import com.kanban.model.Task;
+import com.kanban.model.User;
+import com.kanban.repository.BoardCountsRepository;
+import com.kanban.repository.BoardMemberRepository;
+import com.kanban.repository.BoardRepository;
+import com.kanban.repository.NotificationRepository;
+import com.kanban.repository.TaskEventRepository;
+import com.kanban.repository.TaskRepository;
+import com.kanban.repository.TaskTransitionRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Guard for the java21 profile: a task write must not block while its virtual thread is pinned
+// to the carrier (e.g. Mongo I/O inside a synchronized block or a ConcurrentHashMap.compute), nor
+// wait for a monitor on the caches every request goes through
+@ExtendWith(MockitoExtension.class)
+@EnabledForJreRange(min = JRE.JAVA_21)
+public class VirtualThreadPinningTest {
+
+    // Stand-in for a Mongo round-trip, well above the 20ms default threshold of the pinned event
+    private static final long ROUND_TRIP_MILLIS = 30;
+
+    @Mock private BoardRepository boardRepository;
+    @Mock private NotificationRepository notificationRepository;
+    @Mock private TaskRepository taskRepository;
+    @Mock private TaskTransitionRepository taskTransitionRepository;
+    @Mock private TaskEventRepository taskEventRepository;
+    @Mock private BoardCountsRepository boardCountsRepository;
+    @Mock private BoardMemberRepository boardMemberRepository;
+
+    private TaskService taskService;
+    private HotBoardCache hotBoardCache;
+    private BoardMembershipService memberships;
+    private User regularUser;
+    private Board board;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        regularUser = new User("user", "user@test.com", "USER");
+        board = new Board("Test Board", "Description", "admin", Arrays.asList("To Do", "Done"));
+        board.setId("board1");
+
+        CollectionVersionService collectionVersions = new CollectionVersionService();
+
+        FanOut fanOut = new FanOut();
+        fanOut.executor = newVirtualThreadPerTaskExecutor();
+
+        NotificationService notificationService = new NotificationService();
+        notificationService.notificationRepository = notificationRepository;
+        notificationService.boardRepository = boardRepository;
+        notificationService.collectionVersions = collectionVersions;
+        notificationService.fanOut = fanOut;
+
+        BoardMetricsService boardMetricsService = new BoardMetricsService();
+        boardMetricsService.taskRepository = taskRepository;
+        boardMetricsService.taskTransitionRepository = taskTransitionRepository;
+
+        TaskEventService taskEventService = new TaskEventService();
+        taskEventService.taskEventRepository = taskEventRepository;
+        taskEventService.taskRepository = taskRepository;
+        taskEventService.boardRepository = boardRepository;
+
+        hotBoardCache = new HotBoardCache();
+
+        memberships = new BoardMembershipService();
+        memberships.boardMemberRepository = boardMemberRepository;
+
+        PermissionService permissions = new PermissionService();
+        permissions.boardRepository = boardRepository;
+        permissions.taskRepository = taskRepository;
+        permissions.hotBoardCache = hotBoardCache;
+        permissions.memberships = memberships;
+
+        BoardCountsService boardCounts = new BoardCountsService();
+        boardCounts.boardCountsRepository = boardCountsRepository;
+        boardCounts.taskRepository = taskRepository;
+        boardCounts.tenants = mock(TenantService.class);
+
+        taskService = new TaskService();
+        taskService.taskRepository = taskRepository;
+        taskService.boardRepository = boardRepository;
+        taskService.notificationService = notificationService;
+        taskService.collectionVersions = collectionVersions;
+        taskService.boardMetricsService = boardMetricsService;
+        taskService.taskEventService = taskEventService;
+        taskService.permissions = permissions;
+        taskService.hotBoardCache = hotBoardCache;
+        taskService.boardCounts = boardCounts;
+        taskService.memberships = memberships;
+        taskService.fanOut = fanOut;
+    }
+
+    @Test
+    public void testStatusUpdatesDoNotPinVirtualThreads() throws Exception {
+        when(taskRepository.findById(anyString())).thenAnswer(slow(invocation -> Optional.of(
+                new Task("Task", "Description", "To Do", "Medium", regularUser.getUsername(), "admin", board.getId()))));
+        when(taskRepository.save(any(Task.class))).thenAnswer(slow(invocation -> invocation.getArgument(0)));
+        when(boardRepository.findById(board.getId())).thenAnswer(slow(invocation -> Optional.of(board)));
+        when(boardCountsRepository.increment(anyString(), anyMap(), any(), any())).thenAnswer(slow(invocation -> true));
+        when(boardMemberRepository.findByBoardIdOrderByUsernameAsc(board.getId())).thenAnswer(slow(invocation -> List.of()));
+        when(taskTransitionRepository.save(any())).thenAnswer(slow(invocation -> invocation.getArgument(0)));
+        when(taskEventRepository.append(any())).thenAnswer(slow(invocation -> invocation.getArgument(0)));
+        when(notificationRepository.findByTenantIdAndTargetUserOrderByCreatedAtDesc(anyString(), anyString())).thenAnswer(slow(invocation -> List.of()));
+        when(notificationRepository.save(any())).thenAnswer(slow(invocation -> invocation.getArgument(0)));
+        lenient().when(boardMemberRepository.findByUsername(anyString())).thenAnswer(slow(invocation -> List.of()));
+
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        CountDownLatch flushed = new CountDownLatch(1);
+        List<Future<?>> writes = new ArrayList<>();
+
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(ROUND_TRIP_MILLIS / 2)).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            for (int i = 0; i < 50; i++) {
+                String taskId = "task" + i;
+                writes.add(executor.submit(() -> taskService.updateTaskStatusOnly(taskId, "Done", regularUser)));
+                // Invalidations from other writers, so the cached board and memberships are reloaded under contention
+                writes.add(executor.submit(() -> {
+                    hotBoardCache.invalidateBoard(board.getId());
+                    memberships.setRole(board.getId(), "other" + taskId, BoardRole.VIEWER);
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            // Events reach the stream on the next flush after the writes
+            recording.onFlush(flushed::countDown);
+            assertTrue(flushed.await(10, TimeUnit.SECONDS));
+        }
+
+        assertTrue(pinned.isEmpty(), () -> "Virtual threads pinned while blocking: " + pinned);
+    }
+
+    // Waiting for a monitor pins too, but isn't reported as a pinned park: the caches take ReentrantLocks
+    @Test
+    public void testRequestPathCachesDoNotUseMonitors() throws Exception {
+        for (Class<?> type : List.of(HotBoardCache.class, BoardMembershipService.class, PermissionService.class,
+                BoardMetricsService.class)) {
+            for (Class<?> declared : withNested(type)) {
+                for (Method method : declared.getDeclaredMethods()) {
+                    assertFalse(Modifier.isSynchronized(method.getModifiers()), () -> method + " is synchronized");
+                }
+            }
+        }
+        for (Object cache : List.of(hotBoardCache, memberships)) {
+            for (Field field : cache.getClass().getDeclaredFields()) {
+                field.setAccessible(true);
+                Object value = field.get(cache);
+                assertFalse(value != null && value.getClass().getName().startsWith("java.util.Collections$Synchronized"),
+                        () -> field + " is a synchronized collection");
+            }
+        }
+    }
+
+    private static List<Class<?>> withNested(Class<?> type) {
+        List<Class<?>> types = new ArrayList<>(List.of(type));
+        types.addAll(Arrays.asList(type.getDeclaredClasses()));
+        return types;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() is Java 21 API; the default build targets 17
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+
+    private static <T> Answer<T> slow(Answer<T> answer) {
+        return invocation -> {
+            Thread.sleep(ROUND_TRIP_MILLIS);
+            return answer.answer(invocation);
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package com.kanban.web;
+
+import com.kanban.controller.NotificationController;
+import com.kanban.controller.TaskController;
+import com.kanban.model.Task;
+import com.kanban.model.User;
+import com.kanban.repository.BoardRepository;
+import com.kanban.repository.NotificationRepository;
+import com.kanban.repository.TaskRepository;
+import com.kanban.service.CollectionVersionService;
+import com.kanban.service.NotificationService;
+import com.kanban.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConditionalGetInterceptorTest {
+
+    private MockMvc mockMvc;
+
+    @Mock private TaskRepository taskRepository;
+    @Mock private BoardRepository boardRepository;
+    @Mock private NotificationRepository notificationRepository;
+    @Mock private Authentication authentication;
+
+    @Spy private CollectionVersionService collectionVersions = new CollectionVersionService();
+
+    @InjectMocks private ConditionalGetInterceptor interceptor;
+
+    private User regularUser;
+
+    @BeforeEach
+    void setUp() {
+        regularUser = new User("user", "user@test.com", "USER");
+        lenient().when(authentication.getPrincipal()).thenReturn(regularUser);
+
+        TaskService taskService = new TaskService();
+        ReflectionTestUtils.setField(taskService, "taskRepository", taskRepository);
+        ReflectionTestUtils.setField(taskService, "boardRepository", boardRepository);
+        ReflectionTestUtils.setField(taskService, "collectionVersions", collectionVersions);
+
+        NotificationService notificationService = new NotificationService();
+        ReflectionTestUtils.setField(notificationService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(notificationService, "collectionVersions", collectionVersions);
+
+        TaskController taskController = new TaskController();
+        ReflectionTestUtils.setField(taskController, "taskService", taskService);
+        NotificationController notificationController = new NotificationController();
+        ReflectionTestUtils.setField(notificationController, "notificationService", notificationService);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(taskController, notificationController)
+                .addInterceptors(interceptor)
+                .build();
+    }
+
+    @Test
+    void matchingETag_ShouldReturnNotModifiedWithoutMongoReads() throws Exception {
+        when(taskRepository.findByTenantIdAndAssignedTo("default", "user")).thenReturn(List.of(task()));
+
+        String etag = mockMvc.perform(get("/tasks").principal(authentication))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        clearInvocations(taskRepository);
+
+        mockMvc.perform(get("/tasks").principal(authentication).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(taskRepository, boardRepository);
+    }
+
+    @Test
+    void ifModifiedSince_ShouldReturnNotModifiedWithoutMongoReads() throws Exception {
+        String lastModified = mockMvc.perform(get("/notifications/unread-count").principal(authentication))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(lastModified);
+        clearInvocations(notificationRepository);
+
+        mockMvc.perform(get("/notifications/unread-count").principal(authentication)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void writeForUser_ShouldChangeETag() throws Exception {
+        when(taskRepository.findByTenantIdAndAssignedTo("default", "user")).thenReturn(List.of(task()));
+
+        String etag = mockMvc.perform(get("/tasks").principal(authentication))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        collectionVersions.touch(CollectionVersionService.TASKS, "user");
+
+        String newEtag = mockMvc.perform(get("/tasks").principal(authentication).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Task 1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    void writeForOtherUser_ShouldKeepETag() throws Exception {
+        when(taskRepository.findByTenantIdAndAssignedTo("default", "user")).thenReturn(List.of(task()));
+
+        String etag = mockMvc.perform(get("/tasks").principal(authentication))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        collectionVersions.touch(CollectionVersionService.TASKS, "someoneElse");
+
+        mockMvc.perform(get("/tasks").principal(authentication).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private Task task() {
+        Task task = new Task("Task 1", "Description", "To Do", "Medium", "user", "admin", "board1");
+        task.setId("task1");
+        return task;
+    }
+}
@@ -0,0 +1,63 @@
+package com.kanban.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kanban.config.JacksonConfig;
+import com.kanban.model.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSelectionTest {
+
+    private final ObjectMapper objectMapper = objectMapper();
+
+    @Test
+    void parse_ShouldMapJsonNamesToDocumentFieldsAndAlwaysIncludeId() {
+        FieldSelection selection = FieldSelection.parse("title, status,archived", Task.class);
+
+        assertTrue(selection.isValid());
+        assertFalse(selection.isAll());
+        assertEquals(Set.of("id", "title", "status", "isArchived"), selection.getDocumentFields());
+    }
+
+    @Test
+    void parse_WithUnknownField_ShouldBeInvalid() {
+        assertFalse(FieldSelection.parse("title,password", Task.class).isValid());
+    }
+
+    @Test
+    void parse_WithoutFields_ShouldSelectAll() {
+        assertTrue(FieldSelection.parse(null, Task.class).isAll());
+        assertTrue(FieldSelection.parse(" ", Task.class).isAll());
+    }
+
+    @Test
+    void filters_ShouldOnlySerializeSelectedProperties() throws Exception {
+        Task task = new Task("Task 1", "A long description", "To Do", "High", "user", "admin", "board1");
+        task.setId("task1");
+
+        String json = objectMapper.writer(FieldSelection.parse("title,status", Task.class).filters())
+                .writeValueAsString(task);
+
+        assertEquals("{\"id\":\"task1\",\"title\":\"Task 1\",\"status\":\"To Do\"}", json);
+    }
+
+    @Test
+    void defaultFilter_ShouldSerializeEverything() throws Exception {
+        Task task = new Task("Task 1", "A long description", "To Do", "High", "user", "admin", "board1");
+
+        String json = objectMapper.writeValueAsString(task);
+
+        assertTrue(json.contains("\"description\":\"A long description\""));
+        assertTrue(json.contains("\"archived\":false"));
+    }
+
+    private static ObjectMapper objectMapper() {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfig().fieldSelectionCustomizer().customize(builder);
+        return builder.build();
+    }
+}
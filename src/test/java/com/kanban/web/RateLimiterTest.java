@@ -0,0 +1,189 @@
+package com.kanban.web;
+
+import com.kanban.cluster.ClusterBus;
+import com.kanban.model.Role;
+import com.kanban.model.Tenants;
+import com.kanban.model.User;
+import com.kanban.service.TenantService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class RateLimiterTest {
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setUp() {
+        rateLimiter = new RateLimiter();
+    }
+
+    @Test
+    public void testBurstUpToCapacityThenWait() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("user GET /notifications", 5, 1));
+        }
+
+        long wait = rateLimiter.tryAcquire("user GET /notifications", 5, 1);
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "wait was " + wait);
+        // Other callers and routes have their own buckets
+        assertEquals(0, rateLimiter.tryAcquire("other GET /notifications", 5, 1));
+        assertEquals(0, rateLimiter.tryAcquire("user GET /tasks", 5, 1));
+    }
+
+    @Test
+    public void testTokensRefillOverTime() throws Exception {
+        assertEquals(0, rateLimiter.tryAcquire("key", 1, 50));
+        assertTrue(rateLimiter.tryAcquire("key", 1, 50) > 0);
+
+        Thread.sleep(40);
+        assertEquals(0, rateLimiter.tryAcquire("key", 1, 50));
+    }
+
+    @Test
+    public void testDistributedModeSharesConsumption() {
+        ClusterBus clusterBus = mock(ClusterBus.class);
+        rateLimiter.distributed = true;
+        rateLimiter.clusterBus = clusterBus;
+        rateLimiter.tryAcquire("user GET /notifications", 4, 1);
+        rateLimiter.tryAcquire("user GET /notifications", 4, 1);
+
+        rateLimiter.sync();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(clusterBus).publish(eq("ratelimit"), payload.capture());
+
+        // Another instance takes the same two tokens out of its bucket, so only two are left there
+        RateLimiter other = new RateLimiter();
+        other.applyRemote(payload.getValue());
+        assertEquals(0, other.tryAcquire("user GET /notifications", 4, 1));
+        assertEquals(0, other.tryAcquire("user GET /notifications", 4, 1));
+        assertTrue(other.tryAcquire("user GET /notifications", 4, 1) > 0);
+
+        // Nothing new to report
+        rateLimiter.sync();
+        verifyNoMoreInteractions(clusterBus);
+    }
+
+    @Test
+    public void testFullBucketsAreRemoved() throws Exception {
+        rateLimiter.tryAcquire("key", 1, 100);
+        Thread.sleep(20);
+
+        rateLimiter.removeFullBuckets();
+
+        assertEquals(0, rateLimiter.size());
+    }
+
+    @Test
+    public void testInterceptorAnswers429WithRetryAfter() throws Exception {
+        TenantService tenants = tenants(0);
+        RateLimitInterceptor interceptor = interceptor(tenants);
+        HandlerMethod handler = new HandlerMethod(new Handlers(), Handlers.class.getMethod("limited"));
+
+        assertTrue(interceptor.preHandle(request(new User("user", "user@test.com", "USER")), new MockHttpServletResponse(), handler));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request(new User("user", "user@test.com", "USER")), response, handler));
+        assertEquals(429, response.getStatus());
+        assertEquals("10", response.getHeader(HttpHeaders.RETRY_AFTER));
+        verify(tenants).requestCompleted(eq(Tenants.DEFAULT), anyLong(), eq(429));
+        verify(tenants, never()).requestThrottled(anyString());
+    }
+
+    @Test
+    public void testTenantQuotaHoldsBackAllOfItsUsers() throws Exception {
+        TenantService tenants = tenants(1);
+        RateLimitInterceptor interceptor = interceptor(tenants);
+        HandlerMethod handler = new HandlerMethod(new Handlers(), Handlers.class.getMethod("unlimited"));
+
+        assertTrue(interceptor.preHandle(request(new User("alice", "alice@acme.com", Role.USER, "acme")), new MockHttpServletResponse(), handler));
+
+        // Another user of the same tenant shares its bucket, even with their own per-user bucket still full
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request(new User("bob", "bob@acme.com", Role.USER, "acme")), response, handler));
+        assertEquals(429, response.getStatus());
+        verify(tenants).requestThrottled("acme");
+
+        // Same username, other tenant: a different user with buckets of their own
+        assertTrue(interceptor.preHandle(request(new User("alice", "alice@other.com", Role.USER, "other")), new MockHttpServletResponse(), handler));
+    }
+
+    @Test
+    public void testCallerOverTheirLimitDoesNotUseUpTheTenantsBudget() throws Exception {
+        TenantService tenants = tenants(2);
+        RateLimitInterceptor interceptor = interceptor(tenants);
+        HandlerMethod limited = new HandlerMethod(new Handlers(), Handlers.class.getMethod("limited"));
+        HandlerMethod unlimited = new HandlerMethod(new Handlers(), Handlers.class.getMethod("unlimited"));
+        User alice = new User("alice", "alice@acme.com", Role.USER, "acme");
+
+        // Alice's polling tab: one admitted request, then 429s from her own bucket
+        assertTrue(interceptor.preHandle(request(alice), new MockHttpServletResponse(), limited));
+        for (int i = 0; i < 5; i++) {
+            assertFalse(interceptor.preHandle(request(alice), new MockHttpServletResponse(), limited));
+        }
+        verify(tenants, never()).requestThrottled(anyString());
+
+        // The tenant's second token is still there for bob
+        assertTrue(interceptor.preHandle(request(new User("bob", "bob@acme.com", Role.USER, "acme")), new MockHttpServletResponse(), unlimited));
+    }
+
+    @Test
+    public void testTenantRejectionGivesTheCallersTokenBack() {
+        assertEquals(0, rateLimiter.tryAcquire("key", 1, 0.1));
+        assertNotEquals(0, rateLimiter.tryAcquire("key", 1, 0.1));
+
+        rateLimiter.release("key");
+        assertEquals(0, rateLimiter.tryAcquire("key", 1, 0.1));
+        // Never past full
+        rateLimiter.release("key");
+        rateLimiter.release("key");
+        assertEquals(0, rateLimiter.tryAcquire("key", 1, 0.1));
+        assertNotEquals(0, rateLimiter.tryAcquire("key", 1, 0.1));
+    }
+
+    private RateLimitInterceptor interceptor(TenantService tenants) {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor();
+        ReflectionTestUtils.setField(interceptor, "rateLimiter", rateLimiter);
+        ReflectionTestUtils.setField(interceptor, "tenants", tenants);
+        return interceptor;
+    }
+
+    private static TenantService tenants(double acmeRequestsPerSecond) {
+        TenantService tenants = mock(TenantService.class);
+        when(tenants.quota(anyString())).thenReturn(new TenantService.Quota(0, 0, 0));
+        when(tenants.quota("acme")).thenReturn(new TenantService.Quota(0, 0, acmeRequestsPerSecond));
+        return tenants;
+    }
+
+    private static MockHttpServletRequest request(User user) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/notifications");
+        request.setUserPrincipal(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/notifications");
+        return request;
+    }
+
+    static class Handlers {
+        @RateLimited(capacity = 1, refillPerSecond = 0.1)
+        public void limited() {
+        }
+
+        public void unlimited() {
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.kanban.web;
+
+import com.kanban.model.User;
+import com.kanban.service.CollectionVersionService;
+import com.kanban.service.ReadRouting;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoCollection;
+import jakarta.servlet.http.Cookie;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.kanban.service.CollectionVersionService.TASKS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReadRoutingInterceptorTest {
+
+    private static final ReadPreference SECONDARY = ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS);
+
+    private CollectionVersionService collectionVersions;
+    private ReadRoutingInterceptor interceptor;
+    private User user;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        collectionVersions = new CollectionVersionService();
+        interceptor = new ReadRoutingInterceptor();
+        ReflectionTestUtils.setField(interceptor, "collectionVersions", collectionVersions);
+        ReflectionTestUtils.setField(interceptor, "readYourWritesMillis", 100L);
+        user = new User("user", "user@test.com", "USER");
+        // Past the window after boot, which counts as the last change of every collection
+        Thread.sleep(120);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReadRouting.clear();
+    }
+
+    @Test
+    public void testMarkedGetReadsFromSecondariesUntilItCompletes() throws Exception {
+        MockHttpServletRequest request = request("GET", user);
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), handler("list")));
+        assertEquals(SECONDARY, ReadRouting.current());
+
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), handler("list"), null);
+        assertNull(ReadRouting.current());
+    }
+
+    @Test
+    public void testUnmarkedGetStaysOnThePrimary() throws Exception {
+        interceptor.preHandle(request("GET", user), new MockHttpServletResponse(), handler("changes"));
+
+        assertNull(ReadRouting.current());
+    }
+
+    @Test
+    public void testPreferenceLeftOnTheThreadIsNotInherited() throws Exception {
+        // A request on this thread that never reached afterCompletion
+        ReadRouting.set(SECONDARY);
+
+        interceptor.preHandle(request("GET", user), new MockHttpServletResponse(), handler("changes"));
+        assertNull(ReadRouting.current());
+
+        ReadRouting.set(SECONDARY);
+        interceptor.preHandle(request("PUT", user), new MockHttpServletResponse(), handler("update"));
+        assertNull(ReadRouting.current());
+    }
+
+    @Test
+    public void testWriterReadsFromThePrimaryUntilTheCookieRunsOut() throws Exception {
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        interceptor.preHandle(request("PUT", user), written, handler("update"));
+        Cookie cookie = written.getCookie(ReadRoutingInterceptor.RECENT_WRITE_COOKIE);
+        assertNotNull(cookie);
+        assertEquals(1, cookie.getMaxAge());
+        assertEquals(cookie.getValue(), written.getHeader(ReadRoutingInterceptor.RECENT_WRITE_HEADER));
+
+        MockHttpServletRequest read = request("GET", user);
+        read.setCookies(cookie);
+        interceptor.preHandle(read, new MockHttpServletResponse(), handler("list"));
+        assertNull(ReadRouting.current());
+
+        Thread.sleep(120);
+        interceptor.preHandle(read, new MockHttpServletResponse(), handler("list"));
+        assertEquals(SECONDARY, ReadRouting.current());
+    }
+
+    @Test
+    public void testWriterWithoutCookiesReadsFromThePrimaryUntilTheHeaderRunsOut() throws Exception {
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        interceptor.preHandle(request("POST", user), written, handler("update"));
+        String until = written.getHeader(ReadRoutingInterceptor.RECENT_WRITE_HEADER);
+        assertNotNull(until);
+
+        MockHttpServletRequest read = request("GET", user);
+        read.addHeader(ReadRoutingInterceptor.RECENT_WRITE_HEADER, until);
+        interceptor.preHandle(read, new MockHttpServletResponse(), handler("list"));
+        assertNull(ReadRouting.current());
+
+        Thread.sleep(120);
+        interceptor.preHandle(read, new MockHttpServletResponse(), handler("list"));
+        assertEquals(SECONDARY, ReadRouting.current());
+
+        // A mangled mark counts as none
+        MockHttpServletRequest mangled = request("GET", user);
+        mangled.addHeader(ReadRoutingInterceptor.RECENT_WRITE_HEADER, "soon");
+        interceptor.preHandle(mangled, new MockHttpServletResponse(), handler("list"));
+        assertEquals(SECONDARY, ReadRouting.current());
+    }
+
+    @Test
+    public void testChangedViewIsReadFromThePrimary() throws Exception {
+        collectionVersions.touch(TASKS, user.getUsername());
+
+        interceptor.preHandle(request("GET", user), new MockHttpServletResponse(), handler("tasks"));
+        assertNull(ReadRouting.current());
+
+        // Somebody else's view didn't change
+        interceptor.preHandle(request("GET", new User("other", "other@test.com", "USER")), new MockHttpServletResponse(), handler("tasks"));
+        assertEquals(SECONDARY, ReadRouting.current());
+    }
+
+    @Test
+    public void testRoutingAppliesToTheCollectionsReadOnTheThread() {
+        @SuppressWarnings("unchecked")
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        @SuppressWarnings("unchecked")
+        MongoCollection<Document> onSecondaries = mock(MongoCollection.class);
+        when(collection.getReadPreference()).thenReturn(ReadPreference.primary());
+        when(collection.withReadPreference(SECONDARY)).thenReturn(onSecondaries);
+
+        assertSame(collection, ReadRouting.prepare(collection));
+        ReadRouting.set(SECONDARY);
+        assertSame(onSecondaries, ReadRouting.prepare(collection));
+        assertSame(collection, ReadRouting.primary(() -> ReadRouting.prepare(collection)));
+    }
+
+    private static MockHttpServletRequest request(String method, User user) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/tasks");
+        request.setUserPrincipal(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws Exception {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+
+    static class Handlers {
+        @SecondaryReads
+        public void list() {
+        }
+
+        @ConditionalGet(TASKS)
+        @SecondaryReads
+        public void tasks() {
+        }
+
+        public void changes() {
+        }
+
+        public void update() {
+        }
+    }
+}